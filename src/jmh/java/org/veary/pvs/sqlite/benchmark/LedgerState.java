@@ -0,0 +1,152 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.benchmark;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.dao.DayBookDataAccessObject;
+import org.veary.pvs.dao.PeriodDataAccessObject;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqlitePooledModule;
+import org.veary.pvs.sqlite.LedgerDataGenerator;
+import org.veary.pvs.sqlite.Posting;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+/**
+ * A ledger in an on-disk SQLite file under {@code target/jmh}, shared by the threads of one
+ * benchmark trial. The {@link LedgerDataGenerator} fills it with {@link #transactions} postings
+ * between {@link #ACCOUNTS} accounts, spread over the twelve monthly day books of one period.
+ * The file is created afresh for each trial.
+ */
+@State(Scope.Benchmark)
+public class LedgerState {
+
+    /** The number of accounts in the ledger. */
+    public static final int ACCOUNTS = 50;
+
+    private static final int MONTHS = 12;
+    private static final String GENERATED = "Generated";
+
+    @Param({ "1000", "10000", "100000" })
+    public int transactions;
+
+    Injector injector;
+    Period period;
+    List<Account> accounts;
+    List<DayBook> dayBooks;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        File dir = new File("target/jmh");
+        dir.mkdirs();
+        this.file = new File(dir, "ledger-" + this.transactions + ".db");
+        this.file.delete();
+
+        this.injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(
+                new ConnectionPoolSettings("jdbc:sqlite:" + this.file.getPath()))
+            );
+        this.injector.getInstance(DatabaseManager.class).createTables();
+
+        new LedgerDataGenerator(this.transactions)
+            .setAccounts(ACCOUNTS)
+            .setPeriods(1)
+            .setDayBooksPerPeriod(MONTHS)
+            .setPostings(this.transactions)
+            .generate(this.injector);
+
+        this.accounts = this.injector.getInstance(AccountDataAccessObject.class).getAccounts()
+            .stream().filter(account -> account.getName().startsWith(GENERATED))
+            .collect(Collectors.toList());
+        this.dayBooks = this.injector.getInstance(DayBookDataAccessObject.class).getDayBooks()
+            .stream().filter(dayBook -> dayBook.getName().startsWith(GENERATED))
+            .sorted(Comparator.comparing(DayBook::getName))
+            .collect(Collectors.toList());
+        this.period = this.injector.getInstance(PeriodDataAccessObject.class)
+            .getByName(GENERATED + " FY2000").get();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+        ConnectionManager manager = this.injector.getInstance(ConnectionManager.class);
+        if (manager instanceof AutoCloseable) {
+            ((AutoCloseable) manager).close();
+        }
+        this.file.delete();
+    }
+
+    /**
+     * @return the injector of the ledger, for the benchmarks of the package-private classes
+     */
+    public Injector getInjector() {
+        return this.injector;
+    }
+
+    /**
+     * @return the twelve monthly day books, in order
+     */
+    public List<DayBook> getDayBooks() {
+        return this.dayBooks;
+    }
+
+    SqliteSystemDataAccessObject dao() {
+        return this.injector.getInstance(SqliteSystemDataAccessObject.class);
+    }
+
+    Posting newPosting(Random random, int month, int sequence) {
+        int from = random.nextInt(ACCOUNTS);
+        int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        return new Posting(LocalDate.of(2000, month + 1, 1 + random.nextInt(28)),
+            "Payment " + sequence, new Money(BigDecimal.valueOf(1 + random.nextInt(100000), 2)),
+            this.accounts.get(from), this.accounts.get(to), "PV" + sequence,
+            this.dayBooks.get(month).getId());
+    }
+}
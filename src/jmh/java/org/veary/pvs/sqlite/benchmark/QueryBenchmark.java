@@ -0,0 +1,125 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.dao.DayBookDataAccessObject;
+import org.veary.pvs.dao.PeriodDataAccessObject;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.model.Transaction;
+
+/**
+ * The latency of the read paths: the transactions of a day book, the transactions of one
+ * account in a day book, and the account, period and day book lookups by id and by name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBenchmark {
+
+    @State(Scope.Thread)
+    public static class Lookup {
+        final Random random = new Random(42);
+        AccountDataAccessObject accounts;
+        PeriodDataAccessObject periods;
+        DayBookDataAccessObject dayBooks;
+
+        @Setup
+        public void setup(LedgerState ledger) {
+            this.accounts = ledger.injector.getInstance(AccountDataAccessObject.class);
+            this.periods = ledger.injector.getInstance(PeriodDataAccessObject.class);
+            this.dayBooks = ledger.injector.getInstance(DayBookDataAccessObject.class);
+        }
+
+        Account account(LedgerState ledger) {
+            return ledger.accounts.get(this.random.nextInt(ledger.accounts.size()));
+        }
+
+        DayBook dayBook(LedgerState ledger) {
+            return ledger.dayBooks.get(this.random.nextInt(ledger.dayBooks.size()));
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionsForDayBook(LedgerState ledger, Lookup lookup) {
+        return ledger.dao().getTransactionsForDayBook(lookup.dayBook(ledger));
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionForAccountInDayBook(LedgerState ledger,
+        Lookup lookup) {
+        return ledger.dao().getTransactionForAccountInDayBook(lookup.account(ledger),
+            lookup.dayBook(ledger));
+    }
+
+    @Benchmark
+    public Optional<Account> getAccountById(LedgerState ledger, Lookup lookup) {
+        return lookup.accounts.getById(lookup.account(ledger).getId());
+    }
+
+    @Benchmark
+    public Optional<Account> getAccountByName(LedgerState ledger, Lookup lookup) {
+        return lookup.accounts.getByName(lookup.account(ledger).getName());
+    }
+
+    @Benchmark
+    public Optional<Period> getPeriodById(LedgerState ledger, Lookup lookup) {
+        return lookup.periods.getById(ledger.period.getId());
+    }
+
+    @Benchmark
+    public Optional<Period> getPeriodByName(LedgerState ledger, Lookup lookup) {
+        return lookup.periods.getByName(ledger.period.getName());
+    }
+
+    @Benchmark
+    public Optional<DayBook> getDayBookById(LedgerState ledger, Lookup lookup) {
+        return lookup.dayBooks.getById(lookup.dayBook(ledger).getId());
+    }
+
+    @Benchmark
+    public Optional<DayBook> getDayBookByName(LedgerState ledger, Lookup lookup) {
+        return lookup.dayBooks.getByName(lookup.dayBook(ledger).getName());
+    }
+}
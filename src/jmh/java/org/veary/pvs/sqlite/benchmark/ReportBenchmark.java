@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.ReportDataAccessObject;
+
+/**
+ * Whole-ledger reads: the SQL trial balance of the period, and every transaction mapped into
+ * model objects, both as a list and as a stream. Run them against a large ledger with, for
+ * example, {@code -Djmh.args="ReportBenchmark -p transactions=1000000 -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Benchmark
+    public void trialBalanceForPeriod(LedgerState ledger, Blackhole blackhole) {
+        ledger.injector.getInstance(ReportDataAccessObject.class)
+            .trialBalance(ledger.period, blackhole::consume);
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactions(LedgerState ledger) {
+        return ledger.dao().getTransactions();
+    }
+
+    @Benchmark
+    public void streamTransactions(LedgerState ledger, Blackhole blackhole) {
+        try (Stream<Transaction> stream = ledger.dao().streamTransactions()) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.LedgerEntry;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.benchmark.LedgerState;
+
+/**
+ * The transactions of a day book loaded with the single journal/ledger join, against the
+ * original N+1 loading as the baseline: one journal query, then one ledger query, on its own
+ * connection, per journal. Run at 1k/10k/100k transactions with
+ * {@code -Djmh.args="JournalLoadingBenchmark"}; the speedup is the ratio of the two scores.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalLoadingBenchmark {
+
+    @State(Scope.Thread)
+    public static class Loader {
+        final Random random = new Random(42);
+        SystemDataAccessObjectImpl dao;
+        ModelFactory factory;
+
+        @Setup
+        public void setup(LedgerState ledger) {
+            this.dao = ledger.getInjector().getInstance(SystemDataAccessObjectImpl.class);
+            this.factory = ledger.getInjector().getInstance(ModelFactory.class);
+        }
+
+        DayBook dayBook(LedgerState ledger) {
+            List<DayBook> dayBooks = ledger.getDayBooks();
+            return dayBooks.get(this.random.nextInt(dayBooks.size()));
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> joined(LedgerState ledger, Loader loader) {
+        return loader.dao.getTransactionsForDayBook(loader.dayBook(ledger));
+    }
+
+    /**
+     * The loading replaced by the join, kept as it was.
+     */
+    @Benchmark
+    public List<Transaction> nPlusOneBaseline(LedgerState ledger, Loader loader)
+        throws Exception {
+        List<Map<Object, Object>> journals = loader.dao.executeSqlAndReturnList(
+            "SELECT * FROM journal WHERE daybook_id=?",
+            String.valueOf(loader.dayBook(ledger).getId()));
+        List<Transaction> list = new ArrayList<>(journals.size());
+        for (Map<Object, Object> row : journals) {
+            Transaction tx = loader.factory.buildTransactionObject(row);
+            List<LedgerEntry> entries = new ArrayList<>();
+            for (Map<Object, Object> entry : loader.dao.executeSqlAndReturnList(
+                "SELECT * FROM ledger WHERE journal_id=?", String.valueOf(tx.getId()))) {
+                entries.add(loader.factory.buildLedgerEntryObject(entry));
+            }
+            tx.setLedgerEntries(entries);
+            list.add(tx);
+        }
+        return list;
+    }
+}
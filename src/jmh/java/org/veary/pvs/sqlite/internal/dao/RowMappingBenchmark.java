@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.benchmark.LedgerState;
+
+/**
+ * The journal rows of a day book turned into {@link Transaction} objects in two ways: through a
+ * {@code HashMap} per row built by {@code executeSqlAndReturnList}, and through the reused row
+ * of a {@link ModelRowMapper}. Both run the same query. Compare the {@code gc.alloc.rate.norm}
+ * of the two with {@code -Djmh.args="RowMappingBenchmark -prof gc"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMappingBenchmark {
+
+    private static final String SQL = "SELECT * FROM journal WHERE daybook_id=?";
+
+    @State(Scope.Thread)
+    public static class Mapper {
+        final Random random = new Random(42);
+        SystemDataAccessObjectImpl dao;
+        ModelFactory factory;
+
+        @Setup
+        public void setup(LedgerState ledger) {
+            this.dao = ledger.getInjector().getInstance(SystemDataAccessObjectImpl.class);
+            this.factory = ledger.getInjector().getInstance(ModelFactory.class);
+        }
+
+        int dayBookId(LedgerState ledger) {
+            List<DayBook> dayBooks = ledger.getDayBooks();
+            return dayBooks.get(this.random.nextInt(dayBooks.size())).getId();
+        }
+    }
+
+    @Benchmark
+    public List<Transaction> mapPerRow(LedgerState ledger, Mapper mapper) throws Exception {
+        List<Map<Object, Object>> rows = mapper.dao.executeSqlAndReturnList(SQL,
+            String.valueOf(mapper.dayBookId(ledger)));
+        List<Transaction> list = new ArrayList<>(rows.size());
+        for (Map<Object, Object> row : rows) {
+            list.add(mapper.factory.buildTransactionObject(row));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public List<Transaction> rowMapper(LedgerState ledger, Mapper mapper) throws Exception {
+        return mapper.dao.executeQueryForList(SQL, ModelRowMapper.transaction(mapper.factory),
+            Integer.valueOf(mapper.dayBookId(ledger)));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import org.veary.pvs.core.Money;
+import org.veary.pvs.model.Account;
+
+/**
+ * The trial balance totals of all the accounts of one {@link Account.Type}.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see ReportDataAccessObject
+ */
+public final class AccountTypeTotals {
+
+    private final Account.Type type;
+    private final Money debit;
+    private final Money credit;
+    private final Money net;
+
+    /**
+     * Constructor.
+     *
+     * @param type the account type
+     * @param debit the total of the debits
+     * @param credit the total of the credits
+     * @param net the debits less the credits
+     */
+    public AccountTypeTotals(Account.Type type, Money debit, Money credit, Money net) {
+        this.type = type;
+        this.debit = debit;
+        this.credit = credit;
+        this.net = net;
+    }
+
+    public Account.Type getType() {
+        return this.type;
+    }
+
+    public Money getDebit() {
+        return this.debit;
+    }
+
+    public Money getCredit() {
+        return this.credit;
+    }
+
+    public Money getNet() {
+        return this.net;
+    }
+
+    @Override
+    public String toString() {
+        return "AccountTypeTotals[" + this.type + ", debit=" + this.debit + ", credit="
+            + this.credit + ", net=" + this.net + "]";
+    }
+}
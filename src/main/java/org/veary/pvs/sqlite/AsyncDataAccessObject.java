@@ -0,0 +1,105 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.model.Transaction;
+
+/**
+ * Non-blocking variants of the data access object methods. Each call runs on the executor of
+ * the {@link DataAccessSettings} and returns at once; independent lookups started together then
+ * take about as long as the slowest of them:
+ * <pre>
+ * CompletableFuture&lt;Optional&lt;Account&gt;&gt; account = async.getAccountById(accountId);
+ * CompletableFuture&lt;Optional&lt;DayBook&gt;&gt; dayBook = async.getDayBookById(dayBookId);
+ * CompletableFuture.allOf(account, dayBook).join();
+ * </pre>
+ *
+ * <p>At most one read per read connection of the pool, or
+ * {@link DataAccessSettings#getAsyncReadPermits()} reads if set, and
+ * {@link DataAccessSettings#getAsyncWritePermits()} writes run at once; the others wait for a
+ * permit on their executor thread, so the connection limits are never exceeded.
+ *
+ * <p>The futures complete exceptionally with the exception of the underlying call, wrapped in a
+ * {@code CompletionException}.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface AsyncDataAccessObject {
+
+    public CompletableFuture<Optional<Account>> getAccountById(int id);
+
+    public CompletableFuture<Optional<Account>> getAccountByName(String name);
+
+    public CompletableFuture<Optional<Period>> getPeriodById(int id);
+
+    public CompletableFuture<Optional<Period>> getPeriodByName(String name);
+
+    public CompletableFuture<Optional<DayBook>> getDayBookById(int id);
+
+    public CompletableFuture<Optional<DayBook>> getDayBookByName(String name);
+
+    public CompletableFuture<List<Transaction>> getTransactionsForDayBook(DayBook dayBook);
+
+    public CompletableFuture<List<Transaction>> getTransactionForAccountInDayBook(Account account,
+        DayBook dayBook);
+
+    /**
+     * @param posting the {@link Posting}
+     * @return a future completed with the result of {@code postTransaction}
+     */
+    public CompletableFuture<Boolean> postTransaction(Posting posting);
+
+    /**
+     * @param postings the postings
+     * @return a future completed with the result of
+     *         {@link SqliteSystemDataAccessObject#postTransactions(Iterable)}
+     */
+    public CompletableFuture<BatchPostingResult> postTransactions(Iterable<Posting> postings);
+
+    /**
+     * Runs any read, for example a report, under the read limit.
+     *
+     * @param read the read, which must only use read connections
+     * @return a future completed with the result of the read
+     */
+    public <T> CompletableFuture<T> supplyRead(Supplier<T> read);
+
+    /**
+     * Runs any write under the write limit.
+     *
+     * @param write the write
+     * @return a future completed with the result of the write
+     */
+    public <T> CompletableFuture<T> supplyWrite(Supplier<T> write);
+}
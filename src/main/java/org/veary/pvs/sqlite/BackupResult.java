@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a {@link BackupService} copy.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class BackupResult {
+
+    private final File destination;
+    private final List<File> periodFiles;
+    private final int pageCount;
+    private final int restarts;
+    private final long elapsedMillis;
+
+    /**
+     * Constructor.
+     *
+     * @param destination the file written
+     * @param periodFiles the period files written with it, empty if no period has been moved
+     * @param pageCount the number of pages in the source database
+     * @param restarts the number of times the copy started again because the source changed
+     * @param elapsedMillis the elapsed time of the copy
+     */
+    public BackupResult(File destination, List<File> periodFiles, int pageCount, int restarts,
+        long elapsedMillis) {
+        this.destination = destination;
+        this.periodFiles = Collections.unmodifiableList(periodFiles);
+        this.pageCount = pageCount;
+        this.restarts = restarts;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public File getDestination() {
+        return this.destination;
+    }
+
+    public List<File> getPeriodFiles() {
+        return this.periodFiles;
+    }
+
+    public int getPageCount() {
+        return this.pageCount;
+    }
+
+    public int getRestarts() {
+        return this.restarts;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BackupResult[destination=" + this.destination + ", periodFiles="
+            + this.periodFiles.size() + ", pages=" + this.pageCount
+            + ", restarts=" + this.restarts + ", elapsed=" + this.elapsedMillis + "ms]";
+    }
+}
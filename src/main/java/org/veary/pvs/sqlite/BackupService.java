@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.io.File;
+
+/**
+ * Copies the live database to a file while the application keeps running. Each copy is first
+ * written next to the destination and renamed into place once complete, so the destination
+ * only ever holds a whole backup.
+ *
+ * <p>{@link #backup(File, ProgressListener)} uses the SQLite online backup interface. It copies
+ * the pages in steps and only holds a read lock during each step, so postings are delayed by one
+ * step at most; the steps are throttled by {@link BackupSettings}. A commit by another
+ * connection between steps starts the copy again from the first page.
+ *
+ * <p>{@link #snapshot(File)} runs {@code VACUUM INTO}, which writes a compacted copy in one read
+ * transaction. With {@code journal_mode=WAL} it never blocks the writer, but it cannot report
+ * progress or be throttled. It requires SQLite 3.27 or later.
+ *
+ * <p>When periods have been moved by the {@link PeriodShardManager}, a backup is a set: the copy
+ * of the main database and, in the {@code -periods} directory next to it, a copy of each period
+ * file it lists. The directory is written before the main copy is renamed into place. To restore
+ * the set, point {@link ConnectionPoolSettings#setPeriodShardDirectory(String)} at the directory.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface BackupService {
+
+    /**
+     * Receives the progress of an online backup after each step.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * @param remaining the number of pages still to copy
+         * @param pageCount the number of pages in the source database
+         */
+        public void progress(int remaining, int pageCount);
+    }
+
+    /**
+     * Copies the database with the online backup interface.
+     *
+     * @param destination the backup file, replaced if it exists
+     * @return the outcome of the copy
+     * @throws org.veary.pvs.exceptions.DataAccessException if the copy fails
+     */
+    public default BackupResult backup(File destination) {
+        return backup(destination, (remaining, pageCount) -> {
+            // no progress reporting
+        });
+    }
+
+    /**
+     * Copies the database with the online backup interface.
+     *
+     * @param destination the backup file, replaced if it exists
+     * @param listener receives the progress after each step; called on the calling thread
+     * @return the outcome of the copy
+     * @throws org.veary.pvs.exceptions.DataAccessException if the copy fails
+     */
+    public BackupResult backup(File destination, ProgressListener listener);
+
+    /**
+     * Writes a compacted copy of the database with {@code VACUUM INTO}.
+     *
+     * @param destination the snapshot file, replaced if it exists
+     * @return the outcome of the copy
+     * @throws org.veary.pvs.exceptions.DataAccessException if the copy fails
+     */
+    public BackupResult snapshot(File destination);
+}
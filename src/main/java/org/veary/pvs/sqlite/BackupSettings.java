@@ -0,0 +1,87 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Settings of the {@link BackupService}. The defaults are used unless an instance is bound in a
+ * Guice module:
+ * <pre>
+ * binder -&gt; binder.bind(BackupSettings.class).toInstance(
+ *     new BackupSettings().setStepPauseMillis(20))
+ * </pre>
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class BackupSettings {
+
+    private long stepPauseMillis;
+    private int maxThrottledRestarts = 1;
+
+    /**
+     * @return the pause after each step of an online backup. Default: {@code 0}.
+     */
+    public long getStepPauseMillis() {
+        return this.stepPauseMillis;
+    }
+
+    /**
+     * Throttles online backups. Between steps the database is unlocked, so a pause leaves room
+     * for the postings at the cost of a longer backup.
+     *
+     * @param stepPauseMillis the pause after each step, {@code 0} to copy at full speed
+     * @return this object
+     */
+    public BackupSettings setStepPauseMillis(long stepPauseMillis) {
+        checkArgument(stepPauseMillis >= 0, "The pause cannot be negative");
+        this.stepPauseMillis = stepPauseMillis;
+        return this;
+    }
+
+    /**
+     * @return the number of restarts after which an online backup stops pausing. Default:
+     *         {@code 1}.
+     */
+    public int getMaxThrottledRestarts() {
+        return this.maxThrottledRestarts;
+    }
+
+    /**
+     * An online backup starts again from the first page whenever another connection commits
+     * to the database. A throttled backup of a busy database could restart indefinitely, so
+     * after the given number of restarts the remaining steps run without a pause.
+     *
+     * @param maxThrottledRestarts the number of restarts, {@code 0} to stop pausing at the
+     *        first restart
+     * @return this object
+     */
+    public BackupSettings setMaxThrottledRestarts(int maxThrottledRestarts) {
+        checkArgument(maxThrottledRestarts >= 0, "The number of restarts cannot be negative");
+        this.maxThrottledRestarts = maxThrottledRestarts;
+        return this;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.List;
+import java.util.Map;
+
+import org.veary.pvs.core.Money;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+
+/**
+ * Account balances read from the {@code balance} table, which holds the running total of each
+ * account in each day book. Every posting updates it in the same SQLite transaction as its
+ * ledger rows, so a balance never needs the ledger to be summed.
+ *
+ * <p>A balance is the sum of the ledger amounts: debits are positive and credits negative.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface BalanceDataAccessObject {
+
+    /**
+     * @param account the {@link Account}
+     * @return the balance of the account across all day books
+     */
+    public Money getBalance(Account account);
+
+    /**
+     * @param account the {@link Account}
+     * @param dayBook the {@link DayBook}
+     * @return the balance of the account in the day book
+     */
+    public Money getBalance(Account account, DayBook dayBook);
+
+    /**
+     * @param account the {@link Account}
+     * @param period the {@link Period}
+     * @return the balance of the account across the day books of the period
+     */
+    public Money getBalance(Account account, Period period);
+
+    /**
+     * @return the balance of every account which has postings, keyed by account id
+     */
+    public Map<Integer, Money> getBalances();
+
+    /**
+     * @param dayBook the {@link DayBook}
+     * @return the balance of every account with postings in the day book, keyed by account id
+     */
+    public Map<Integer, Money> getBalances(DayBook dayBook);
+
+    /**
+     * @param period the {@link Period}
+     * @return the balance of every account with postings in the period, keyed by account id
+     */
+    public Map<Integer, Money> getBalances(Period period);
+
+    /**
+     * Recomputes every balance from the ledger and compares it with the {@code balance} table.
+     * This reads the whole ledger.
+     *
+     * @return the balances which differ, empty if the table is consistent
+     */
+    public List<BalanceDrift> checkBalances();
+
+    /**
+     * Replaces the contents of the {@code balance} table with balances recomputed from the
+     * ledger, in one transaction. The balances of periods moved into files of their own by the
+     * {@link PeriodShardManager} are kept as they are.
+     *
+     * @return the number of balance rows written
+     */
+    public int rebuildBalances();
+}
@@ -0,0 +1,79 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import org.veary.pvs.core.Money;
+
+/**
+ * A balance in the {@code balance} table which does not match the sum of its ledger rows.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see BalanceDataAccessObject#checkBalances()
+ */
+public final class BalanceDrift {
+
+    private final int accountId;
+    private final int dayBookId;
+    private final Money expected;
+    private final Money actual;
+
+    /**
+     * Constructor.
+     *
+     * @param accountId the id of the account
+     * @param dayBookId the id of the day book
+     * @param expected the balance recomputed from the ledger
+     * @param actual the balance held in the {@code balance} table
+     */
+    public BalanceDrift(int accountId, int dayBookId, Money expected, Money actual) {
+        this.accountId = accountId;
+        this.dayBookId = dayBookId;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public int getAccountId() {
+        return this.accountId;
+    }
+
+    public int getDayBookId() {
+        return this.dayBookId;
+    }
+
+    public Money getExpected() {
+        return this.expected;
+    }
+
+    public Money getActual() {
+        return this.actual;
+    }
+
+    @Override
+    public String toString() {
+        return "BalanceDrift[account=" + this.accountId + ", daybook=" + this.dayBookId
+            + ", expected=" + this.expected + ", actual=" + this.actual + "]";
+    }
+}
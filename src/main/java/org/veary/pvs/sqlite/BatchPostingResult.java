@@ -0,0 +1,108 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a batch of postings. A failed posting does not stop the rest of the batch, it
+ * is reported here instead.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class BatchPostingResult {
+
+    /**
+     * A posting which was rolled back.
+     */
+    public static final class Failure {
+
+        private final int index;
+        private final Posting posting;
+        private final Exception cause;
+
+        /**
+         * Constructor.
+         *
+         * @param index the zero based position of the posting in the batch
+         * @param posting the posting, may be {@code null} if the batch contained a {@code null}
+         * @param cause the reason it failed
+         */
+        public Failure(int index, Posting posting, Exception cause) {
+            this.index = index;
+            this.posting = posting;
+            this.cause = cause;
+        }
+
+        public int getIndex() {
+            return this.index;
+        }
+
+        public Posting getPosting() {
+            return this.posting;
+        }
+
+        public Exception getCause() {
+            return this.cause;
+        }
+    }
+
+    private final int postedCount;
+    private final List<Failure> failures;
+
+    /**
+     * Constructor.
+     *
+     * @param postedCount the number of postings committed
+     * @param failures the postings which were rolled back
+     */
+    public BatchPostingResult(int postedCount, List<Failure> failures) {
+        this.postedCount = postedCount;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    /**
+     * @return the number of postings committed
+     */
+    public int getPostedCount() {
+        return this.postedCount;
+    }
+
+    /**
+     * @return the postings which were rolled back, in batch order. Cannot be {@code null}.
+     */
+    public List<Failure> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * @return {@code true} if every posting in the batch was committed
+     */
+    public boolean isSuccessful() {
+        return this.failures.isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+/**
+ * Read-only counters of a cache. Available from the injector, qualified with
+ * {@code @Named}, for example:
+ * <pre>
+ * CacheStatistics stats = injector.getInstance(
+ *     Key.get(CacheStatistics.class, Names.named(CacheStatistics.STATEMENT_CACHE)));
+ * </pre>
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface CacheStatistics {
+
+    /**
+     * The name of the prepared statement cache of the pooled {@link ConnectionManager}. Only
+     * bound by {@link GuiceSqlitePooledModule}.
+     */
+    String STATEMENT_CACHE = "pvs.statementCache"; //$NON-NLS-1$
+
+    /**
+     * The name of the entity cache of the account DAO.
+     */
+    String ACCOUNT_CACHE = "pvs.accountCache"; //$NON-NLS-1$
+
+    /**
+     * The name of the entity cache of the period DAO.
+     */
+    String PERIOD_CACHE = "pvs.periodCache"; //$NON-NLS-1$
+
+    /**
+     * The name of the entity cache of the day book DAO.
+     */
+    String DAYBOOK_CACHE = "pvs.dayBookCache"; //$NON-NLS-1$
+
+    /**
+     * @return the number of lookups which found an entry
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of lookups which did not find an entry
+     */
+    long getMissCount();
+
+    /**
+     * @return the number of entries removed to make room for new ones
+     */
+    long getEvictionCount();
+
+    /**
+     * @return the fraction of lookups which found an entry, {@code 0.0} if there have been none
+     */
+    default double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
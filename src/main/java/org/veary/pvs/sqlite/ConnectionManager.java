@@ -36,9 +36,27 @@ import java.sql.SQLException;
 public interface ConnectionManager {
 
 	/**
-	 * Gets an connection.
+	 * Gets an connection. The connection may be used for reads and writes.
 	 * @return the {@link Connection} object
 	 * @throws SQLException if there is a problem obtaining a connection object
 	 */
 	public Connection getConnection() throws SQLException;
+
+	/**
+	 * Gets a connection for executing queries only. Implementations with a separate pool of
+	 * readers override this; by default it is the same as {@link #getConnection()}.
+	 * @return the {@link Connection} object
+	 * @throws SQLException if there is a problem obtaining a connection object
+	 */
+	public default Connection getReadConnection() throws SQLException {
+		return getConnection();
+	}
+
+	/**
+	 * @return the number of connections {@link #getReadConnection()} can hand out at once, or
+	 *         {@code 0} if the implementation does not know, as with a container's data source
+	 */
+	public default int getReadConnectionLimit() {
+		return 0;
+	}
 }
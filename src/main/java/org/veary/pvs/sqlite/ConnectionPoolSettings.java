@@ -0,0 +1,298 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Settings for the pooled SQLite {@link ConnectionManager}. Every connection in the pool is
+ * opened with the PRAGMAs held here.
+ *
+ * <p>Only the JDBC url is required, for example {@code jdbc:sqlite:/var/pvs/pvs.db}. The
+ * remaining values default to settings suitable for a single-file ledger database:
+ * <pre>
+ * ConnectionPoolSettings settings = new ConnectionPoolSettings("jdbc:sqlite:pvs.db")
+ *     .setMaxConnections(8)
+ *     .setCacheSize(-32000);
+ * </pre>
+ *
+ * <p>With {@link #setReaderConnections(int)} the pool is split into one dedicated write
+ * connection and a pool of read-only connections. This requires {@code journal_mode=WAL} so
+ * that readers are not blocked by the writer.
+ *
+ * <p>Each connection keeps up to {@link #getStatementCacheSize()} prepared statements, keyed
+ * by their SQL text, so that statements the DAOs run repeatedly are compiled only once.
+ *
+ * <p>With {@link #setPeriodShardDirectory(String)} the journals and ledger rows of a period can
+ * be moved by the {@link PeriodShardManager} into a read-only file of their own, which the read
+ * connections attach. This requires the read-only connections of single writer mode.
+ *
+ * <p>The settings are read when the pool opens a connection, so configure the object before
+ * creating the injector.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class ConnectionPoolSettings {
+
+    private final String url;
+    private int maxConnections = 4;
+    private int readerConnections;
+    private long acquireTimeoutMillis = 30000;
+    private String journalMode = "WAL"; //$NON-NLS-1$
+    private String synchronous = "NORMAL"; //$NON-NLS-1$
+    private int cacheSize = -16000;
+    private String tempStore = "MEMORY"; //$NON-NLS-1$
+    private long mmapSize = 268435456L;
+    private int busyTimeoutMillis = 5000;
+    private int statementCacheSize = 64;
+    private String periodShardDirectory;
+
+    /**
+     * Constructor.
+     *
+     * @param url the JDBC url of the SQLite database
+     */
+    public ConnectionPoolSettings(String url) {
+        this.url = checkNotNull(url, "The 'url' parameter is null!");
+    }
+
+    /**
+     * @return the JDBC url of the SQLite database
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * @return the maximum number of open connections in the pool. Default: {@code 4}.
+     */
+    public int getMaxConnections() {
+        return this.maxConnections;
+    }
+
+    /**
+     * @param maxConnections the maximum number of open connections in the pool
+     * @return this object
+     */
+    public ConnectionPoolSettings setMaxConnections(int maxConnections) {
+        checkArgument(maxConnections > 0, "The pool must allow at least one connection");
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * @return the number of read-only connections, or {@code 0} if readers and writers share
+     *         one pool of {@link #getMaxConnections()} connections. Default: {@code 0}.
+     */
+    public int getReaderConnections() {
+        return this.readerConnections;
+    }
+
+    /**
+     * Splits the pool into a single write connection and the given number of read-only
+     * connections. {@link #getMaxConnections()} is not used in this mode.
+     *
+     * @param readerConnections the number of read-only connections, {@code 0} to disable
+     * @return this object
+     */
+    public ConnectionPoolSettings setReaderConnections(int readerConnections) {
+        checkArgument(readerConnections >= 0, "The number of readers cannot be negative");
+        this.readerConnections = readerConnections;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if there is one write connection and a pool of readers
+     */
+    public boolean isSingleWriter() {
+        return this.readerConnections > 0;
+    }
+
+    /**
+     * @return how long a caller waits for a free connection before failing. Default:
+     *         {@code 30000}.
+     */
+    public long getAcquireTimeoutMillis() {
+        return this.acquireTimeoutMillis;
+    }
+
+    /**
+     * @param acquireTimeoutMillis how long a caller waits for a free connection
+     * @return this object
+     */
+    public ConnectionPoolSettings setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        checkArgument(acquireTimeoutMillis >= 0, "The timeout cannot be negative");
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA journal_mode}. Default: {@code WAL}.
+     */
+    public String getJournalMode() {
+        return this.journalMode;
+    }
+
+    /**
+     * @param journalMode the value of {@code PRAGMA journal_mode}
+     * @return this object
+     */
+    public ConnectionPoolSettings setJournalMode(String journalMode) {
+        this.journalMode = checkNotNull(journalMode, "The 'journalMode' parameter is null!");
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA synchronous}. Default: {@code NORMAL}.
+     */
+    public String getSynchronous() {
+        return this.synchronous;
+    }
+
+    /**
+     * @param synchronous the value of {@code PRAGMA synchronous}
+     * @return this object
+     */
+    public ConnectionPoolSettings setSynchronous(String synchronous) {
+        this.synchronous = checkNotNull(synchronous, "The 'synchronous' parameter is null!");
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA cache_size}, negative values are in KiB. Default:
+     *         {@code -16000}.
+     */
+    public int getCacheSize() {
+        return this.cacheSize;
+    }
+
+    /**
+     * @param cacheSize the value of {@code PRAGMA cache_size}
+     * @return this object
+     */
+    public ConnectionPoolSettings setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA temp_store}. Default: {@code MEMORY}.
+     */
+    public String getTempStore() {
+        return this.tempStore;
+    }
+
+    /**
+     * @param tempStore the value of {@code PRAGMA temp_store}
+     * @return this object
+     */
+    public ConnectionPoolSettings setTempStore(String tempStore) {
+        this.tempStore = checkNotNull(tempStore, "The 'tempStore' parameter is null!");
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA mmap_size} in bytes. Default: {@code 256MiB}.
+     */
+    public long getMmapSize() {
+        return this.mmapSize;
+    }
+
+    /**
+     * @param mmapSize the value of {@code PRAGMA mmap_size} in bytes, {@code 0} disables it
+     * @return this object
+     */
+    public ConnectionPoolSettings setMmapSize(long mmapSize) {
+        checkArgument(mmapSize >= 0, "The mmap size cannot be negative");
+        this.mmapSize = mmapSize;
+        return this;
+    }
+
+    /**
+     * @return the value of {@code PRAGMA busy_timeout}. Default: {@code 5000}.
+     */
+    public int getBusyTimeoutMillis() {
+        return this.busyTimeoutMillis;
+    }
+
+    /**
+     * @param busyTimeoutMillis the value of {@code PRAGMA busy_timeout}
+     * @return this object
+     */
+    public ConnectionPoolSettings setBusyTimeoutMillis(int busyTimeoutMillis) {
+        checkArgument(busyTimeoutMillis >= 0, "The busy timeout cannot be negative");
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        return this;
+    }
+
+    /**
+     * @return the number of prepared statements cached per connection. Default: {@code 64}.
+     */
+    public int getStatementCacheSize() {
+        return this.statementCacheSize;
+    }
+
+    /**
+     * @param statementCacheSize the number of prepared statements cached per connection,
+     *        {@code 0} disables the cache
+     * @return this object
+     */
+    public ConnectionPoolSettings setStatementCacheSize(int statementCacheSize) {
+        checkArgument(statementCacheSize >= 0, "The statement cache size cannot be negative");
+        this.statementCacheSize = statementCacheSize;
+        return this;
+    }
+
+    /**
+     * @return the directory holding the period files, or {@code null} if the whole ledger is
+     *         kept in the database of {@link #getUrl()}. Default: {@code null}.
+     */
+    public String getPeriodShardDirectory() {
+        return this.periodShardDirectory;
+    }
+
+    /**
+     * Keeps the ledger of each period moved with {@link PeriodShardManager#moveToShard} in the
+     * file {@code period-<id>.db} of the given directory. SQLite attaches at most ten databases
+     * to a connection, so no more than ten periods can be moved.
+     *
+     * @param periodShardDirectory the directory holding the period files, {@code null} to
+     *        disable
+     * @return this object
+     */
+    public ConnectionPoolSettings setPeriodShardDirectory(String periodShardDirectory) {
+        this.periodShardDirectory = periodShardDirectory;
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the ledger of a period can be moved into a file of its own
+     */
+    public boolean isPeriodSharding() {
+        return this.periodShardDirectory != null;
+    }
+}
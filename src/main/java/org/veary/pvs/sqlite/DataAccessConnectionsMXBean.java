@@ -0,0 +1,56 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+/**
+ * The JMX view of the connections and write transactions of the data access objects,
+ * registered by {@link JmxDataAccessMetrics}. The waits are in microseconds.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface DataAccessConnectionsMXBean {
+
+    /**
+     * @return the number of connections acquired by the data access objects
+     */
+    public long getAcquisitions();
+
+    public double getMeanWaitMicros();
+
+    public long getMaxWaitMicros();
+
+    public long getWaitP99Micros();
+
+    /**
+     * @return the number of write transactions committed
+     */
+    public long getCommits();
+
+    /**
+     * @return the number of write transactions rolled back
+     */
+    public long getRollbacks();
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+/**
+ * Receives the measurements of the SQLite data access objects. Set an implementation, such as
+ * {@link JmxDataAccessMetrics}, with {@link DataAccessSettings#setMetrics(DataAccessMetrics)}.
+ *
+ * <p>When the metrics are {@link #isEnabled() disabled}, which is the default, the data access
+ * objects are bound without the metering proxy and no clock is read, so the only cost left is
+ * one field read per connection and transaction.
+ *
+ * <p>Implementations are called concurrently from every thread using the data access objects
+ * and must be thread-safe and cheap.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface DataAccessMetrics {
+
+    /**
+     * Discards every measurement. The default of {@link DataAccessSettings}.
+     */
+    public static final DataAccessMetrics NONE = new DataAccessMetrics() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public void recordCall(String operation, long nanos, int rows, boolean failed) {
+            // disabled
+        }
+
+        @Override
+        public void recordConnectionWait(long nanos) {
+            // disabled
+        }
+
+        @Override
+        public void recordCommit() {
+            // disabled
+        }
+
+        @Override
+        public void recordRollback() {
+            // disabled
+        }
+    };
+
+    /**
+     * @return {@code false} if the measurements are discarded and need not be taken
+     */
+    public default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Records one call of a data access object method. For a method returning a
+     * {@code Stream}, the time is that of opening the stream.
+     *
+     * @param operation the interface and method, for example
+     *        {@code AccountDataAccessObject.getById(int)}
+     * @param nanos the elapsed time of the call in nanoseconds
+     * @param rows the number of objects returned, or {@code -1} if the result is not a
+     *        collection
+     * @param failed {@code true} if the call threw an exception
+     */
+    public void recordCall(String operation, long nanos, int rows, boolean failed);
+
+    /**
+     * Records the time a data access object waited for a connection.
+     *
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void recordConnectionWait(long nanos);
+
+    /**
+     * Records the commit of a write transaction.
+     */
+    public void recordCommit();
+
+    /**
+     * Records the rollback of a write transaction.
+     */
+    public void recordRollback();
+}
@@ -0,0 +1,66 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+/**
+ * The JMX view of one data access object operation, for example
+ * {@code AccountDataAccessObject.getById(int)}, registered by {@link JmxDataAccessMetrics}. The
+ * latencies are in microseconds; the percentiles are the upper bounds of power-of-two buckets.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface DataAccessOperationMXBean {
+
+    /**
+     * @return the number of calls, including those which failed
+     */
+    public long getCalls();
+
+    /**
+     * @return the number of calls which threw an exception
+     */
+    public long getFailures();
+
+    /**
+     * @return the total number of objects returned by calls which return a collection
+     */
+    public long getRows();
+
+    public double getMeanLatencyMicros();
+
+    public long getMaxLatencyMicros();
+
+    public long getLatencyP50Micros();
+
+    public long getLatencyP99Micros();
+
+    /**
+     * @return the number of calls per latency bucket. Bucket {@code 0} counts the calls under
+     *         one microsecond and bucket {@code k} those from {@code 2^(k-1)} to under
+     *         {@code 2^k} microseconds; the last bucket counts everything slower.
+     */
+    public long[] getLatencyHistogram();
+}
@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Optional behaviour of the SQLite data access objects. The defaults are used unless an instance
+ * is bound in a Guice module:
+ * <pre>
+ * injector = Guice.createInjector(
+ *     new GuiceApiModule(),
+ *     new GuiceSqliteModule(),
+ *     binder -&gt; binder.bind(DataAccessSettings.class).toInstance(
+ *         new DataAccessSettings().setGroupCommit(true))
+ *     );
+ * </pre>
+ *
+ * <p>The settings are read when the data access objects are created, so configure the object
+ * before creating the injector.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class DataAccessSettings {
+
+    private boolean groupCommit;
+    private int groupCommitMaxBatch = 256;
+    private long groupCommitMaxDelayMillis = 5;
+    private int entityCacheSize;
+    private DataAccessMetrics metrics = DataAccessMetrics.NONE;
+    private ExecutorService asyncExecutor;
+    private int asyncReadPermits;
+    private int asyncWritePermits = 1;
+
+    /**
+     * @return {@code true} if concurrent {@code postTransaction} calls are coalesced into shared
+     *         transactions by a background writer. Default: {@code false}.
+     */
+    public boolean isGroupCommit() {
+        return this.groupCommit;
+    }
+
+    /**
+     * @param groupCommit {@code true} to coalesce concurrent postings into shared transactions
+     * @return this object
+     */
+    public DataAccessSettings setGroupCommit(boolean groupCommit) {
+        this.groupCommit = groupCommit;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of postings in one group commit. Default: {@code 256}.
+     */
+    public int getGroupCommitMaxBatch() {
+        return this.groupCommitMaxBatch;
+    }
+
+    /**
+     * @param groupCommitMaxBatch the maximum number of postings in one group commit
+     * @return this object
+     */
+    public DataAccessSettings setGroupCommitMaxBatch(int groupCommitMaxBatch) {
+        checkArgument(groupCommitMaxBatch > 0, "The batch must allow at least one posting");
+        this.groupCommitMaxBatch = groupCommitMaxBatch;
+        return this;
+    }
+
+    /**
+     * @return how long the writer waits for more postings after the first one arrives.
+     *         Default: {@code 5}.
+     */
+    public long getGroupCommitMaxDelayMillis() {
+        return this.groupCommitMaxDelayMillis;
+    }
+
+    /**
+     * @param groupCommitMaxDelayMillis how long the writer waits for more postings
+     * @return this object
+     */
+    public DataAccessSettings setGroupCommitMaxDelayMillis(long groupCommitMaxDelayMillis) {
+        checkArgument(groupCommitMaxDelayMillis >= 0, "The delay cannot be negative");
+        this.groupCommitMaxDelayMillis = groupCommitMaxDelayMillis;
+        return this;
+    }
+
+    /**
+     * @return the number of accounts, periods and day books each cached by their DAO, or
+     *         {@code 0} if lookups always go to the database. Default: {@code 0}.
+     */
+    public int getEntityCacheSize() {
+        return this.entityCacheSize;
+    }
+
+    /**
+     * Caches the results of the {@code getById} and {@code getByName} lookups of the account,
+     * period and day book DAOs. The caches are cleared by the DAOs' own create, update and
+     * delete methods; rows changed by other means are not seen until then.
+     *
+     * @param entityCacheSize the number of objects cached per DAO, {@code 0} to disable
+     * @return this object
+     */
+    public DataAccessSettings setEntityCacheSize(int entityCacheSize) {
+        checkArgument(entityCacheSize >= 0, "The cache size cannot be negative");
+        this.entityCacheSize = entityCacheSize;
+        return this;
+    }
+
+    /**
+     * @return the {@link DataAccessMetrics} which receives the measurements. Default:
+     *         {@link DataAccessMetrics#NONE}.
+     */
+    public DataAccessMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @param metrics the {@link DataAccessMetrics} which receives the measurements
+     * @return this object
+     */
+    public DataAccessSettings setMetrics(DataAccessMetrics metrics) {
+        this.metrics = checkNotNull(metrics, "The 'metrics' parameter is null!");
+        return this;
+    }
+
+    /**
+     * @return the executor of the {@link AsyncDataAccessObject}, or {@code null} for fixed
+     *         pools of a daemon thread per read and per write permit.
+     *         Default: {@code null}.
+     */
+    public ExecutorService getAsyncExecutor() {
+        return this.asyncExecutor;
+    }
+
+    /**
+     * Sets the executor which runs the calls of the {@link AsyncDataAccessObject}. The calls
+     * block while they wait for a permit and for SQLite, so an executor with one cheap thread
+     * per task suits them best; on Java 21 or later use
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}. The executor is not shut down by the
+     * data access objects.
+     *
+     * @param asyncExecutor the executor, or {@code null} for the default pool
+     * @return this object
+     */
+    public DataAccessSettings setAsyncExecutor(ExecutorService asyncExecutor) {
+        this.asyncExecutor = asyncExecutor;
+        return this;
+    }
+
+    /**
+     * @return the number of {@link AsyncDataAccessObject} reads which may run at once, or
+     *         {@code 0} for one per read connection of the {@link ConnectionManager}: the
+     *         {@link ConnectionPoolSettings#getReaderConnections()} of a split pool, the
+     *         {@link ConnectionPoolSettings#getMaxConnections()} of a shared one, or {@code 4}
+     *         when the limit of the connections is not known. Default: {@code 0}.
+     */
+    public int getAsyncReadPermits() {
+        return this.asyncReadPermits;
+    }
+
+    /**
+     * @param asyncReadPermits the number of asynchronous reads which may run at once, or
+     *        {@code 0} for one per read connection
+     * @return this object
+     */
+    public DataAccessSettings setAsyncReadPermits(int asyncReadPermits) {
+        checkArgument(asyncReadPermits >= 0, "The read permits cannot be negative");
+        this.asyncReadPermits = asyncReadPermits;
+        return this;
+    }
+
+    /**
+     * @return the number of {@link AsyncDataAccessObject} writes which may run at once.
+     *         Default: {@code 1}.
+     */
+    public int getAsyncWritePermits() {
+        return this.asyncWritePermits;
+    }
+
+    /**
+     * @param asyncWritePermits the number of asynchronous writes which may run at once. SQLite
+     *        has a single writer, so more than one only queues on the database lock.
+     * @return this object
+     */
+    public DataAccessSettings setAsyncWritePermits(int asyncWritePermits) {
+        checkArgument(asyncWritePermits > 0, "At least one write must be allowed");
+        this.asyncWritePermits = asyncWritePermits;
+        return this;
+    }
+}
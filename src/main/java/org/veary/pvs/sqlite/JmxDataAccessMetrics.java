@@ -0,0 +1,253 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.veary.pvs.exceptions.DataAccessException;
+
+/**
+ * {@link DataAccessMetrics} published as JMX MXBeans in the {@value #DOMAIN} domain:
+ * <ul>
+ * <li>{@code type=DataAccessConnections,name=<name>}: a {@link DataAccessConnectionsMXBean}</li>
+ * <li>{@code type=DataAccessOperation,name=<name>,operation=<operation>}: a
+ * {@link DataAccessOperationMXBean} per operation, registered on its first call</li>
+ * </ul>
+ * <pre>
+ * JmxDataAccessMetrics metrics = new JmxDataAccessMetrics("pvs");
+ * binder.bind(DataAccessSettings.class).toInstance(new DataAccessSettings().setMetrics(metrics));
+ * </pre>
+ *
+ * <p>{@link #close()} unregisters the MXBeans.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class JmxDataAccessMetrics implements DataAccessMetrics, AutoCloseable {
+
+    /**
+     * The JMX domain of the MXBeans.
+     */
+    public static final String DOMAIN = "org.veary.pvs.sqlite";
+
+    private final String name;
+    private final MBeanServer server;
+    private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+    private final Connections connections = new Connections();
+
+    /**
+     * Constructor. Registers the MXBeans with the platform {@code MBeanServer}.
+     *
+     * @param name the value of the {@code name} key of the MXBeans, unique per data source
+     */
+    public JmxDataAccessMetrics(String name) {
+        this(name, ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name the value of the {@code name} key of the MXBeans, unique per data source
+     * @param server the {@code MBeanServer} to register the MXBeans with
+     */
+    public JmxDataAccessMetrics(String name, MBeanServer server) {
+        this.name = ObjectName.quote(checkNotNull(name, "The 'name' parameter is null!"));
+        this.server = checkNotNull(server, "The 'server' parameter is null!");
+        register(this.connections, DataAccessConnectionsMXBean.class,
+            "type=DataAccessConnections,name=" + this.name);
+    }
+
+    @Override
+    public void recordCall(String operation, long nanos, int rows, boolean failed) {
+        Operation op = this.operations.get(operation);
+        if (op == null) {
+            op = this.operations.computeIfAbsent(operation, this::newOperation);
+        }
+        op.latency.record(nanos);
+        if (failed) {
+            op.failures.increment();
+        }
+        if (rows > 0) {
+            op.rows.add(rows);
+        }
+    }
+
+    @Override
+    public void recordConnectionWait(long nanos) {
+        this.connections.wait.record(nanos);
+    }
+
+    @Override
+    public void recordCommit() {
+        this.connections.commits.increment();
+    }
+
+    @Override
+    public void recordRollback() {
+        this.connections.rollbacks.increment();
+    }
+
+    /**
+     * @param operation the interface and method, for example
+     *        {@code AccountDataAccessObject.getById(int)}
+     * @return the MXBean of the operation, empty if it has not been called
+     */
+    public Optional<DataAccessOperationMXBean> getOperation(String operation) {
+        return Optional.ofNullable(this.operations.get(operation));
+    }
+
+    /**
+     * @return the MXBean of the connections and transactions
+     */
+    public DataAccessConnectionsMXBean getConnections() {
+        return this.connections;
+    }
+
+    /**
+     * Unregisters the MXBeans. The measurements are still taken.
+     */
+    @Override
+    public void close() {
+        try {
+            for (ObjectName objectName : this.server.queryNames(
+                new ObjectName(DOMAIN + ":name=" + this.name + ",*"), null)) {
+                this.server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private Operation newOperation(String operation) {
+        Operation op = new Operation();
+        register(op, DataAccessOperationMXBean.class, "type=DataAccessOperation,name="
+            + this.name + ",operation=" + ObjectName.quote(operation));
+        return op;
+    }
+
+    private <T> void register(T mxbean, Class<T> type, String properties) {
+        try {
+            this.server.registerMBean(new StandardMBean(mxbean, type, true),
+                new ObjectName(DOMAIN + ":" + properties));
+        } catch (JMException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private static final class Operation implements DataAccessOperationMXBean {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        @Override
+        public long getCalls() {
+            return this.latency.getCount();
+        }
+
+        @Override
+        public long getFailures() {
+            return this.failures.sum();
+        }
+
+        @Override
+        public long getRows() {
+            return this.rows.sum();
+        }
+
+        @Override
+        public double getMeanLatencyMicros() {
+            return this.latency.getMeanMicros();
+        }
+
+        @Override
+        public long getMaxLatencyMicros() {
+            return this.latency.getMaxMicros();
+        }
+
+        @Override
+        public long getLatencyP50Micros() {
+            return this.latency.getPercentileMicros(0.5);
+        }
+
+        @Override
+        public long getLatencyP99Micros() {
+            return this.latency.getPercentileMicros(0.99);
+        }
+
+        @Override
+        public long[] getLatencyHistogram() {
+            return this.latency.getCounts();
+        }
+    }
+
+    private static final class Connections implements DataAccessConnectionsMXBean {
+
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private final LongAdder commits = new LongAdder();
+        private final LongAdder rollbacks = new LongAdder();
+
+        @Override
+        public long getAcquisitions() {
+            return this.wait.getCount();
+        }
+
+        @Override
+        public double getMeanWaitMicros() {
+            return this.wait.getMeanMicros();
+        }
+
+        @Override
+        public long getMaxWaitMicros() {
+            return this.wait.getMaxMicros();
+        }
+
+        @Override
+        public long getWaitP99Micros() {
+            return this.wait.getPercentileMicros(0.99);
+        }
+
+        @Override
+        public long getCommits() {
+            return this.commits.sum();
+        }
+
+        @Override
+        public long getRollbacks() {
+            return this.rollbacks.sum();
+        }
+    }
+}
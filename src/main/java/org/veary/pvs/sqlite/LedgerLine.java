@@ -0,0 +1,111 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.time.LocalDate;
+
+import org.veary.pvs.core.Money;
+
+/**
+ * One ledger line of a ledger search with the journal and account it belongs to, the columns of
+ * {@code db-design/ledger-search.sql}.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see SearchDataAccessObject#searchLedger(LedgerSearchFilter, java.util.function.Consumer)
+ */
+public final class LedgerLine {
+
+    private final int journalId;
+    private final LocalDate date;
+    private final String narrative;
+    private final String reference;
+    private final int dayBookId;
+    private final int accountId;
+    private final String accountName;
+    private final Money amount;
+
+    /**
+     * Constructor.
+     *
+     * @param journalId the id of the journal
+     * @param date the date of the journal
+     * @param narrative the narrative of the journal
+     * @param reference the reference of the journal, may be {@code null}
+     * @param dayBookId the id of the day book of the journal
+     * @param accountId the id of the account
+     * @param accountName the name of the account
+     * @param amount the amount, positive for a debit and negative for a credit
+     */
+    public LedgerLine(int journalId, LocalDate date, String narrative, String reference,
+        int dayBookId, int accountId, String accountName, Money amount) {
+        this.journalId = journalId;
+        this.date = date;
+        this.narrative = narrative;
+        this.reference = reference;
+        this.dayBookId = dayBookId;
+        this.accountId = accountId;
+        this.accountName = accountName;
+        this.amount = amount;
+    }
+
+    public int getJournalId() {
+        return this.journalId;
+    }
+
+    public LocalDate getDate() {
+        return this.date;
+    }
+
+    public String getNarrative() {
+        return this.narrative;
+    }
+
+    public String getReference() {
+        return this.reference;
+    }
+
+    public int getDayBookId() {
+        return this.dayBookId;
+    }
+
+    public int getAccountId() {
+        return this.accountId;
+    }
+
+    public String getAccountName() {
+        return this.accountName;
+    }
+
+    public Money getAmount() {
+        return this.amount;
+    }
+
+    @Override
+    public String toString() {
+        return "LedgerLine[" + this.journalId + ", " + this.date + ", " + this.accountName + ", "
+            + this.amount + ", " + this.reference + "]";
+    }
+}
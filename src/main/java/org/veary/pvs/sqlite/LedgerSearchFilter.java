@@ -0,0 +1,196 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import org.veary.pvs.core.Money;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+
+/**
+ * The criteria of a ledger search. Every criterion is optional and those which are set are
+ * combined with {@code AND}:
+ * <pre>
+ * dao.searchLedger(new LedgerSearchFilter()
+ *     .setAccounts(cash, bank)
+ *     .setPeriod(period)
+ *     .setAmountRange(new Money(new BigDecimal("100.00")), null),
+ *     line -&gt; ...);
+ * </pre>
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see SearchDataAccessObject#searchLedger(LedgerSearchFilter, java.util.function.Consumer)
+ */
+public final class LedgerSearchFilter {
+
+    private final Set<Integer> accountIds = new LinkedHashSet<>();
+    private Integer dayBookId;
+    private Integer periodId;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Money minAmount;
+    private Money maxAmount;
+    private String reference;
+
+    /**
+     * @return the ids of the accounts whose ledger lines match, empty for every account
+     */
+    public Set<Integer> getAccountIds() {
+        return Collections.unmodifiableSet(this.accountIds);
+    }
+
+    /**
+     * @param accounts the accounts whose ledger lines match, replacing any set before
+     * @return this object
+     */
+    public LedgerSearchFilter setAccounts(Account... accounts) {
+        this.accountIds.clear();
+        for (Account account : accounts) {
+            checkNotNull(account, "The 'accounts' parameter contains null!");
+            this.accountIds.add(Integer.valueOf(account.getId()));
+        }
+        return this;
+    }
+
+    /**
+     * @return the id of the day book of the journals which match
+     */
+    public Optional<Integer> getDayBookId() {
+        return Optional.ofNullable(this.dayBookId);
+    }
+
+    /**
+     * @param dayBook the day book of the journals which match, {@code null} for every day book
+     * @return this object
+     */
+    public LedgerSearchFilter setDayBook(DayBook dayBook) {
+        this.dayBookId = dayBook == null ? null : Integer.valueOf(dayBook.getId());
+        return this;
+    }
+
+    /**
+     * @return the id of the period of the day books which match
+     */
+    public Optional<Integer> getPeriodId() {
+        return Optional.ofNullable(this.periodId);
+    }
+
+    /**
+     * @param period the period of the day books which match, {@code null} for every period
+     * @return this object
+     */
+    public LedgerSearchFilter setPeriod(Period period) {
+        this.periodId = period == null ? null : Integer.valueOf(period.getId());
+        return this;
+    }
+
+    /**
+     * @return the first journal date which matches
+     */
+    public Optional<LocalDate> getFromDate() {
+        return Optional.ofNullable(this.fromDate);
+    }
+
+    /**
+     * @return the last journal date which matches
+     */
+    public Optional<LocalDate> getToDate() {
+        return Optional.ofNullable(this.toDate);
+    }
+
+    /**
+     * Dates are stored as {@code LocalDate.toString()}, so only the years 0 to 9999 can be
+     * searched.
+     *
+     * @param from the first date which matches, inclusive; {@code null} for no lower bound
+     * @param to the last date which matches, inclusive; {@code null} for no upper bound
+     * @return this object
+     */
+    public LedgerSearchFilter setDateRange(LocalDate from, LocalDate to) {
+        checkArgument(from == null || from.getYear() >= 0 && from.getYear() <= 9999,
+            "The 'from' date must be between the years 0 and 9999");
+        checkArgument(to == null || to.getYear() >= 0 && to.getYear() <= 9999,
+            "The 'to' date must be between the years 0 and 9999");
+        checkArgument(from == null || to == null || !to.isBefore(from),
+            "The 'to' date is before the 'from' date");
+        this.fromDate = from;
+        this.toDate = to;
+        return this;
+    }
+
+    /**
+     * @return the smallest absolute ledger amount which matches
+     */
+    public Optional<Money> getMinAmount() {
+        return Optional.ofNullable(this.minAmount);
+    }
+
+    /**
+     * @return the largest absolute ledger amount which matches
+     */
+    public Optional<Money> getMaxAmount() {
+        return Optional.ofNullable(this.maxAmount);
+    }
+
+    /**
+     * The amounts are compared with the absolute amount of each ledger line, so a range matches
+     * both sides of a posting.
+     *
+     * @param min the smallest amount which matches, inclusive; {@code null} for no lower bound
+     * @param max the largest amount which matches, inclusive; {@code null} for no upper bound
+     * @return this object
+     */
+    public LedgerSearchFilter setAmountRange(Money min, Money max) {
+        this.minAmount = min;
+        this.maxAmount = max;
+        return this;
+    }
+
+    /**
+     * @return the reference of the journals which match
+     */
+    public Optional<String> getReference() {
+        return Optional.ofNullable(this.reference);
+    }
+
+    /**
+     * @param reference the exact reference of the journals which match, {@code null} for any
+     * @return this object
+     */
+    public LedgerSearchFilter setReference(String reference) {
+        this.reference = reference;
+        return this;
+    }
+}
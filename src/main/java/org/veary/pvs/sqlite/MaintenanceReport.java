@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What one run of the {@link MaintenanceService} did and how long each step took.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class MaintenanceReport {
+
+    /**
+     * One maintenance step.
+     */
+    public static final class Step {
+
+        private final String name;
+        private final long elapsedMillis;
+        private final String outcome;
+
+        /**
+         * Constructor.
+         *
+         * @param name the step, for example {@code wal_checkpoint(PASSIVE)}
+         * @param elapsedMillis the elapsed time of the step
+         * @param outcome what the step did, or why it was skipped
+         */
+        public Step(String name, long elapsedMillis, String outcome) {
+            this.name = name;
+            this.elapsedMillis = elapsedMillis;
+            this.outcome = outcome;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getElapsedMillis() {
+            return this.elapsedMillis;
+        }
+
+        public String getOutcome() {
+            return this.outcome;
+        }
+
+        @Override
+        public String toString() {
+            return this.name + " " + this.elapsedMillis + "ms: " + this.outcome;
+        }
+    }
+
+    private final LocalDateTime startedAt;
+    private final List<Step> steps;
+
+    /**
+     * Constructor.
+     *
+     * @param startedAt when the run started
+     * @param steps the steps in the order they ran
+     */
+    public MaintenanceReport(LocalDateTime startedAt, List<Step> steps) {
+        this.startedAt = startedAt;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    public LocalDateTime getStartedAt() {
+        return this.startedAt;
+    }
+
+    public List<Step> getSteps() {
+        return this.steps;
+    }
+
+    /**
+     * @return the sum of the elapsed times of the steps
+     */
+    public long getElapsedMillis() {
+        long total = 0;
+        for (Step step : this.steps) {
+            total += step.getElapsedMillis();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "MaintenanceReport[startedAt=" + this.startedAt + ", steps=" + this.steps + "]";
+    }
+}
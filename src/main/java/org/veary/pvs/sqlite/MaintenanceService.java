@@ -0,0 +1,71 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.Optional;
+
+/**
+ * Keeps the database in shape while the application runs. Each run takes these steps, as
+ * configured by the {@link MaintenanceSettings}:
+ * <ol>
+ * <li>{@code PRAGMA wal_checkpoint}, which copies the WAL back into the database file;</li>
+ * <li>{@code PRAGMA optimize}, which runs {@code ANALYZE} on every table whose query planner
+ * statistics are stale, or a full {@code ANALYZE} if there are none yet;</li>
+ * <li>{@code PRAGMA incremental_vacuum} in time-bounded slices, which returns the pages freed
+ * by deletions to the file system.</li>
+ * </ol>
+ * Each step borrows the write connection on its own, so postings are only held up for the
+ * length of one step or slice.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface MaintenanceService extends AutoCloseable {
+
+    /**
+     * Schedules a run every {@link MaintenanceSettings#getIntervalMillis()}, skipping the runs
+     * that fall outside the window of the settings. Does nothing if already started.
+     */
+    public void start();
+
+    /**
+     * Runs every step now, regardless of the window, and waits for it to finish.
+     *
+     * @return the report of the run
+     * @throws org.veary.pvs.exceptions.DataAccessException if a step fails
+     */
+    public MaintenanceReport runNow();
+
+    /**
+     * @return the report of the last run, or {@code Optional.empty()} if none has completed
+     */
+    public Optional<MaintenanceReport> getLastReport();
+
+    /**
+     * Cancels the scheduled runs. A run in progress is completed.
+     */
+    @Override
+    public void close();
+}
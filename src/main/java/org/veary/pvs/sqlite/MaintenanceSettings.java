@@ -0,0 +1,268 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Settings of the {@link MaintenanceService}. The defaults are used unless an instance is bound
+ * in a Guice module:
+ * <pre>
+ * binder -&gt; binder.bind(MaintenanceSettings.class).toInstance(
+ *     new MaintenanceSettings()
+ *         .setWindow(LocalTime.of(22, 0), LocalTime.of(6, 0))
+ *         .setCheckpointMode("TRUNCATE"))
+ * </pre>
+ *
+ * <p>The settings are read on every run.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class MaintenanceSettings {
+
+    private static final List<String> CHECKPOINT_MODES = Arrays.asList(
+        "PASSIVE", "FULL", //$NON-NLS-1$ //$NON-NLS-2$
+        "RESTART", "TRUNCATE"); //$NON-NLS-1$ //$NON-NLS-2$
+
+    private long intervalMillis = 900000;
+    private LocalTime windowStart;
+    private LocalTime windowEnd;
+    private String checkpointMode = "PASSIVE"; //$NON-NLS-1$
+    private boolean optimize = true;
+    private boolean incrementalVacuum = true;
+    private boolean convertAutoVacuum;
+    private int vacuumPagesPerSlice = 256;
+    private long vacuumBudgetMillis = 1000;
+    private Consumer<MaintenanceReport> listener = report -> {
+        // not reported
+    };
+
+    /**
+     * @return the time between scheduled runs. Default: {@code 900000} (15 minutes).
+     */
+    public long getIntervalMillis() {
+        return this.intervalMillis;
+    }
+
+    /**
+     * @param intervalMillis the time between scheduled runs
+     * @return this object
+     */
+    public MaintenanceSettings setIntervalMillis(long intervalMillis) {
+        checkArgument(intervalMillis > 0, "The interval must be positive");
+        this.intervalMillis = intervalMillis;
+        return this;
+    }
+
+    /**
+     * @return the start of the daily window for scheduled runs, or {@code null} if they run at
+     *         any time. Default: {@code null}.
+     */
+    public LocalTime getWindowStart() {
+        return this.windowStart;
+    }
+
+    /**
+     * @return the end of the daily window for scheduled runs, or {@code null} if they run at
+     *         any time. Default: {@code null}.
+     */
+    public LocalTime getWindowEnd() {
+        return this.windowEnd;
+    }
+
+    /**
+     * Restricts scheduled runs to a daily idle window. A window ending before it starts spans
+     * midnight.
+     *
+     * @param start the start of the window, {@code null} for no window
+     * @param end the end of the window, {@code null} for no window
+     * @return this object
+     */
+    public MaintenanceSettings setWindow(LocalTime start, LocalTime end) {
+        checkArgument((start == null) == (end == null), "Give both ends of the window, or neither");
+        this.windowStart = start;
+        this.windowEnd = end;
+        return this;
+    }
+
+    /**
+     * @param time a time of day
+     * @return {@code true} if a scheduled run may start at the given time
+     */
+    public boolean isInWindow(LocalTime time) {
+        if (this.windowStart == null) {
+            return true;
+        }
+        if (this.windowStart.isAfter(this.windowEnd)) {
+            return !time.isBefore(this.windowStart) || time.isBefore(this.windowEnd);
+        }
+        return !time.isBefore(this.windowStart) && time.isBefore(this.windowEnd);
+    }
+
+    /**
+     * @return the mode of {@code PRAGMA wal_checkpoint}, or {@code null} to skip the
+     *         checkpoint. Default: {@code PASSIVE}.
+     */
+    public String getCheckpointMode() {
+        return this.checkpointMode;
+    }
+
+    /**
+     * {@code PASSIVE} copies what it can without waiting for readers or the writer;
+     * {@code TRUNCATE} also waits for them and empties the WAL file.
+     *
+     * @param checkpointMode {@code PASSIVE}, {@code FULL}, {@code RESTART}, {@code TRUNCATE},
+     *        or {@code null} to skip the checkpoint
+     * @return this object
+     */
+    public MaintenanceSettings setCheckpointMode(String checkpointMode) {
+        checkArgument(checkpointMode == null || CHECKPOINT_MODES.contains(checkpointMode),
+            "Unknown checkpoint mode: %s", checkpointMode);
+        this.checkpointMode = checkpointMode;
+        return this;
+    }
+
+    /**
+     * @return {@code true} to run {@code PRAGMA optimize}, which runs {@code ANALYZE} on the
+     *         tables whose statistics are stale, or on the whole database if it has none yet.
+     *         Default: {@code true}.
+     */
+    public boolean isOptimize() {
+        return this.optimize;
+    }
+
+    /**
+     * @param optimize {@code true} to run {@code PRAGMA optimize}
+     * @return this object
+     */
+    public MaintenanceSettings setOptimize(boolean optimize) {
+        this.optimize = optimize;
+        return this;
+    }
+
+    /**
+     * @return {@code true} to release free pages with {@code PRAGMA incremental_vacuum}.
+     *         Default: {@code true}.
+     */
+    public boolean isIncrementalVacuum() {
+        return this.incrementalVacuum;
+    }
+
+    /**
+     * Releases the free pages left by deletions. This requires {@code auto_vacuum=INCREMENTAL},
+     * which new databases are created with; on other databases the step is skipped unless
+     * {@link #setConvertAutoVacuum(boolean)} is set.
+     *
+     * @param incrementalVacuum {@code true} to run the incremental vacuum
+     * @return this object
+     */
+    public MaintenanceSettings setIncrementalVacuum(boolean incrementalVacuum) {
+        this.incrementalVacuum = incrementalVacuum;
+        return this;
+    }
+
+    /**
+     * @return {@code true} to switch a database to {@code auto_vacuum=INCREMENTAL}. Default:
+     *         {@code false}.
+     */
+    public boolean isConvertAutoVacuum() {
+        return this.convertAutoVacuum;
+    }
+
+    /**
+     * Switches a database created without {@code auto_vacuum=INCREMENTAL} over on the next run.
+     * This takes a full {@code VACUUM}, which rewrites the file and holds the write lock until
+     * it is done, so schedule it in an idle window.
+     *
+     * @param convertAutoVacuum {@code true} to convert the database
+     * @return this object
+     */
+    public MaintenanceSettings setConvertAutoVacuum(boolean convertAutoVacuum) {
+        this.convertAutoVacuum = convertAutoVacuum;
+        return this;
+    }
+
+    /**
+     * @return the number of pages released by each slice of the incremental vacuum. Default:
+     *         {@code 256}.
+     */
+    public int getVacuumPagesPerSlice() {
+        return this.vacuumPagesPerSlice;
+    }
+
+    /**
+     * The write connection is returned between slices, so postings wait for one slice at most.
+     *
+     * @param vacuumPagesPerSlice the number of pages released by each slice
+     * @return this object
+     */
+    public MaintenanceSettings setVacuumPagesPerSlice(int vacuumPagesPerSlice) {
+        checkArgument(vacuumPagesPerSlice > 0, "A slice must release at least one page");
+        this.vacuumPagesPerSlice = vacuumPagesPerSlice;
+        return this;
+    }
+
+    /**
+     * @return the time after which no further slice of the incremental vacuum is started.
+     *         Default: {@code 1000}.
+     */
+    public long getVacuumBudgetMillis() {
+        return this.vacuumBudgetMillis;
+    }
+
+    /**
+     * @param vacuumBudgetMillis the time after which no further slice is started; the
+     *        remaining free pages are released by later runs
+     * @return this object
+     */
+    public MaintenanceSettings setVacuumBudgetMillis(long vacuumBudgetMillis) {
+        checkArgument(vacuumBudgetMillis > 0, "The vacuum budget must be positive");
+        this.vacuumBudgetMillis = vacuumBudgetMillis;
+        return this;
+    }
+
+    /**
+     * @return receives the report of every run
+     */
+    public Consumer<MaintenanceReport> getListener() {
+        return this.listener;
+    }
+
+    /**
+     * @param listener receives the report of every run, on the thread of the run
+     * @return this object
+     */
+    public MaintenanceSettings setListener(Consumer<MaintenanceReport> listener) {
+        this.listener = checkNotNull(listener, "The 'listener' parameter is null!");
+        return this;
+    }
+}
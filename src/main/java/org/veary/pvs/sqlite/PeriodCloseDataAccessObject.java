@@ -0,0 +1,70 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.Optional;
+
+import org.veary.pvs.model.Period;
+
+/**
+ * Closes periods. Closing a period snapshots the closing balance of each account, after which no
+ * further transaction can be posted to any of its day books. Income and expense accounts close
+ * on their movement in the period; every other account also carries its balance from the
+ * earlier periods.
+ *
+ * <p>When the {@link PeriodShardManager} is enabled, the journals and ledger rows of the closed
+ * period are also moved into a read-only file of their own, so that the tables receiving the
+ * postings of the current period no longer carry its history. The transactions of the period
+ * remain readable through the query methods of the system data access object. Otherwise they
+ * stay in the main database, where the daybook and date indexes keep them out of the way of
+ * current-period queries.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface PeriodCloseDataAccessObject {
+
+    /**
+     * Closes the period. The closing balances are taken and the period is locked in one
+     * transaction; the period is then archived if period sharding is enabled.
+     *
+     * @param period the {@link Period} to close
+     * @return the record of the closing
+     * @throws org.veary.pvs.exceptions.DataAccessException if the period is already closed
+     */
+    public PeriodClosing closePeriod(Period period);
+
+    /**
+     * @param period the {@link Period}
+     * @return {@code true} if the period has been closed
+     */
+    public boolean isClosed(Period period);
+
+    /**
+     * @param period the {@link Period}
+     * @return the record of the closing, or {@code Optional.empty()} if the period is open
+     */
+    public Optional<PeriodClosing> getClosing(Period period);
+}
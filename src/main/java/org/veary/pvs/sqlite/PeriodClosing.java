@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.veary.pvs.core.Money;
+
+/**
+ * The record of a closed period: when it was closed, the closing balance of each account and
+ * whether its journals were moved out of the main database.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see PeriodCloseDataAccessObject#closePeriod(org.veary.pvs.model.Period)
+ */
+public final class PeriodClosing {
+
+    private final int periodId;
+    private final LocalDate closedOn;
+    private final Map<Integer, Money> closingBalances;
+    private final boolean archived;
+
+    /**
+     * Constructor.
+     *
+     * @param periodId the id of the period
+     * @param closedOn the date the period was closed
+     * @param closingBalances the closing balance of each account, keyed by account id: the
+     *        movement in the period for income and expense accounts, otherwise the balance
+     *        carried forward from the earlier periods plus the movement
+     * @param archived {@code true} if the journals of the period were moved into a file of their
+     *        own
+     */
+    public PeriodClosing(int periodId, LocalDate closedOn, Map<Integer, Money> closingBalances,
+        boolean archived) {
+        this.periodId = periodId;
+        this.closedOn = closedOn;
+        this.closingBalances = Collections.unmodifiableMap(new HashMap<>(closingBalances));
+        this.archived = archived;
+    }
+
+    public int getPeriodId() {
+        return this.periodId;
+    }
+
+    public LocalDate getClosedOn() {
+        return this.closedOn;
+    }
+
+    public Map<Integer, Money> getClosingBalances() {
+        return this.closingBalances;
+    }
+
+    public boolean isArchived() {
+        return this.archived;
+    }
+
+    @Override
+    public String toString() {
+        return "PeriodClosing[period=" + this.periodId + ", closedOn=" + this.closedOn
+            + ", accounts=" + this.closingBalances.size() + ", archived=" + this.archived + "]";
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.model.Period;
+
+/**
+ * Moves the journals and ledger rows of a period out of the main database into a read-only
+ * file of its own, so that the tables receiving the postings stay small as the years
+ * accumulate. Enable it with {@link ConnectionPoolSettings#setPeriodShardDirectory(String)}.
+ *
+ * <p>The read-only connections attach every period file and see {@code journal} and
+ * {@code ledger} as the union of the main database and the period files, so the queries of the
+ * data access objects span all periods without change. The write connection only sees the main
+ * database. The full-text index of {@link SearchDataAccessObject#searchTransactions} stays in
+ * the main database and keeps the entries of the moved journals.
+ *
+ * <p>The union has a cost: a sorted, limited query such as a page of transactions collects and
+ * sorts every matching row of every file before the limit applies. The day book queries of the
+ * {@link SqliteSystemDataAccessObject} skip the union for the periods which have not been moved,
+ * but the queries over all day books, such as
+ * {@link SqliteSystemDataAccessObject#getTransactionPage(int, String)}, always go through it.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface PeriodShardManager {
+
+    /**
+     * Keeps the whole ledger in one database. Bound when the connections come from a JNDI
+     * {@code DataSource}, or when no shard directory is set.
+     */
+    public static final PeriodShardManager NONE = new PeriodShardManager() {
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+
+        @Override
+        public Set<Integer> getShardedPeriods() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Optional<File> getShardFile(Period period) {
+            return Optional.empty();
+        }
+
+        @Override
+        public int moveToShard(Period period) {
+            throw new DataAccessException("Period sharding is not enabled");
+        }
+    };
+
+    /**
+     * @return {@code true} if periods can be moved into files of their own
+     */
+    public boolean isEnabled();
+
+    /**
+     * @return the ids of the periods which have been moved into files of their own
+     */
+    public Set<Integer> getShardedPeriods();
+
+    /**
+     * @param period the {@code Period}
+     * @return the file holding the ledger of the period, or {@code Optional.empty()} if the
+     *         period has not been moved
+     */
+    public Optional<File> getShardFile(Period period);
+
+    /**
+     * Copies the journals and ledger rows of the period into its own file, removes them from
+     * the main database and marks the file read-only. Read connections opened afterwards attach
+     * the new file; those in use when the move completes are retired when they are returned.
+     * A statement run after the move on a read connection borrowed before it does not see the
+     * moved rows. The data access objects borrow a connection per call, so only callers which
+     * hold a read connection across a move need to borrow a fresh one.
+     *
+     * <p>The period should be closed: the running balances of the period are kept, but
+     * transactions posted to it afterwards are written to the main database and are not moved.
+     *
+     * @param period the {@code Period} to move
+     * @return the number of journals moved
+     * @throws DataAccessException if sharding is not enabled, the period has already been
+     *     moved, or ten periods have been moved already
+     */
+    public int moveToShard(Period period);
+}
@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.LocalDate;
+
+import org.veary.pvs.core.Money;
+import org.veary.pvs.model.Account;
+
+/**
+ * A single voucher to be posted: the same values as
+ * {@link org.veary.pvs.dao.SystemDataAccessObject#postTransaction}. Immutable.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public final class Posting {
+
+    private final LocalDate date;
+    private final String narrative;
+    private final Money amount;
+    private final Account fromAccount;
+    private final Account toAccount;
+    private final String reference;
+    private final int daybookId;
+
+    /**
+     * Constructor.
+     *
+     * @param date the date of the transaction
+     * @param narrative the narrative
+     * @param amount the amount, credited to {@code fromAccount} and debited to {@code toAccount}
+     * @param fromAccount the account the amount is taken from
+     * @param toAccount the account the amount is given to
+     * @param reference the voucher reference, may be {@code null}
+     * @param daybookId the unique identifier of the {@code DayBook}
+     */
+    public Posting(LocalDate date, String narrative, Money amount, Account fromAccount,
+        Account toAccount, String reference, int daybookId) {
+        this.date = checkNotNull(date, "The 'date' parameter is null!");
+        this.narrative = checkNotNull(narrative, "The 'narrative' parameter is null!");
+        this.amount = checkNotNull(amount, "The 'amount' parameter is null!");
+        this.fromAccount = checkNotNull(fromAccount, "The 'fromAccount' parameter is null!");
+        this.toAccount = checkNotNull(toAccount, "The 'toAccount' parameter is null!");
+        this.reference = reference;
+        this.daybookId = daybookId;
+    }
+
+    public LocalDate getDate() {
+        return this.date;
+    }
+
+    public String getNarrative() {
+        return this.narrative;
+    }
+
+    public Money getAmount() {
+        return this.amount;
+    }
+
+    public Account getFromAccount() {
+        return this.fromAccount;
+    }
+
+    public Account getToAccount() {
+        return this.toAccount;
+    }
+
+    public String getReference() {
+        return this.reference;
+    }
+
+    public int getDaybookId() {
+        return this.daybookId;
+    }
+}
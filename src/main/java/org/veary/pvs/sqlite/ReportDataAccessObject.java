@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+
+/**
+ * Reports computed by SQLite. Each report is a single aggregate query over the ledger; no
+ * {@code Transaction} objects are built.
+ *
+ * <p>The trial balance lines are passed to the consumer as they are read, ordered by account
+ * type and then account name. The read connection is held until the last line has been
+ * consumed, so the consumer should not block.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface ReportDataAccessObject {
+
+    /**
+     * Streams the trial balance of a day book.
+     *
+     * @param dayBook the {@link DayBook}
+     * @param consumer receives one {@link TrialBalanceLine} per account with postings
+     */
+    public void trialBalance(DayBook dayBook, Consumer<TrialBalanceLine> consumer);
+
+    /**
+     * Streams the trial balance of all the day books of a period.
+     *
+     * @param period the {@link Period}
+     * @param consumer receives one {@link TrialBalanceLine} per account with postings
+     */
+    public void trialBalance(Period period, Consumer<TrialBalanceLine> consumer);
+
+    /**
+     * @param dayBook the {@link DayBook}
+     * @return the trial balance of the day book totalled by account type
+     */
+    public List<AccountTypeTotals> getAccountTypeTotals(DayBook dayBook);
+
+    /**
+     * @param period the {@link Period}
+     * @return the trial balance of the period totalled by account type
+     */
+    public List<AccountTypeTotals> getAccountTypeTotals(Period period);
+}
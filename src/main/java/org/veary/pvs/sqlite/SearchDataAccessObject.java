@@ -0,0 +1,73 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.function.Consumer;
+
+/**
+ * Searches of the journal and the ledger.
+ *
+ * <p>{@link #searchTransactions(String, int, String)} is a full-text search over the narrative
+ * and reference of the journal, backed by an SQLite FTS5 index which triggers keep in step with
+ * the {@code journal} table. The index keeps the journals of the periods moved by the
+ * {@link PeriodShardManager}, so they are found as before. The query is a list of words
+ * separated by white space. A transaction matches when its narrative or reference contains
+ * every word; words are matched whole and case-insensitively. The FTS5 query syntax is not
+ * exposed: each word is quoted before it is passed to SQLite.
+ *
+ * <p>{@link #searchLedger(LedgerSearchFilter, Consumer)} returns the flat ledger lines matching
+ * a structured filter.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface SearchDataAccessObject {
+
+    /**
+     * Returns a page of the transactions matching the query, best match first. To fetch the
+     * next page, pass the token of the page returned by the previous call together with the
+     * same query and page size.
+     *
+     * @param query the words to search for
+     * @param pageSize the maximum number of transactions in the page
+     * @param continuationToken the token of the previous page, or {@code null} for the first
+     * @return the {@link TransactionPage}
+     * @throws IllegalArgumentException if the query has no words, the page size is not
+     *     positive or the token is not valid
+     */
+    public TransactionPage searchTransactions(String query, int pageSize,
+        String continuationToken);
+
+    /**
+     * Streams the ledger lines matching the filter, ordered by journal date, journal id and
+     * account id. The filter is compiled to a single statement and the lines are passed to the
+     * consumer as they are read; the read connection is held until the last line has been
+     * consumed, so the consumer should not block.
+     *
+     * @param filter the {@link LedgerSearchFilter}
+     * @param consumer receives each matching {@link LedgerLine}
+     */
+    public void searchLedger(LedgerSearchFilter filter, Consumer<LedgerLine> consumer);
+}
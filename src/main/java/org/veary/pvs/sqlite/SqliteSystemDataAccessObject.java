@@ -0,0 +1,170 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.veary.pvs.dao.SystemDataAccessObject;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Transaction;
+
+/**
+ * SQLite specific extensions to the {@link SystemDataAccessObject}.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public interface SqliteSystemDataAccessObject extends SystemDataAccessObject, AutoCloseable {
+
+    /**
+     * The number of postings committed per SQLite transaction by
+     * {@link #postTransactions(Iterable)}.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Posts a batch of transactions, committing every {@link #DEFAULT_CHUNK_SIZE} postings.
+     *
+     * @param postings the postings, read once in order. May be a lazily produced sequence.
+     * @return the {@link BatchPostingResult}
+     * @see #postTransactions(Iterable, int)
+     */
+    public default BatchPostingResult postTransactions(Iterable<Posting> postings) {
+        return postTransactions(postings, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Posts a batch of transactions. The prepared statements are reused for the whole batch and
+     * the changes are committed every {@code chunkSize} postings. A posting which fails is rolled
+     * back on its own and reported in the result; the rest of the batch carries on.
+     *
+     * <p>If a commit fails a {@code DataAccessException} is thrown. The chunks committed before
+     * it stay committed.
+     *
+     * @param postings the postings, read once in order. May be a lazily produced sequence.
+     * @param chunkSize the number of postings per SQLite transaction
+     * @return the {@link BatchPostingResult}
+     */
+    public BatchPostingResult postTransactions(Iterable<Posting> postings, int chunkSize);
+
+    /**
+     * Streams every transaction, in journal order, with its ledger entries. The rows are read
+     * from an open cursor as the stream is consumed, so memory use does not grow with the size
+     * of the database.
+     *
+     * <p>The stream holds a read connection until it is closed and must be closed by the
+     * caller:
+     * <pre>
+     * try (Stream&lt;Transaction&gt; transactions = dao.streamTransactions()) {
+     *     transactions.forEach(exporter::write);
+     * }
+     * </pre>
+     *
+     * @return {@code Stream<Transaction>} which must be closed
+     */
+    public Stream<Transaction> streamTransactions();
+
+    /**
+     * Streams the transactions of a day book, in journal order, with their ledger entries.
+     *
+     * @param dayBook the {@link DayBook}
+     * @return {@code Stream<Transaction>} which must be closed
+     * @see #streamTransactions()
+     */
+    public Stream<Transaction> streamTransactionsForDayBook(DayBook dayBook);
+
+    /**
+     * Returns one page of transactions, newest first by date and then id. Pages are found by
+     * seeking on the {@code (date, id)} of the last transaction of the previous page, so the cost
+     * of a page does not depend on how far into the journal it is.
+     *
+     * @param pageSize the maximum number of transactions on the page
+     * @param continuationToken the token of the previous page, {@code null} for the first page
+     * @return the {@link TransactionPage}
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    public TransactionPage getTransactionPage(int pageSize, String continuationToken);
+
+    /**
+     * Returns one page of the transactions of a day book, newest first.
+     *
+     * @param dayBook the {@link DayBook}
+     * @param pageSize the maximum number of transactions on the page
+     * @param continuationToken the token of the previous page, {@code null} for the first page
+     * @return the {@link TransactionPage}
+     * @throws IllegalArgumentException if the token is not valid
+     * @see #getTransactionPage(int, String)
+     */
+    public TransactionPage getTransactionPageForDayBook(DayBook dayBook, int pageSize,
+        String continuationToken);
+
+    /**
+     * Returns one page of the transactions of a day book which post to an account, newest first.
+     *
+     * @param account the {@link Account}
+     * @param dayBook the {@link DayBook}
+     * @param pageSize the maximum number of transactions on the page
+     * @param continuationToken the token of the previous page, {@code null} for the first page
+     * @return the {@link TransactionPage}
+     * @throws IllegalArgumentException if the token is not valid
+     * @see #getTransactionPage(int, String)
+     */
+    public TransactionPage getTransactionPageForAccountInDayBook(Account account, DayBook dayBook,
+        int pageSize, String continuationToken);
+
+    /**
+     * Returns the transactions dated between two dates, inclusive, ordered by date and then id.
+     * The range is read from the index on {@code journal.date}, which holds ISO-8601 dates that
+     * sort in date order.
+     *
+     * @param from the first date
+     * @param to the last date, not before {@code from}
+     * @return {@code List<Transaction>}, cannot be {@code null}
+     */
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Returns the transactions dated between two dates, inclusive, which post to an account.
+     *
+     * @param from the first date
+     * @param to the last date, not before {@code from}
+     * @param account the {@link Account}
+     * @return {@code List<Transaction>}, cannot be {@code null}
+     * @see #getTransactionsBetween(LocalDate, LocalDate)
+     */
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to,
+        Account account);
+
+    /**
+     * Commits the postings still waiting for a group commit and stops its writer thread. See
+     * {@link DataAccessSettings#isGroupCommit()}. Postings made afterwards with group commit
+     * enabled fail.
+     */
+    @Override
+    public void close();
+}
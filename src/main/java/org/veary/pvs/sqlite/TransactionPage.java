@@ -0,0 +1,77 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.veary.pvs.model.Transaction;
+
+/**
+ * One page of transactions and the token which continues from it.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ * @see SqliteSystemDataAccessObject#getTransactionPage(int, String)
+ * @see SearchDataAccessObject#searchTransactions(String, int, String)
+ */
+public final class TransactionPage {
+
+    private final List<Transaction> transactions;
+    private final String nextToken;
+
+    /**
+     * Constructor.
+     *
+     * @param transactions the transactions of this page
+     * @param nextToken the continuation token of the next page, {@code null} if this is the last
+     */
+    public TransactionPage(List<Transaction> transactions, String nextToken) {
+        this.transactions = Collections.unmodifiableList(transactions);
+        this.nextToken = nextToken;
+    }
+
+    /**
+     * @return the transactions of this page, newest first, or best match first for a search
+     */
+    public List<Transaction> getTransactions() {
+        return this.transactions;
+    }
+
+    /**
+     * @return the opaque token to pass to fetch the next page, empty if this is the last page
+     */
+    public Optional<String> getNextToken() {
+        return Optional.ofNullable(this.nextToken);
+    }
+
+    /**
+     * @return {@code true} if there is a next page
+     */
+    public boolean hasNext() {
+        return this.nextToken != null;
+    }
+}
@@ -26,6 +26,7 @@ package org.veary.pvs.sqlite.internal.dao;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -36,14 +37,21 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.sqlite.SQLiteErrorCode;
 import org.sqlite.SQLiteException;
 import org.veary.pvs.core.Constants;
+import org.veary.pvs.core.Money;
 import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
 import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessMetrics;
+import org.veary.pvs.sqlite.DataAccessSettings;
 
 /**
  * Provides common methods for all <i>Data Access Objects</i> subclasses.
@@ -54,19 +62,25 @@ import org.veary.pvs.sqlite.ConnectionManager;
 abstract class AbstractDataAccessObject {
 
     private static final Logger log = LogManager.getLogger(AbstractDataAccessObject.class);
+    private static final int MONEY_SCALE = 2;
     private final ConnectionManager manager;
+    private final DataAccessMetrics metrics;
 
     /**
      * Constructor.
      *
      * @param manager a {@link ConnectionManager} object injected at the subclass.
+     * @param settings the {@link DataAccessSettings} injected at the subclass, which supply the
+     *        {@link DataAccessMetrics} of the connection waits and transactions
      */
-    protected AbstractDataAccessObject(ConnectionManager manager) {
+    protected AbstractDataAccessObject(ConnectionManager manager, DataAccessSettings settings) {
         this.manager = manager;
+        this.metrics = settings.getMetrics();
     }
 
     /**
-     * Executes the given SQL returning a list of results (rows) if there are any.
+     * Executes the given SQL returning a list of results (rows) if there are any. A
+     * {@code SELECT} runs on a read connection, everything else on the write connection.
      *
      * @param sql  the DML statement to be executed
      * @param args a varargs list of Strings
@@ -78,16 +92,18 @@ abstract class AbstractDataAccessObject {
 
         List<Map<Object, Object>> result = new ArrayList<>(0);
 
-        try (Connection conn = this.manager.getConnection()) {
-            try (PreparedStatement stmt = conn.prepareStatement(sql,
-                PreparedStatement.RETURN_GENERATED_KEYS)) {
+        boolean query = sql.startsWith("SELECT");
+
+        try (Connection conn = query ? getReadConnection() : getConnection()) {
+            try (PreparedStatement stmt = query ? conn.prepareStatement(sql)
+                : conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
                 int index = 1;
 
                 for (Object arg : args) {
                     stmt.setObject(index++, arg);
                 }
 
-                if (sql.startsWith("SELECT")) {
+                if (query) {
                     try (ResultSet rset = stmt.executeQuery()) {
                         result = resultSetToList(rset);
                     }
@@ -104,6 +120,120 @@ abstract class AbstractDataAccessObject {
         return result;
     }
 
+    /**
+     * Executes the given query on a read connection and hands the {@code ResultSet} to the
+     * handler.
+     *
+     * @param sql the {@code SELECT} statement to be executed
+     * @param handler processes the rows
+     * @param args a varargs list of parameter values
+     * @return the result of the handler
+     * @throws SQLException if there is a problem executing the query
+     * @throws ValidationException if a row is not a valid model object
+     */
+    protected <R> R executeQuery(String sql, ResultSetHandler<R> handler, Object... args)
+        throws SQLException, ValidationException {
+        log.trace(Constants.LOG_CALLED);
+
+        try (Connection conn = getReadConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+
+                for (Object arg : args) {
+                    stmt.setObject(index++, arg);
+                }
+
+                try (ResultSet rset = stmt.executeQuery()) {
+                    return handler.handle(rset);
+                }
+            }
+        }
+    }
+
+    /**
+     * Executes the given query, mapping each row with the {@link RowMapper}. Rows for which the
+     * mapper returns {@code null} are left out.
+     *
+     * @param sql the {@code SELECT} statement to be executed
+     * @param mapper maps each row
+     * @param args a varargs list of parameter values
+     * @return {@code List<T>}. Cannot be {@code null}.
+     * @throws SQLException if there is a problem executing the query
+     * @throws ValidationException if a row is not a valid model object
+     */
+    protected <T> List<T> executeQueryForList(String sql, RowMapper<T> mapper, Object... args)
+        throws SQLException, ValidationException {
+        return executeQuery(sql, rset -> {
+            List<T> list = new ArrayList<>();
+            while (rset.next()) {
+                T object = mapper.mapRow(rset);
+                if (object != null) {
+                    list.add(object);
+                }
+            }
+            return list;
+        }, args);
+    }
+
+    /**
+     * Executes the given query, mapping the first row with the {@link RowMapper}.
+     *
+     * @param sql the {@code SELECT} statement to be executed
+     * @param mapper maps the row
+     * @param args a varargs list of parameter values
+     * @return {@code Optional<T>}, empty if there are no rows
+     * @throws SQLException if there is a problem executing the query
+     * @throws ValidationException if the row is not a valid model object
+     */
+    protected <T> Optional<T> executeQueryForObject(String sql, RowMapper<T> mapper,
+        Object... args) throws SQLException, ValidationException {
+        return executeQuery(sql, rset -> rset.next()
+            ? Optional.ofNullable(mapper.mapRow(rset))
+            : Optional.<T>empty(), args);
+    }
+
+    /**
+     * Executes the given query on a read connection and returns a lazy {@code Stream} over the
+     * objects read from it. The connection, statement and {@code ResultSet} stay open until the
+     * stream is closed, so the caller must close it, for example with try-with-resources.
+     *
+     * @param sql the {@code SELECT} statement to be executed
+     * @param reader reads each object from the rows
+     * @param args a varargs list of parameter values
+     * @return {@code Stream<T>} which must be closed
+     * @throws SQLException if there is a problem executing the query
+     */
+    protected <T> Stream<T> executeQueryForStream(String sql, RowReader<T> reader,
+        Object... args) throws SQLException {
+        log.trace(Constants.LOG_CALLED);
+
+        Connection conn = getReadConnection();
+        PreparedStatement stmt = null;
+        try {
+            stmt = conn.prepareStatement(sql);
+            int index = 1;
+
+            for (Object arg : args) {
+                stmt.setObject(index++, arg);
+            }
+
+            ResultSet rset = stmt.executeQuery();
+            PreparedStatement openStmt = stmt;
+            return StreamSupport.stream(new ResultSetSpliterator<>(rset, reader), false)
+                .onClose(() -> {
+                    try (Connection c = conn; PreparedStatement s = openStmt; ResultSet r = rset) {
+                        // try-with-resources closes all three, even if one of them fails
+                    } catch (SQLException e) {
+                        throw new DataAccessException(e);
+                    }
+                });
+        } catch (SQLException | RuntimeException e) {
+            try (Connection c = conn; PreparedStatement s = stmt) {
+                throw e;
+            }
+        }
+    }
+
     /**
      * Returns the identifier (id) of the last inserted row.
      *
@@ -147,13 +277,13 @@ abstract class AbstractDataAccessObject {
     }
 
     /**
-     * Mark the start of an SQL transaction.
+     * Mark the start of an SQL transaction on the write connection.
      * @return A {@code Connection} object
      * @throws SQLException if there is an issue
      */
     protected Connection startTransaction() throws SQLException {
         log.trace(Constants.LOG_CALLED);
-        Connection conn = this.manager.getConnection();
+        Connection conn = getConnection();
         conn.setAutoCommit(false);
         return conn;
     }
@@ -174,7 +304,7 @@ abstract class AbstractDataAccessObject {
         }
 
         try {
-            conn.commit();
+            commit(conn);
             conn.setAutoCommit(true);
             retval = true;
         } catch (SQLException e) {
@@ -193,12 +323,53 @@ abstract class AbstractDataAccessObject {
         try {
             log.warn("Rolling back transaction");
             conn.rollback();
+            this.metrics.recordRollback();
             log.warn("Rollback successful");
         } catch (SQLException e) {
             log.error("Unexpected error (ignored) {}", e); //$NON-NLS-1$
         }
     }
 
+    /**
+     * Commits the transaction on the connection and records the commit.
+     * @param conn The {@code Connection} object
+     * @throws SQLException if the commit fails
+     */
+    protected void commit(Connection conn) throws SQLException {
+        conn.commit();
+        this.metrics.recordCommit();
+    }
+
+    private Connection getConnection() throws SQLException {
+        if (!this.metrics.isEnabled()) {
+            return this.manager.getConnection();
+        }
+        long start = System.nanoTime();
+        Connection conn = this.manager.getConnection();
+        this.metrics.recordConnectionWait(System.nanoTime() - start);
+        return conn;
+    }
+
+    private Connection getReadConnection() throws SQLException {
+        if (!this.metrics.isEnabled()) {
+            return this.manager.getReadConnection();
+        }
+        long start = System.nanoTime();
+        Connection conn = this.manager.getReadConnection();
+        this.metrics.recordConnectionWait(System.nanoTime() - start);
+        return conn;
+    }
+
+    /**
+     * Converts an amount read from the database back into {@code Money}. Amounts are stored as
+     * the unscaled value of {@link Money#toUnscaledInteger()}, that is in cents.
+     * @param unscaled the stored amount, for example a {@code SUM} of the ledger amounts
+     * @return the {@code Money}
+     */
+    protected static Money toMoney(long unscaled) {
+        return new Money(BigDecimal.valueOf(unscaled, MONEY_SCALE));
+    }
+
     /**
      * Handles conversion of a specific SQLiteException code into a checked {@code ApiException}.
      * @param e the SQLException
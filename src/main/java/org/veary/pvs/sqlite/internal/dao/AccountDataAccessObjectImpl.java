@@ -25,7 +25,6 @@
 package org.veary.pvs.sqlite.internal.dao;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -43,7 +42,9 @@ import org.veary.pvs.exceptions.ValidationException;
 import org.veary.pvs.model.Account;
 import org.veary.pvs.model.Account.Type;
 import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.sqlite.CacheStatistics;
 import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
 
 /**
  * Package scoped, concrete implementation of the {@code AccountDataAccessObject} for SQLite.
@@ -55,25 +56,34 @@ import org.veary.pvs.sqlite.ConnectionManager;
 final class AccountDataAccessObjectImpl extends AbstractDataAccessObject
 implements AccountDataAccessObject {
 
+    static final String SQL_GET_BY_ID = "SELECT * from account WHERE id=?";
+    static final String SQL_GET_BY_NAME = "SELECT * from account WHERE name=?";
+
     private static final Logger log = LogManager.getLogger(AccountDataAccessObjectImpl.class);
     private final ModelFactory factory;
+    private final EntityCache<Account> cache;
 
     @Inject
-    protected AccountDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory) {
-        super(manager);
+    protected AccountDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory,
+        DataAccessSettings settings) {
+        super(manager, settings);
         this.factory = factory;
+        this.cache = new EntityCache<>(settings.getEntityCacheSize(), Account::getId,
+            Account::getName);
     }
 
     @Override
     public Optional<Account> getById(int id) {
         log.trace(Constants.LOG_CALLED);
-        return processSingleResult("SELECT * from account WHERE id=?", String.valueOf(id));
+        return this.cache.getById(id,
+            () -> processSingleResult(SQL_GET_BY_ID, String.valueOf(id)));
     }
 
     @Override
     public Optional<Account> getByName(String uniqueName) {
         log.trace(Constants.LOG_CALLED);
-        return processSingleResult("SELECT * from account WHERE name=?", uniqueName);
+        return this.cache.getByName(uniqueName,
+            () -> processSingleResult(SQL_GET_BY_NAME, uniqueName));
     }
 
     @Override
@@ -81,17 +91,8 @@ implements AccountDataAccessObject {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList("SELECT * from account");
-
-            List<Account> list = new ArrayList<>(results.size());
-            for (Map<Object, Object> row : results) {
-                Optional<Account> account = Optional.ofNullable(this.factory.buildAccountObject(row));
-                if (account.isPresent()) {
-                    list.add(account.get());
-                }
-            }
-
-            return list;
+            return executeQueryForList("SELECT * from account",
+                ModelRowMapper.account(this.factory));
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
@@ -112,6 +113,8 @@ implements AccountDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -134,6 +137,8 @@ implements AccountDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -153,19 +158,24 @@ implements AccountDataAccessObject {
             return retval;
         } catch (SQLException e) {
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
+    /**
+     * @return the hit and miss counters of the entity cache
+     */
+    CacheStatistics getCacheStatistics() {
+        return this.cache;
+    }
+
     private Optional<Account> processSingleResult(String sql, String... args) {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList(sql, args);
-            if (results.isEmpty()) {
-                return Optional.ofNullable(null);
-            }
-
-            return Optional.ofNullable(this.factory.buildAccountObject(results.get(0)));
+            return executeQueryForObject(sql, ModelRowMapper.account(this.factory),
+                (Object[]) args);
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
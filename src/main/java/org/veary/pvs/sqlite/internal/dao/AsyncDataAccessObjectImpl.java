@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.dao.DayBookDataAccessObject;
+import org.veary.pvs.dao.PeriodDataAccessObject;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.AsyncDataAccessObject;
+import org.veary.pvs.sqlite.BatchPostingResult;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.Posting;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+/**
+ * Package scoped, concrete implementation of the {@code AsyncDataAccessObject}. Each call is
+ * delegated to the blocking data access object on the executor, holding a read or a write
+ * permit while it runs.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class AsyncDataAccessObjectImpl implements AsyncDataAccessObject {
+
+    /**
+     * The read permits when neither the settings nor the {@code ConnectionManager} give them.
+     */
+    static final int DEFAULT_READ_PERMITS = 4;
+
+    private final AccountDataAccessObject accounts;
+    private final PeriodDataAccessObject periods;
+    private final DayBookDataAccessObject dayBooks;
+    private final SqliteSystemDataAccessObject system;
+    private final ExecutorService readExecutor;
+    private final ExecutorService writeExecutor;
+    private final Semaphore readPermits;
+    private final Semaphore writePermits;
+
+    @Inject
+    protected AsyncDataAccessObjectImpl(AccountDataAccessObject accounts,
+        PeriodDataAccessObject periods, DayBookDataAccessObject dayBooks,
+        SqliteSystemDataAccessObject system, ConnectionManager manager,
+        DataAccessSettings settings) {
+        this.accounts = accounts;
+        this.periods = periods;
+        this.dayBooks = dayBooks;
+        this.system = system;
+        int reads = readPermits(settings, manager);
+        this.readPermits = new Semaphore(reads, true);
+        this.writePermits = new Semaphore(settings.getAsyncWritePermits(), true);
+        if (settings.getAsyncExecutor() != null) {
+            this.readExecutor = settings.getAsyncExecutor();
+            this.writeExecutor = settings.getAsyncExecutor();
+        } else {
+            this.readExecutor = newDefaultExecutor("pvs-async-read-", reads); //$NON-NLS-1$
+            this.writeExecutor = newDefaultExecutor("pvs-async-write-", //$NON-NLS-1$
+                settings.getAsyncWritePermits());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> getAccountById(int id) {
+        return supplyRead(() -> this.accounts.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Account>> getAccountByName(String name) {
+        return supplyRead(() -> this.accounts.getByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Period>> getPeriodById(int id) {
+        return supplyRead(() -> this.periods.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Period>> getPeriodByName(String name) {
+        return supplyRead(() -> this.periods.getByName(name));
+    }
+
+    @Override
+    public CompletableFuture<Optional<DayBook>> getDayBookById(int id) {
+        return supplyRead(() -> this.dayBooks.getById(id));
+    }
+
+    @Override
+    public CompletableFuture<Optional<DayBook>> getDayBookByName(String name) {
+        return supplyRead(() -> this.dayBooks.getByName(name));
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> getTransactionsForDayBook(DayBook dayBook) {
+        return supplyRead(() -> this.system.getTransactionsForDayBook(dayBook));
+    }
+
+    @Override
+    public CompletableFuture<List<Transaction>> getTransactionForAccountInDayBook(Account account,
+        DayBook dayBook) {
+        return supplyRead(() -> this.system.getTransactionForAccountInDayBook(account, dayBook));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> postTransaction(Posting posting) {
+        checkNotNull(posting, "The 'posting' parameter is null!");
+        return supplyWrite(() -> Boolean.valueOf(this.system.postTransaction(posting.getDate(),
+            posting.getNarrative(), posting.getAmount(), posting.getFromAccount(),
+            posting.getToAccount(), posting.getReference(), posting.getDaybookId())));
+    }
+
+    @Override
+    public CompletableFuture<BatchPostingResult> postTransactions(Iterable<Posting> postings) {
+        checkNotNull(postings, "The 'postings' parameter is null!");
+        return supplyWrite(() -> this.system.postTransactions(postings));
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyRead(Supplier<T> read) {
+        return supply(this.readPermits, this.readExecutor, read);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> supplyWrite(Supplier<T> write) {
+        return supply(this.writePermits, this.writeExecutor, write);
+    }
+
+    /**
+     * @return the read permits of the settings, else one per read connection of the manager,
+     *         else {@link #DEFAULT_READ_PERMITS}
+     */
+    static int readPermits(DataAccessSettings settings, ConnectionManager manager) {
+        if (settings.getAsyncReadPermits() > 0) {
+            return settings.getAsyncReadPermits();
+        }
+        int connections = manager.getReadConnectionLimit();
+        return connections > 0 ? connections : DEFAULT_READ_PERMITS;
+    }
+
+    private static <T> CompletableFuture<T> supply(Semaphore permits, ExecutorService executor,
+        Supplier<T> call) {
+        checkNotNull(call, "The 'call' parameter is null!");
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return call.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    /**
+     * A fixed pool with a thread per permit, one for the reads and one for the writes, so that
+     * no task waits for a permit while holding a thread another task could use.
+     */
+    private static ExecutorService newDefaultExecutor(String prefix, int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
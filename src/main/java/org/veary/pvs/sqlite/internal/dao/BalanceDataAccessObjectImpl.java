@@ -0,0 +1,204 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.BalanceDataAccessObject;
+import org.veary.pvs.sqlite.BalanceDrift;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+
+/**
+ * Package scoped, concrete implementation of the {@code BalanceDataAccessObject} for SQLite.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class BalanceDataAccessObjectImpl extends AbstractDataAccessObject
+implements BalanceDataAccessObject {
+
+    static final String SQL_ACCOUNT_BALANCE =
+        "SELECT SUM(amount) FROM balance WHERE account_id=?";
+    static final String SQL_ACCOUNT_BALANCE_FOR_DAYBOOK =
+        "SELECT SUM(amount) FROM balance WHERE account_id=? AND daybook_id=?";
+    static final String SQL_ACCOUNT_BALANCE_FOR_PERIOD =
+        "SELECT SUM(balance.amount) FROM balance "
+        + "INNER JOIN daybook ON daybook.id = balance.daybook_id "
+        + "WHERE balance.account_id=? AND daybook.period_id=?";
+    static final String SQL_BALANCES =
+        "SELECT account_id, SUM(amount) FROM balance GROUP BY account_id";
+    static final String SQL_BALANCES_FOR_DAYBOOK =
+        "SELECT account_id, amount FROM balance WHERE daybook_id=?";
+    static final String SQL_BALANCES_FOR_PERIOD =
+        "SELECT balance.account_id, SUM(balance.amount) FROM daybook "
+        + "INNER JOIN balance ON balance.daybook_id = daybook.id "
+        + "WHERE daybook.period_id=? GROUP BY balance.account_id";
+
+    private static final String SQL_LEDGER_BALANCES =
+        "SELECT ledger.account_id AS account_id, journal.daybook_id AS daybook_id, "
+        + "SUM(ledger.amount) AS amount "
+        + "FROM ledger INNER JOIN journal ON journal.id = ledger.journal_id "
+        + "GROUP BY ledger.account_id, journal.daybook_id";
+    private static final String SQL_SHARDED_DAYBOOKS =
+        "SELECT daybook.id FROM daybook "
+        + "INNER JOIN period_shard ON period_shard.period_id = daybook.period_id";
+    private static final String SQL_DRIFT =
+        "SELECT account_id, daybook_id, SUM(expected), SUM(actual) FROM ("
+        + "SELECT account_id, daybook_id, amount AS expected, 0 AS actual FROM ("
+        + SQL_LEDGER_BALANCES + ") "
+        + "UNION ALL SELECT account_id, daybook_id, 0, amount FROM balance) "
+        + "GROUP BY account_id, daybook_id HAVING SUM(expected) <> SUM(actual)";
+
+    private static final Logger log = LogManager.getLogger(BalanceDataAccessObjectImpl.class);
+
+    @Inject
+    protected BalanceDataAccessObjectImpl(ConnectionManager manager,
+        DataAccessSettings settings) {
+        super(manager, settings);
+    }
+
+    @Override
+    public Money getBalance(Account account) {
+        log.trace(Constants.LOG_CALLED);
+        return querySum(SQL_ACCOUNT_BALANCE, Integer.valueOf(account.getId()));
+    }
+
+    @Override
+    public Money getBalance(Account account, DayBook dayBook) {
+        log.trace(Constants.LOG_CALLED);
+        return querySum(SQL_ACCOUNT_BALANCE_FOR_DAYBOOK, Integer.valueOf(account.getId()),
+            Integer.valueOf(dayBook.getId()));
+    }
+
+    @Override
+    public Money getBalance(Account account, Period period) {
+        log.trace(Constants.LOG_CALLED);
+        return querySum(SQL_ACCOUNT_BALANCE_FOR_PERIOD, Integer.valueOf(account.getId()),
+            Integer.valueOf(period.getId()));
+    }
+
+    @Override
+    public Map<Integer, Money> getBalances() {
+        log.trace(Constants.LOG_CALLED);
+        return queryBalances(SQL_BALANCES);
+    }
+
+    @Override
+    public Map<Integer, Money> getBalances(DayBook dayBook) {
+        log.trace(Constants.LOG_CALLED);
+        return queryBalances(SQL_BALANCES_FOR_DAYBOOK, Integer.valueOf(dayBook.getId()));
+    }
+
+    @Override
+    public Map<Integer, Money> getBalances(Period period) {
+        log.trace(Constants.LOG_CALLED);
+        return queryBalances(SQL_BALANCES_FOR_PERIOD, Integer.valueOf(period.getId()));
+    }
+
+    @Override
+    public List<BalanceDrift> checkBalances() {
+        log.trace(Constants.LOG_CALLED);
+
+        try {
+            return executeQuery(SQL_DRIFT, rset -> {
+                List<BalanceDrift> list = new ArrayList<>();
+                while (rset.next()) {
+                    list.add(new BalanceDrift(rset.getInt(1), rset.getInt(2),
+                        toMoney(rset.getLong(3)), toMoney(rset.getLong(4))));
+                }
+                return list;
+            });
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    @Override
+    public int rebuildBalances() {
+        log.trace(Constants.LOG_CALLED);
+
+        try (Connection conn = startTransaction()) {
+            try (Statement stmt = conn.createStatement()) {
+                // the write connection only sees the ledger in the main database, so the
+                // balances of the periods moved into files of their own are kept
+                stmt.executeUpdate("DELETE FROM balance WHERE daybook_id NOT IN (" //$NON-NLS-1$
+                    + SQL_SHARDED_DAYBOOKS + ")");
+                int rows = stmt.executeUpdate("INSERT INTO balance(account_id, daybook_id, amount) "
+                    + "SELECT * FROM (" + SQL_LEDGER_BALANCES + ") WHERE daybook_id NOT IN ("
+                    + SQL_SHARDED_DAYBOOKS + ")");
+                commit(conn);
+                conn.setAutoCommit(true);
+                return rows;
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private Money querySum(String sql, Object... args) {
+        try {
+            return executeQuery(sql, rset -> toMoney(rset.next() ? rset.getLong(1) : 0), args);
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private Map<Integer, Money> queryBalances(String sql, Object... args) {
+        try {
+            return executeQuery(sql, rset -> {
+                Map<Integer, Money> map = new HashMap<>();
+                while (rset.next()) {
+                    map.put(Integer.valueOf(rset.getInt(1)), toMoney(rset.getLong(2)));
+                }
+                return map;
+            }, args);
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+}
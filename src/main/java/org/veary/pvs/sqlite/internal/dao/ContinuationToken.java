@@ -0,0 +1,98 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The position of the last journal on a page, {@code (date, id)}, encoded as an opaque,
+ * URL-safe continuation token. The next page starts with the journal immediately before it in
+ * {@code date DESC, id DESC} order.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class ContinuationToken {
+
+    private static final char SEPARATOR = ':';
+
+    private final String date;
+    private final int id;
+
+    /**
+     * Constructor.
+     *
+     * @param date the date of the last journal, as stored
+     * @param id the id of the last journal
+     */
+    ContinuationToken(String date, int id) {
+        this.date = checkNotNull(date, "The 'date' parameter is null!");
+        this.id = id;
+    }
+
+    String getDate() {
+        return this.date;
+    }
+
+    int getId() {
+        return this.id;
+    }
+
+    /**
+     * @return the opaque token
+     */
+    String encode() {
+        String plain = this.id + String.valueOf(SEPARATOR) + this.date;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token a token returned by {@link #encode()}
+     * @return the {@code ContinuationToken}
+     * @throws IllegalArgumentException if the token is not valid
+     */
+    static ContinuationToken decode(String token) {
+        String plain;
+        try {
+            plain = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+
+        int index = plain.indexOf(SEPARATOR);
+        checkArgument(index > 0, "Invalid continuation token: %s", token);
+        try {
+            return new ContinuationToken(plain.substring(index + 1),
+                Integer.parseInt(plain.substring(0, index)));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.name.Named;
+
+import javax.inject.Singleton;
+
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.dao.DayBookDataAccessObject;
+import org.veary.pvs.dao.PeriodDataAccessObject;
+import org.veary.pvs.dao.SystemDataAccessObject;
+import org.veary.pvs.sqlite.AsyncDataAccessObject;
+import org.veary.pvs.sqlite.BalanceDataAccessObject;
+import org.veary.pvs.sqlite.CacheStatistics;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.PeriodCloseDataAccessObject;
+import org.veary.pvs.sqlite.ReportDataAccessObject;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+/**
+ * The DAO bindings shared by every connection flavour of the Guice modules, including the
+ * {@code @Named} {@link CacheStatistics} of the entity caches. When the
+ * {@link DataAccessSettings} enable metrics, each DAO interface is bound to a metering proxy of
+ * its implementation; otherwise to the implementation itself.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class DataAccessObjectBindings extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        // the DAOs are provided below, wrapped in a metering proxy when metrics are enabled
+        bind(AsyncDataAccessObject.class).to(AsyncDataAccessObjectImpl.class);
+    }
+
+    @Provides
+    @Singleton
+    AccountDataAccessObject provideAccountDao(AccountDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(AccountDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    PeriodDataAccessObject providePeriodDao(PeriodDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(PeriodDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    DayBookDataAccessObject provideDayBookDao(DayBookDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(DayBookDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    SystemDataAccessObject provideSystemDao(SqliteSystemDataAccessObject dao) {
+        return dao;
+    }
+
+    @Provides
+    @Singleton
+    SqliteSystemDataAccessObject provideSqliteSystemDao(SystemDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(SqliteSystemDataAccessObject.class, dao,
+            settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    BalanceDataAccessObject provideBalanceDao(BalanceDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(BalanceDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    ReportDataAccessObject provideReportDao(ReportDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(ReportDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    SearchDataAccessObject provideSearchDao(SearchDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(SearchDataAccessObject.class, dao, settings.getMetrics());
+    }
+
+    @Provides
+    @Singleton
+    PeriodCloseDataAccessObject providePeriodCloseDao(PeriodCloseDataAccessObjectImpl dao,
+        DataAccessSettings settings) {
+        return MeteringHandler.wrap(PeriodCloseDataAccessObject.class, dao,
+            settings.getMetrics());
+    }
+
+    @Provides
+    @Named(CacheStatistics.ACCOUNT_CACHE)
+    CacheStatistics provideAccountCacheStatistics(AccountDataAccessObjectImpl dao) {
+        return dao.getCacheStatistics();
+    }
+
+    @Provides
+    @Named(CacheStatistics.PERIOD_CACHE)
+    CacheStatistics providePeriodCacheStatistics(PeriodDataAccessObjectImpl dao) {
+        return dao.getCacheStatistics();
+    }
+
+    @Provides
+    @Named(CacheStatistics.DAYBOOK_CACHE)
+    CacheStatistics provideDayBookCacheStatistics(DayBookDataAccessObjectImpl dao) {
+        return dao.getCacheStatistics();
+    }
+}
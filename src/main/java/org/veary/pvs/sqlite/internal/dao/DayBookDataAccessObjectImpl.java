@@ -25,7 +25,6 @@
 package org.veary.pvs.sqlite.internal.dao;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,7 +41,9 @@ import org.veary.pvs.exceptions.DataAccessException;
 import org.veary.pvs.exceptions.ValidationException;
 import org.veary.pvs.model.DayBook;
 import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.sqlite.CacheStatistics;
 import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
 
 /**
  * Package scoped, concrete implementation of the {@code DayBookDataAccessObject} for SQLite.
@@ -54,25 +55,34 @@ import org.veary.pvs.sqlite.ConnectionManager;
 final class DayBookDataAccessObjectImpl extends AbstractDataAccessObject
 implements DayBookDataAccessObject {
 
+    static final String SQL_GET_BY_ID = "SELECT * from daybook WHERE id=?";
+    static final String SQL_GET_BY_NAME = "SELECT * from daybook WHERE name=?";
+
     private static final Logger log = LogManager.getLogger(DayBookDataAccessObjectImpl.class);
     private final ModelFactory factory;
+    private final EntityCache<DayBook> cache;
 
     @Inject
-    public DayBookDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory) {
-        super(manager);
+    public DayBookDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory,
+        DataAccessSettings settings) {
+        super(manager, settings);
         this.factory = factory;
+        this.cache = new EntityCache<>(settings.getEntityCacheSize(), DayBook::getId,
+            DayBook::getName);
     }
 
     @Override
     public Optional<DayBook> getById(int id) {
         log.trace(Constants.LOG_CALLED);
-        return processSingleResult("SELECT * from daybook WHERE id=?", String.valueOf(id));
+        return this.cache.getById(id,
+            () -> processSingleResult(SQL_GET_BY_ID, String.valueOf(id)));
     }
 
     @Override
     public Optional<DayBook> getByName(String uniqueName) {
         log.trace(Constants.LOG_CALLED);
-        return processSingleResult("SELECT * from daybook WHERE name=?", uniqueName);
+        return this.cache.getByName(uniqueName,
+            () -> processSingleResult(SQL_GET_BY_NAME, uniqueName));
     }
 
     @Override
@@ -80,17 +90,8 @@ implements DayBookDataAccessObject {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList("SELECT * from daybook");
-
-            List<DayBook> list = new ArrayList<>(results.size());
-            for (Map<Object, Object> row : results) {
-                Optional<DayBook> object = Optional.ofNullable(this.factory.buildDayBookObject(row));
-                if (object.isPresent()) {
-                    list.add(object.get());
-                }
-            }
-
-            return list;
+            return executeQueryForList("SELECT * from daybook",
+                ModelRowMapper.dayBook(this.factory));
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
@@ -112,6 +113,8 @@ implements DayBookDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -134,6 +137,8 @@ implements DayBookDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -152,19 +157,24 @@ implements DayBookDataAccessObject {
             return retval;
         } catch (SQLException e) {
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
+    /**
+     * @return the hit and miss counters of the entity cache
+     */
+    CacheStatistics getCacheStatistics() {
+        return this.cache;
+    }
+
     private Optional<DayBook> processSingleResult(String sql, String... args) {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList(sql, args);
-            if (results.isEmpty()) {
-                return Optional.ofNullable(null);
-            }
-
-            return Optional.ofNullable(this.factory.buildDayBookObject(results.get(0)));
+            return executeQueryForObject(sql, ModelRowMapper.dayBook(this.factory),
+                (Object[]) args);
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
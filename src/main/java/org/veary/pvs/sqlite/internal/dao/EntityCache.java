@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+import org.veary.pvs.sqlite.CacheStatistics;
+
+/**
+ * A bounded, least recently used, read-through cache of model objects, indexed by id and by
+ * unique name. Only objects which were found are cached; a lookup which finds nothing always
+ * goes to the database.
+ *
+ * <p>The owning DAO calls {@link #invalidateAll()} after each of its writes. A load which
+ * overlaps an invalidation is returned to the caller but not cached, so the cache never keeps
+ * a row read before the write committed.
+ *
+ * @param <T> the type of model object
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class EntityCache<T> implements CacheStatistics {
+
+    private final int capacity;
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private final Map<Integer, T> byId;
+    private final Map<String, Integer> byName;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private long generation;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of cached objects, {@code 0} disables the cache
+     * @param idOf returns the id of an object
+     * @param nameOf returns the unique name of an object
+     */
+    EntityCache(int capacity, ToIntFunction<T> idOf, Function<T, String> nameOf) {
+        this.capacity = capacity;
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+        this.byName = new HashMap<>();
+    }
+
+    /**
+     * Returns the object with the given id, loading it if it is not cached.
+     *
+     * @param id the id
+     * @param loader reads the object from the database
+     * @return {@code Optional<T>}
+     */
+    Optional<T> getById(int id, Supplier<Optional<T>> loader) {
+        if (this.capacity == 0) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            T object = this.byId.get(Integer.valueOf(id));
+            if (object != null) {
+                this.hits.increment();
+                return Optional.of(object);
+            }
+            loadGeneration = this.generation;
+        }
+
+        return load(loader, loadGeneration);
+    }
+
+    /**
+     * Returns the object with the given unique name, loading it if it is not cached.
+     *
+     * @param name the unique name
+     * @param loader reads the object from the database
+     * @return {@code Optional<T>}
+     */
+    Optional<T> getByName(String name, Supplier<Optional<T>> loader) {
+        if (this.capacity == 0) {
+            return loader.get();
+        }
+
+        long loadGeneration;
+        synchronized (this) {
+            Integer id = this.byName.get(name);
+            if (id != null) {
+                this.hits.increment();
+                return Optional.of(this.byId.get(id));
+            }
+            loadGeneration = this.generation;
+        }
+
+        return load(loader, loadGeneration);
+    }
+
+    /**
+     * Removes every cached object.
+     */
+    synchronized void invalidateAll() {
+        this.generation++;
+        this.byId.clear();
+        this.byName.clear();
+    }
+
+    /**
+     * @return the number of cached objects
+     */
+    synchronized int size() {
+        return this.byId.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return this.evictions.sum();
+    }
+
+    private Optional<T> load(Supplier<Optional<T>> loader, long loadGeneration) {
+        this.misses.increment();
+        Optional<T> object = loader.get();
+        if (object.isPresent()) {
+            put(object.get(), loadGeneration);
+        }
+        return object;
+    }
+
+    private synchronized void put(T object, long loadGeneration) {
+        if (loadGeneration != this.generation) {
+            return;
+        }
+
+        Integer id = Integer.valueOf(this.idOf.applyAsInt(object));
+        T previous = this.byId.put(id, object);
+        if (previous != null) {
+            this.byName.remove(this.nameOf.apply(previous));
+        }
+        this.byName.put(this.nameOf.apply(object), id);
+
+        Iterator<T> iter = this.byId.values().iterator();
+        while (this.byId.size() > this.capacity) {
+            T eldest = iter.next();
+            iter.remove();
+            this.byName.remove(this.nameOf.apply(eldest));
+            this.evictions.increment();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.sqlite.BatchPostingResult;
+import org.veary.pvs.sqlite.Posting;
+
+/**
+ * Coalesces postings from many threads into shared SQLite transactions. A single daemon thread
+ * takes the first waiting posting, collects whatever else arrives within the delay (up to the
+ * batch size), posts the group in one transaction and then completes each caller's future.
+ *
+ * <p>The thread is started by the first posting and stopped by {@link #shutdown()}, which
+ * commits the postings still queued before it returns.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class GroupCommitWriter {
+
+    private static final Logger log = LogManager.getLogger(GroupCommitWriter.class);
+
+    private static final class Pending {
+        private final Posting posting;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private Pending(Posting posting) {
+            this.posting = posting;
+        }
+    }
+
+    /**
+     * Queued by {@link #shutdown()} behind the last posting.
+     */
+    private static final Pending STOP = new Pending(null);
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Function<List<Posting>, BatchPostingResult> poster;
+    private Thread thread;
+    private boolean stopped;
+
+    /**
+     * Constructor.
+     *
+     * @param maxBatch the maximum number of postings per transaction
+     * @param maxDelayMillis how long to wait for more postings after the first one
+     * @param poster posts a group in a single transaction
+     */
+    GroupCommitWriter(int maxBatch, long maxDelayMillis,
+        Function<List<Posting>, BatchPostingResult> poster) {
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.poster = poster;
+    }
+
+    /**
+     * Queues a posting for the next group, starting the writer thread if need be.
+     *
+     * @param posting the {@link Posting}
+     * @return a future completed with {@code true} once the group has been committed, or
+     *         completed exceptionally if the posting failed or the writer has been shut down
+     */
+    synchronized CompletableFuture<Boolean> submit(Posting posting) {
+        Pending pending = new Pending(posting);
+        if (this.stopped) {
+            pending.future.completeExceptionally(
+                new DataAccessException("The group commit writer has been shut down"));
+            return pending.future;
+        }
+        if (this.thread == null) {
+            this.thread = new Thread(this::run, "pvs-group-commit"); //$NON-NLS-1$
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+        this.queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Stops the writer thread once the postings already queued have been committed, and waits
+     * for it to finish. Postings submitted afterwards are failed. Does nothing if already shut
+     * down.
+     */
+    void shutdown() {
+        Thread writer;
+        synchronized (this) {
+            if (this.stopped) {
+                return;
+            }
+            this.stopped = true;
+            writer = this.thread;
+            if (writer != null) {
+                this.queue.add(STOP);
+            }
+        }
+
+        if (writer != null) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                writer.interrupt();
+            }
+        }
+    }
+
+    private void run() {
+        List<Pending> group = new ArrayList<>(this.maxBatch);
+
+        try {
+            boolean running = true;
+            while (running) {
+                group.add(this.queue.take());
+                collect(group);
+                // nothing can be queued behind STOP
+                running = group.get(group.size() - 1) != STOP;
+                if (!running) {
+                    group.remove(group.size() - 1);
+                }
+                if (!group.isEmpty()) {
+                    commit(group);
+                }
+                group.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.queue.drainTo(group);
+        for (Pending pending : group) {
+            pending.future.completeExceptionally(
+                new DataAccessException("The group commit writer has been shut down"));
+        }
+    }
+
+    private void collect(List<Pending> group) throws InterruptedException {
+        long deadline = System.nanoTime() + this.maxDelayNanos;
+
+        while (group.size() < this.maxBatch && group.get(group.size() - 1) != STOP) {
+            if (this.queue.drainTo(group, this.maxBatch - group.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            Pending next = this.queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        log.trace(Constants.LOG_CALLED);
+        List<Posting> postings = new ArrayList<>(group.size());
+        for (Pending pending : group) {
+            postings.add(pending.posting);
+        }
+
+        BatchPostingResult result;
+        try {
+            result = this.poster.apply(postings);
+        } catch (RuntimeException e) {
+            for (Pending pending : group) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+
+        boolean[] failed = new boolean[group.size()];
+        for (BatchPostingResult.Failure failure : result.getFailures()) {
+            failed[failure.getIndex()] = true;
+            group.get(failure.getIndex()).future.completeExceptionally(
+                new DataAccessException(failure.getCause()));
+        }
+        for (int i = 0; i < failed.length; i++) {
+            if (!failed[i]) {
+                group.get(i).future.complete(Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -24,10 +24,6 @@
 
 package org.veary.pvs.sqlite.internal.dao;
 
-import org.veary.pvs.dao.AccountDataAccessObject;
-import org.veary.pvs.dao.DayBookDataAccessObject;
-import org.veary.pvs.dao.PeriodDataAccessObject;
-import org.veary.pvs.dao.SystemDataAccessObject;
 import org.veary.pvs.sqlite.jdbc.GuiceSqliteJdbcModule;
 
 public class GuiceSqliteDaoModule extends GuiceSqliteJdbcModule {
@@ -37,9 +33,6 @@ public class GuiceSqliteDaoModule extends GuiceSqliteJdbcModule {
         super.configure();
 
         // DAO bindings
-        bind(AccountDataAccessObject.class).to(AccountDataAccessObjectImpl.class);
-        bind(PeriodDataAccessObject.class).to(PeriodDataAccessObjectImpl.class);
-        bind(DayBookDataAccessObject.class).to(DayBookDataAccessObjectImpl.class);
-        bind(SystemDataAccessObject.class).to(SystemDataAccessObjectImpl.class);
+        install(new DataAccessObjectBindings());
     }
 }
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+
+import org.veary.pvs.sqlite.LedgerSearchFilter;
+
+/**
+ * Compiles a {@link LedgerSearchFilter} into one parameterized statement based on
+ * {@code db-design/ledger-search.sql}. Each criterion adds a predicate which an index can
+ * serve:
+ * <ul>
+ * <li>accounts: {@code ledger_account_idx}</li>
+ * <li>day book, with or without dates: {@code journal_daybook_date_idx}</li>
+ * <li>period: {@code daybook_period_idx}, then {@code journal_daybook_date_idx}</li>
+ * <li>dates alone: {@code journal_date_idx}</li>
+ * <li>reference: {@code journal_ref_idx}</li>
+ * </ul>
+ * The amount range is only checked against the rows the other criteria select.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class LedgerSearchQuery {
+
+    static final String SQL_SELECT = "SELECT journal.id, journal.date, journal.narrative, "
+        + "journal.ref, journal.daybook_id, ledger.account_id, account.name, ledger.amount "
+        + "FROM ledger INNER JOIN journal ON journal.id = ledger.journal_id "
+        + "INNER JOIN account ON account.id = ledger.account_id";
+    static final String SQL_ORDER = " ORDER BY journal.date, journal.id, ledger.account_id";
+
+    private final String sql;
+    private final List<Object> args = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param filter the {@link LedgerSearchFilter} to compile
+     */
+    LedgerSearchQuery(LedgerSearchFilter filter) {
+        List<String> where = new ArrayList<>();
+
+        if (!filter.getAccountIds().isEmpty()) {
+            StringJoiner marks = new StringJoiner(",", "ledger.account_id IN (", ")");
+            for (Integer id : filter.getAccountIds()) {
+                marks.add("?");
+                this.args.add(id);
+            }
+            where.add(marks.toString());
+        }
+        filter.getDayBookId().ifPresent(id -> {
+            where.add("journal.daybook_id=?");
+            this.args.add(id);
+        });
+        filter.getPeriodId().ifPresent(id -> {
+            where.add("journal.daybook_id IN (SELECT id FROM daybook WHERE period_id=?)");
+            this.args.add(id);
+        });
+        filter.getFromDate().ifPresent(date -> {
+            where.add("journal.date >= ?");
+            this.args.add(date.toString());
+        });
+        filter.getToDate().ifPresent(date -> {
+            where.add("journal.date <= ?");
+            this.args.add(date.toString());
+        });
+        filter.getReference().ifPresent(ref -> {
+            where.add("journal.ref=?");
+            this.args.add(ref);
+        });
+        filter.getMinAmount().ifPresent(amount -> {
+            where.add("ABS(ledger.amount) >= ?");
+            this.args.add(amount.toUnscaledInteger());
+        });
+        filter.getMaxAmount().ifPresent(amount -> {
+            where.add("ABS(ledger.amount) <= ?");
+            this.args.add(amount.toUnscaledInteger());
+        });
+
+        this.sql = SQL_SELECT + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where))
+            + SQL_ORDER;
+    }
+
+    /**
+     * @return the SQL
+     */
+    String getSql() {
+        return this.sql;
+    }
+
+    /**
+     * @return the arguments of the SQL, in order
+     */
+    List<Object> getArgs() {
+        return Collections.unmodifiableList(this.args);
+    }
+}
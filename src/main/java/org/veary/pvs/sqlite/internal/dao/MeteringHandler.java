@@ -0,0 +1,142 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.veary.pvs.sqlite.DataAccessMetrics;
+import org.veary.pvs.sqlite.TransactionPage;
+
+/**
+ * The invocation handler of a metered data access object: it times each call of the interface
+ * and records it, with the number of objects returned, in the {@link DataAccessMetrics}. The
+ * {@code Object} methods are passed straight through.
+ *
+ * <p>An operation is named after the interface, the method and its parameter types, for
+ * example {@code AccountDataAccessObject.getById(int)}, so that overloads are told apart. A
+ * returned {@code Stream} is read after the call returns, so its call is recorded when the
+ * stream is closed, with the time up to then and the number of elements consumed.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class MeteringHandler implements InvocationHandler {
+
+    private final Map<Method, String> operations = new HashMap<>();
+    private final Object target;
+    private final DataAccessMetrics metrics;
+
+    private MeteringHandler(Class<?> type, Object target, DataAccessMetrics metrics) {
+        for (Method method : type.getMethods()) {
+            this.operations.put(method, operation(type, method));
+        }
+        this.target = target;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Wraps a data access object in a metering proxy, unless the metrics are disabled.
+     *
+     * @param type the interface to proxy
+     * @param target the data access object
+     * @param metrics the {@link DataAccessMetrics}
+     * @return the proxy, or the target itself if the metrics are disabled
+     */
+    static <T> T wrap(Class<T> type, T target, DataAccessMetrics metrics) {
+        if (!metrics.isEnabled()) {
+            return target;
+        }
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+            new MeteringHandler(type, target, metrics)));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(this.target, args);
+        }
+
+        String operation = this.operations.get(method);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = method.invoke(this.target, args);
+        } catch (InvocationTargetException e) {
+            this.metrics.recordCall(operation, System.nanoTime() - start, -1, true);
+            throw e.getCause();
+        }
+
+        if (result instanceof Stream) {
+            return meter(operation, start, (Stream<?>) result);
+        }
+        this.metrics.recordCall(operation, System.nanoTime() - start, rows(result), false);
+        return result;
+    }
+
+    private Stream<?> meter(String operation, long start, Stream<?> stream) {
+        AtomicInteger rows = new AtomicInteger();
+        return stream.peek(element -> rows.incrementAndGet())
+            .onClose(() -> this.metrics.recordCall(operation, System.nanoTime() - start,
+                rows.get(), false));
+    }
+
+    private static String operation(Class<?> type, Method method) {
+        StringBuilder name = new StringBuilder(type.getSimpleName()).append('.')
+            .append(method.getName()).append('(');
+        Class<?>[] parameters = method.getParameterTypes();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                name.append(',');
+            }
+            name.append(parameters[i].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+
+    private static int rows(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Map) {
+            return ((Map<?, ?>) result).size();
+        }
+        if (result instanceof TransactionPage) {
+            return ((TransactionPage) result).getTransactions().size();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.LedgerEntry;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.model.Transaction;
+
+/**
+ * A {@link RowMapper} for the PVS model objects. The column indexes are resolved once, on the
+ * first row, and only the columns the model needs are read. The model objects themselves are
+ * still built by the {@link ModelFactory}, which takes the column values keyed by column name.
+ *
+ * <p>The {@code ModelFactory} of the API only accepts a {@code Map<Object, Object>}, so the
+ * values cannot be passed on from the typed getters without boxing them. Instead of a new
+ * {@code HashMap} per row, each mapper refills one {@link Row}: a fixed-key map over two arrays.
+ * The factory copies the values it needs into the model object and does not keep the map.
+ * {@code RowMappingBenchmark} compares the allocation of the two paths with {@code -prof gc}.
+ *
+ * <p>An instance remembers the column indexes of the first {@code ResultSet} it sees, so create
+ * one per statement with the factory methods below.
+ *
+ * @param <T> the type of model object
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+abstract class ModelRowMapper<T> implements RowMapper<T> {
+
+    private final String[] columns;
+    private final Row row;
+    private int[] indexes;
+
+    /**
+     * Constructor.
+     *
+     * @param columns the names of the columns read by this mapper
+     */
+    ModelRowMapper(String... columns) {
+        this.columns = columns;
+        this.row = new Row(columns);
+    }
+
+    @Override
+    public final T mapRow(ResultSet rset) throws SQLException, ValidationException {
+        if (this.indexes == null) {
+            this.indexes = new int[this.columns.length];
+            for (int i = 0; i < this.columns.length; i++) {
+                this.indexes[i] = rset.findColumn(this.columns[i]);
+            }
+        }
+
+        for (int i = 0; i < this.columns.length; i++) {
+            this.row.values[i] = rset.getObject(this.indexes[i]);
+        }
+
+        return build(this.row);
+    }
+
+    /**
+     * Builds the model object from the column values of one row.
+     *
+     * @param row the column values keyed by column name, overwritten by the next row
+     * @return the model object
+     * @throws ValidationException if the row is not a valid model object
+     */
+    protected abstract T build(Map<Object, Object> row) throws ValidationException;
+
+    static ModelRowMapper<Account> account(ModelFactory factory) {
+        return new ModelRowMapper<Account>("id", "name", "description", "type") {
+            @Override
+            protected Account build(Map<Object, Object> row) throws ValidationException {
+                return factory.buildAccountObject(row);
+            }
+        };
+    }
+
+    static ModelRowMapper<Period> period(ModelFactory factory) {
+        return new ModelRowMapper<Period>("id", "name", "description") {
+            @Override
+            protected Period build(Map<Object, Object> row) throws ValidationException {
+                return factory.buildPeriodObject(row);
+            }
+        };
+    }
+
+    static ModelRowMapper<DayBook> dayBook(ModelFactory factory) {
+        return new ModelRowMapper<DayBook>("id", "name", "description", "period_id") {
+            @Override
+            protected DayBook build(Map<Object, Object> row) throws ValidationException {
+                return factory.buildDayBookObject(row);
+            }
+        };
+    }
+
+    static ModelRowMapper<Transaction> transaction(ModelFactory factory) {
+        return new ModelRowMapper<Transaction>("id", "date", "ref", "narrative", "daybook_id") {
+            @Override
+            protected Transaction build(Map<Object, Object> row) throws ValidationException {
+                return factory.buildTransactionObject(row);
+            }
+        };
+    }
+
+    static ModelRowMapper<LedgerEntry> ledgerEntry(ModelFactory factory) {
+        return new ModelRowMapper<LedgerEntry>("journal_id", "account_id", "amount") {
+            @Override
+            protected LedgerEntry build(Map<Object, Object> row) throws ValidationException {
+                return factory.buildLedgerEntryObject(row);
+            }
+        };
+    }
+
+    /**
+     * The read-only column values of the current row, keyed by column name. The few keys are
+     * compared in order, which is cheaper than hashing them.
+     */
+    static final class Row extends AbstractMap<Object, Object> {
+
+        private final String[] keys;
+        private final Object[] values;
+
+        Row(String[] keys) {
+            this.keys = keys;
+            this.values = new Object[keys.length];
+        }
+
+        @Override
+        public Object get(Object key) {
+            int index = indexOf(key);
+            return index < 0 ? null : this.values[index];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return this.keys.length;
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<Object, Object>>() {
+                @Override
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    return new Iterator<Map.Entry<Object, Object>>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.next < Row.this.keys.length;
+                        }
+
+                        @Override
+                        public Map.Entry<Object, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = this.next++;
+                            return new SimpleImmutableEntry<>(Row.this.keys[index],
+                                Row.this.values[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return Row.this.keys.length;
+                }
+            };
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < this.keys.length; i++) {
+                if (this.keys[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
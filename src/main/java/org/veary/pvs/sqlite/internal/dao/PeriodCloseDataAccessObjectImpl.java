@@ -0,0 +1,180 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.PeriodCloseDataAccessObject;
+import org.veary.pvs.sqlite.PeriodClosing;
+import org.veary.pvs.sqlite.PeriodShardManager;
+
+/**
+ * Package scoped, concrete implementation of the {@code PeriodCloseDataAccessObject} for
+ * SQLite. A closed period has a row in {@code period_close} and its closing balances in
+ * {@code period_closing_balance}; the {@code journal_period_closed} trigger rejects journals
+ * for its day books.
+ *
+ * <p>The closing balance of an income or expense account is its movement in the period. That
+ * of any other account carries forward: the balances of the day books of every earlier period,
+ * earlier meaning a lower id, are included as its opening balance. The {@code balance} table
+ * stays in the main database when a period is archived, so the opening balances are read from
+ * it whether or not the earlier periods were closed.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class PeriodCloseDataAccessObjectImpl extends AbstractDataAccessObject
+implements PeriodCloseDataAccessObject {
+
+    private static final String SQL_CLOSE =
+        "INSERT INTO period_close(period_id, closed_on) VALUES(?,?)";
+    private static final String SQL_SNAPSHOT =
+        "INSERT INTO period_closing_balance(period_id, account_id, amount) "
+        + "SELECT ?, balance.account_id, SUM(balance.amount) FROM daybook "
+        + "INNER JOIN balance ON balance.daybook_id = daybook.id "
+        + "INNER JOIN account ON account.id = balance.account_id "
+        + "WHERE daybook.period_id=? OR (daybook.period_id<? AND account.type NOT IN (?,?)) "
+        + "GROUP BY balance.account_id";
+    private static final String SQL_CLOSED_ON =
+        "SELECT closed_on FROM period_close WHERE period_id=?";
+    private static final String SQL_CLOSING_BALANCES =
+        "SELECT account_id, amount FROM period_closing_balance WHERE period_id=?";
+
+    private static final Logger log = LogManager.getLogger(PeriodCloseDataAccessObjectImpl.class);
+
+    private final PeriodShardManager shards;
+
+    @Inject
+    protected PeriodCloseDataAccessObjectImpl(ConnectionManager manager,
+        DataAccessSettings settings, PeriodShardManager shards) {
+        super(manager, settings);
+        this.shards = shards;
+    }
+
+    @Override
+    public PeriodClosing closePeriod(Period period) {
+        log.trace(Constants.LOG_CALLED);
+
+        if (isClosed(period)) {
+            throw new DataAccessException("Period [" + period.getName() + "] is already closed");
+        }
+
+        try (Connection conn = startTransaction()) {
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(SQL_CLOSE)) {
+                    stmt.setInt(1, period.getId());
+                    stmt.setString(2, LocalDate.now().toString());
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(SQL_SNAPSHOT)) {
+                    stmt.setInt(1, period.getId());
+                    stmt.setInt(2, period.getId());
+                    stmt.setInt(3, period.getId());
+                    stmt.setInt(4, Type.INCOME.getValue());
+                    stmt.setInt(5, Type.EXPENSE.getValue());
+                    stmt.executeUpdate();
+                }
+                commit(conn);
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+
+        // the period is locked before it is moved, so no posting can be left behind
+        if (this.shards.isEnabled()) {
+            this.shards.moveToShard(period);
+        }
+
+        return getClosing(period).orElseThrow(() -> new AssertionError(
+            "Cannot read the closing of Period [" + period.getName() + "] from the database"));
+    }
+
+    @Override
+    public boolean isClosed(Period period) {
+        log.trace(Constants.LOG_CALLED);
+        return readClosedOn(period).isPresent();
+    }
+
+    @Override
+    public Optional<PeriodClosing> getClosing(Period period) {
+        log.trace(Constants.LOG_CALLED);
+
+        Optional<LocalDate> closedOn = readClosedOn(period);
+        if (!closedOn.isPresent()) {
+            return Optional.empty();
+        }
+
+        try {
+            Map<Integer, Money> balances = executeQuery(SQL_CLOSING_BALANCES, rset -> {
+                Map<Integer, Money> map = new HashMap<>();
+                while (rset.next()) {
+                    map.put(Integer.valueOf(rset.getInt(1)), toMoney(rset.getLong(2)));
+                }
+                return map;
+            }, Integer.valueOf(period.getId()));
+            boolean archived = this.shards.getShardedPeriods()
+                .contains(Integer.valueOf(period.getId()));
+            return Optional.of(new PeriodClosing(period.getId(), closedOn.get(), balances,
+                archived));
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private Optional<LocalDate> readClosedOn(Period period) {
+        try {
+            return executeQuery(SQL_CLOSED_ON,
+                rset -> rset.next() ? Optional.of(LocalDate.parse(rset.getString(1)))
+                    : Optional.<LocalDate>empty(),
+                Integer.valueOf(period.getId()));
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+}
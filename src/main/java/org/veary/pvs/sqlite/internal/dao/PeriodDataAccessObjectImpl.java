@@ -25,7 +25,6 @@
 package org.veary.pvs.sqlite.internal.dao;
 
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -42,7 +41,9 @@ import org.veary.pvs.exceptions.DataAccessException;
 import org.veary.pvs.exceptions.ValidationException;
 import org.veary.pvs.model.ModelFactory;
 import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.CacheStatistics;
 import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
 
 /**
  * Package scoped, concrete implementation of the {@code PeriodDataAccessObject} for SQLite.
@@ -54,27 +55,36 @@ import org.veary.pvs.sqlite.ConnectionManager;
 final class PeriodDataAccessObjectImpl extends AbstractDataAccessObject
 implements PeriodDataAccessObject {
 
+    static final String SQL_GET_BY_ID = "SELECT * from period WHERE id=?";
+    static final String SQL_GET_BY_NAME = "SELECT * from period WHERE name=?";
+
     private static final Logger log = LogManager.getLogger(PeriodDataAccessObjectImpl.class);
     private final ModelFactory factory;
+    private final EntityCache<Period> cache;
 
     @Inject
-    protected PeriodDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory) {
-        super(manager);
+    protected PeriodDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory,
+        DataAccessSettings settings) {
+        super(manager, settings);
         this.factory = factory;
+        this.cache = new EntityCache<>(settings.getEntityCacheSize(), Period::getId,
+            Period::getName);
     }
 
     @Override
     public Optional<Period> getById(int id) {
         log.trace(Constants.LOG_CALLED);
 
-        return processSingleResult("SELECT * from period WHERE id=?", String.valueOf(id));
+        return this.cache.getById(id,
+            () -> processSingleResult(SQL_GET_BY_ID, String.valueOf(id)));
     }
 
     @Override
     public Optional<Period> getByName(String uniqueName) {
         log.trace(Constants.LOG_CALLED);
 
-        return processSingleResult("SELECT * from period WHERE name=?", uniqueName);
+        return this.cache.getByName(uniqueName,
+            () -> processSingleResult(SQL_GET_BY_NAME, uniqueName));
     }
 
     @Override
@@ -82,17 +92,7 @@ implements PeriodDataAccessObject {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList("SELECT * from period");
-
-            List<Period> list = new ArrayList<>(results.size());
-            for (Map<Object, Object> row : results) {
-                Optional<Period> object = Optional.ofNullable(this.factory.buildPeriodObject(row));
-                if (object.isPresent()) {
-                    list.add(object.get());
-                }
-            }
-
-            return list;
+            return executeQueryForList("SELECT * from period", ModelRowMapper.period(this.factory));
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
@@ -113,6 +113,8 @@ implements PeriodDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -136,6 +138,8 @@ implements PeriodDataAccessObject {
                 throw object.get();
             }
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
@@ -154,19 +158,23 @@ implements PeriodDataAccessObject {
             return retval;
         } catch (SQLException e) {
             throw new DataAccessException(e);
+        } finally {
+            this.cache.invalidateAll();
         }
     }
 
+    /**
+     * @return the hit and miss counters of the entity cache
+     */
+    CacheStatistics getCacheStatistics() {
+        return this.cache;
+    }
+
     private Optional<Period> processSingleResult(String sql, String... args) {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> results = executeSqlAndReturnList(sql, args);
-            if (results.isEmpty()) {
-                return Optional.ofNullable(null);
-            }
-
-            return Optional.ofNullable(this.factory.buildPeriodObject(results.get(0)));
+            return executeQueryForObject(sql, ModelRowMapper.period(this.factory), (Object[]) args);
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
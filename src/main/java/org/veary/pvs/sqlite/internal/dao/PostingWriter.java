@@ -0,0 +1,186 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.sqlite.Posting;
+
+/**
+ * Writes postings through one set of prepared statements on a connection which is already in a
+ * transaction. The {@code balance} rows of both accounts are updated in the same transaction.
+ * Not thread safe; use one instance per transaction.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class PostingWriter implements AutoCloseable {
+
+    static final String SQL_INSERT_JOURNAL =
+        "INSERT INTO journal(date,ref,narrative,daybook_id) VALUES(?,?,?,?)";
+    static final String SQL_INSERT_LEDGER =
+        "INSERT INTO ledger(journal_id,account_id,amount) VALUES(?,?,?)";
+    static final String SQL_UPDATE_BALANCE =
+        "UPDATE balance SET amount=amount+? WHERE account_id=? AND daybook_id=?";
+    static final String SQL_INSERT_BALANCE =
+        "INSERT INTO balance(account_id,daybook_id,amount) VALUES(?,?,?)";
+
+    private static final String SAVEPOINT = "SAVEPOINT posting";
+    private static final String RELEASE = "RELEASE posting";
+    private static final String ROLLBACK_TO = "ROLLBACK TO posting";
+
+    private final PreparedStatement journal;
+    private final PreparedStatement ledger;
+    private final PreparedStatement balanceUpdate;
+    private final PreparedStatement balanceInsert;
+    private final Statement savepoints;
+
+    /**
+     * Constructor.
+     *
+     * @param conn a {@code Connection} with auto commit turned off
+     * @throws SQLException if the statements cannot be prepared
+     */
+    PostingWriter(Connection conn) throws SQLException {
+        this.journal = conn.prepareStatement(SQL_INSERT_JOURNAL, Statement.RETURN_GENERATED_KEYS);
+        this.ledger = conn.prepareStatement(SQL_INSERT_LEDGER);
+        this.balanceUpdate = conn.prepareStatement(SQL_UPDATE_BALANCE);
+        this.balanceInsert = conn.prepareStatement(SQL_INSERT_BALANCE);
+        this.savepoints = conn.createStatement();
+    }
+
+    /**
+     * Inserts the journal row of a posting.
+     *
+     * @param posting the {@link Posting}
+     * @return the id of the new journal row, {@code zero} if none was returned
+     * @throws SQLException if the insert fails
+     */
+    int insertJournal(Posting posting) throws SQLException {
+        this.journal.setObject(1, posting.getDate().toString());
+        this.journal.setObject(2, posting.getReference());
+        this.journal.setObject(3, posting.getNarrative());
+        this.journal.setObject(4, Integer.valueOf(posting.getDaybookId()));
+        this.journal.executeUpdate();
+
+        try (ResultSet rset = this.journal.getGeneratedKeys()) {
+            return rset.next() ? rset.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Inserts the credit and the debit ledger rows of a posting as one JDBC batch, and adds
+     * them to the balances of the two accounts.
+     *
+     * @param journalId the id of the journal row
+     * @param posting the {@link Posting}
+     * @return the number of ledger rows inserted, the balance rows are not counted
+     * @throws SQLException if the insert fails
+     */
+    int insertLedgerEntries(int journalId, Posting posting) throws SQLException {
+        Object credit = posting.getAmount().negate().toUnscaledInteger();
+        Object debit = posting.getAmount().toUnscaledInteger();
+        addLedgerEntry(journalId, posting.getFromAccount().getId(), credit);
+        addLedgerEntry(journalId, posting.getToAccount().getId(), debit);
+
+        int rows = 0;
+        for (int count : this.ledger.executeBatch()) {
+            rows += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+        }
+
+        addToBalance(posting.getFromAccount().getId(), posting.getDaybookId(), credit);
+        addToBalance(posting.getToAccount().getId(), posting.getDaybookId(), debit);
+        return rows;
+    }
+
+    /**
+     * Writes a complete posting inside its own savepoint, so that a failure only undoes this
+     * posting and leaves the enclosing transaction usable.
+     *
+     * @param posting the {@link Posting}
+     * @return the id of the new journal row
+     * @throws SQLException if the posting failed and was rolled back
+     * @throws DataAccessException if the savepoint itself could not be rolled back
+     */
+    int write(Posting posting) throws SQLException {
+        this.savepoints.execute(SAVEPOINT);
+        try {
+            int journalId = insertJournal(posting);
+            if (journalId == 0) {
+                throw new SQLException("Invalid journal id returned: " + journalId);
+            }
+            insertLedgerEntries(journalId, posting);
+            this.savepoints.execute(RELEASE);
+            return journalId;
+        } catch (SQLException e) {
+            this.ledger.clearBatch();
+            rollbackToSavepoint(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try (Statement s = this.savepoints; PreparedStatement j = this.journal;
+            PreparedStatement l = this.ledger; PreparedStatement bu = this.balanceUpdate;
+            PreparedStatement bi = this.balanceInsert) {
+            // try-with-resources closes them all, even if one of them fails
+        }
+    }
+
+    private void addLedgerEntry(int journalId, int accountId, Object amount) throws SQLException {
+        this.ledger.setObject(1, Integer.valueOf(journalId));
+        this.ledger.setObject(2, Integer.valueOf(accountId));
+        this.ledger.setObject(3, amount);
+        this.ledger.addBatch();
+    }
+
+    private void addToBalance(int accountId, int daybookId, Object amount) throws SQLException {
+        this.balanceUpdate.setObject(1, amount);
+        this.balanceUpdate.setObject(2, Integer.valueOf(accountId));
+        this.balanceUpdate.setObject(3, Integer.valueOf(daybookId));
+        if (this.balanceUpdate.executeUpdate() == 0) {
+            this.balanceInsert.setObject(1, Integer.valueOf(accountId));
+            this.balanceInsert.setObject(2, Integer.valueOf(daybookId));
+            this.balanceInsert.setObject(3, amount);
+            this.balanceInsert.executeUpdate();
+        }
+    }
+
+    private void rollbackToSavepoint(SQLException cause) {
+        try {
+            this.savepoints.execute(ROLLBACK_TO);
+            this.savepoints.execute(RELEASE);
+        } catch (SQLException e) {
+            e.addSuppressed(cause);
+            throw new DataAccessException(e);
+        }
+    }
+}
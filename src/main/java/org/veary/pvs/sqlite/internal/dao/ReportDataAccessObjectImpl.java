@@ -0,0 +1,155 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.AccountTypeTotals;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.ReportDataAccessObject;
+import org.veary.pvs.sqlite.TrialBalanceLine;
+
+/**
+ * Package scoped, concrete implementation of the {@code ReportDataAccessObject} for SQLite.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class ReportDataAccessObjectImpl extends AbstractDataAccessObject
+implements ReportDataAccessObject {
+
+    private static final String SQL_TOTALS =
+        "SUM(CASE WHEN ledger.amount > 0 THEN ledger.amount ELSE 0 END), "
+        + "SUM(CASE WHEN ledger.amount < 0 THEN -ledger.amount ELSE 0 END), "
+        + "SUM(ledger.amount) ";
+    private static final String SQL_LEDGER =
+        "FROM journal INNER JOIN ledger ON ledger.journal_id = journal.id "
+        + "INNER JOIN account ON account.id = ledger.account_id ";
+    private static final String SQL_DAYBOOK = "WHERE journal.daybook_id=? ";
+    private static final String SQL_PERIOD =
+        "INNER JOIN daybook ON daybook.id = journal.daybook_id WHERE daybook.period_id=? ";
+    private static final String SQL_BY_ACCOUNT =
+        "GROUP BY ledger.account_id ORDER BY account.type, account.name";
+    private static final String SQL_BY_TYPE = "GROUP BY account.type ORDER BY account.type";
+
+    static final String SQL_TRIAL_BALANCE_FOR_DAYBOOK =
+        "SELECT account.id, account.name, account.type, " + SQL_TOTALS + SQL_LEDGER
+        + SQL_DAYBOOK + SQL_BY_ACCOUNT;
+    static final String SQL_TRIAL_BALANCE_FOR_PERIOD =
+        "SELECT account.id, account.name, account.type, " + SQL_TOTALS + SQL_LEDGER
+        + SQL_PERIOD + SQL_BY_ACCOUNT;
+    static final String SQL_TYPE_TOTALS_FOR_DAYBOOK =
+        "SELECT account.type, " + SQL_TOTALS + SQL_LEDGER + SQL_DAYBOOK + SQL_BY_TYPE;
+    static final String SQL_TYPE_TOTALS_FOR_PERIOD =
+        "SELECT account.type, " + SQL_TOTALS + SQL_LEDGER + SQL_PERIOD + SQL_BY_TYPE;
+
+    private static final Logger log = LogManager.getLogger(ReportDataAccessObjectImpl.class);
+
+    @Inject
+    protected ReportDataAccessObjectImpl(ConnectionManager manager,
+        DataAccessSettings settings) {
+        super(manager, settings);
+    }
+
+    @Override
+    public void trialBalance(DayBook dayBook, Consumer<TrialBalanceLine> consumer) {
+        log.trace(Constants.LOG_CALLED);
+        streamTrialBalance(SQL_TRIAL_BALANCE_FOR_DAYBOOK, dayBook.getId(), consumer);
+    }
+
+    @Override
+    public void trialBalance(Period period, Consumer<TrialBalanceLine> consumer) {
+        log.trace(Constants.LOG_CALLED);
+        streamTrialBalance(SQL_TRIAL_BALANCE_FOR_PERIOD, period.getId(), consumer);
+    }
+
+    @Override
+    public List<AccountTypeTotals> getAccountTypeTotals(DayBook dayBook) {
+        log.trace(Constants.LOG_CALLED);
+        return queryTypeTotals(SQL_TYPE_TOTALS_FOR_DAYBOOK, dayBook.getId());
+    }
+
+    @Override
+    public List<AccountTypeTotals> getAccountTypeTotals(Period period) {
+        log.trace(Constants.LOG_CALLED);
+        return queryTypeTotals(SQL_TYPE_TOTALS_FOR_PERIOD, period.getId());
+    }
+
+    private void streamTrialBalance(String sql, int id, Consumer<TrialBalanceLine> consumer) {
+        try {
+            executeQuery(sql, rset -> {
+                while (rset.next()) {
+                    consumer.accept(new TrialBalanceLine(rset.getInt(1), rset.getString(2),
+                        toType(rset.getInt(3)), toMoney(rset.getLong(4)),
+                        toMoney(rset.getLong(5)), toMoney(rset.getLong(6))));
+                }
+                return null;
+            }, Integer.valueOf(id));
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private List<AccountTypeTotals> queryTypeTotals(String sql, int id) {
+        try {
+            return executeQuery(sql, rset -> {
+                List<AccountTypeTotals> list = new ArrayList<>();
+                while (rset.next()) {
+                    list.add(new AccountTypeTotals(toType(rset.getInt(1)),
+                        toMoney(rset.getLong(2)), toMoney(rset.getLong(3)),
+                        toMoney(rset.getLong(4))));
+                }
+                return list;
+            }, Integer.valueOf(id));
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private static Account.Type toType(int value) {
+        for (Account.Type type : Account.Type.values()) {
+            if (type.getValue() == value) {
+                return type;
+            }
+        }
+        throw new DataAccessException("Unknown account type: " + value);
+    }
+}
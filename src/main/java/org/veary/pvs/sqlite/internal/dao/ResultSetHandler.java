@@ -0,0 +1,51 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.veary.pvs.exceptions.ValidationException;
+
+/**
+ * Processes a whole {@code ResultSet}, for results which are not one object per row.
+ *
+ * @param <R> the type of the result
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@FunctionalInterface
+interface ResultSetHandler<R> {
+
+    /**
+     * Processes the {@code ResultSet}. The caller closes it afterwards.
+     *
+     * @param rset a {@code ResultSet} positioned before the first row
+     * @return the result
+     * @throws SQLException if there is a problem accessing the {@code ResultSet}
+     * @throws ValidationException if a row is not a valid model object
+     */
+    R handle(ResultSet rset) throws SQLException, ValidationException;
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
+
+/**
+ * A sequential {@code Spliterator} over an open {@code ResultSet}. Objects are read one at a
+ * time, when the stream asks for them, so only the current object is held in memory. Closing
+ * the {@code ResultSet} is left to the owner of the stream.
+ *
+ * @param <T> the type of object produced
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+    private final ResultSet rset;
+    private final RowReader<T> reader;
+    private boolean done;
+
+    /**
+     * Constructor.
+     *
+     * @param rset the open {@code ResultSet}
+     * @param reader reads each object
+     */
+    ResultSetSpliterator(ResultSet rset, RowReader<T> reader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.rset = rset;
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (this.done) {
+            return false;
+        }
+
+        T object;
+        try {
+            object = this.reader.read(this.rset);
+        } catch (SQLException | ValidationException e) {
+            this.done = true;
+            throw new DataAccessException(e);
+        }
+
+        if (object == null) {
+            this.done = true;
+            return false;
+        }
+
+        action.accept(object);
+        return true;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.veary.pvs.exceptions.ValidationException;
+
+/**
+ * Reads the next object from a {@code ResultSet}, advancing the cursor over as many rows as
+ * the object needs.
+ *
+ * @param <T> the type of object produced
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@FunctionalInterface
+interface RowReader<T> {
+
+    /**
+     * Reads the next object.
+     *
+     * @param rset the {@code ResultSet}, positioned before the next unread row
+     * @return the object, or {@code null} once there are no more rows
+     * @throws SQLException if there is a problem accessing the {@code ResultSet}
+     * @throws ValidationException if a row is not a valid model object
+     */
+    T read(ResultSet rset) throws SQLException, ValidationException;
+}
@@ -0,0 +1,171 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.LedgerLine;
+import org.veary.pvs.sqlite.LedgerSearchFilter;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+import org.veary.pvs.sqlite.TransactionPage;
+
+/**
+ * Package scoped, concrete implementation of the {@code SearchDataAccessObject} for SQLite.
+ *
+ * <p>The matches are ranked by the FTS5 {@code rank} column, which is the BM25 score. A rank is
+ * not a stable key, so unlike the journal pages the search pages are continued by offset.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class SearchDataAccessObjectImpl extends AbstractDataAccessObject
+implements SearchDataAccessObject {
+
+    /**
+     * The inner query picks the journal ids of the page from the full-text index; only their
+     * journal and ledger rows are then joined.
+     */
+    static final String SQL_SEARCH = "SELECT journal.id AS id, journal.date AS date, "
+        + "journal.ref AS ref, journal.narrative AS narrative, journal.daybook_id AS daybook_id, "
+        + "ledger.journal_id AS journal_id, ledger.account_id AS account_id, "
+        + "ledger.amount AS amount FROM (SELECT rowid AS id, rank FROM journal_fts "
+        + "WHERE journal_fts MATCH ? ORDER BY rank LIMIT ? OFFSET ?) AS hit "
+        + "INNER JOIN journal ON journal.id = hit.id "
+        + "INNER JOIN ledger ON ledger.journal_id = journal.id "
+        + "ORDER BY hit.rank, journal.id";
+
+    private static final String TOKEN_PREFIX = "offset:";
+
+    private static final Logger log = LogManager.getLogger(SearchDataAccessObjectImpl.class);
+
+    private final ModelFactory factory;
+
+    @Inject
+    protected SearchDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory,
+        DataAccessSettings settings) {
+        super(manager, settings);
+        this.factory = factory;
+    }
+
+    @Override
+    public TransactionPage searchTransactions(String query, int pageSize,
+        String continuationToken) {
+        log.trace(Constants.LOG_CALLED);
+        checkArgument(pageSize > 0, "The 'pageSize' parameter must be positive");
+
+        String match = toMatchExpression(query);
+        int offset = continuationToken == null ? 0 : decodeOffset(continuationToken);
+        int nextOffset = offset + pageSize;
+
+        try {
+            return executeQuery(SQL_SEARCH,
+                new TransactionPageReader(this.factory, pageSize,
+                    (date, id) -> encodeOffset(nextOffset)),
+                match, Integer.valueOf(pageSize + 1), Integer.valueOf(offset));
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    @Override
+    public void searchLedger(LedgerSearchFilter filter, Consumer<LedgerLine> consumer) {
+        log.trace(Constants.LOG_CALLED);
+        checkNotNull(filter, "The 'filter' parameter is null!");
+        checkNotNull(consumer, "The 'consumer' parameter is null!");
+
+        LedgerSearchQuery query = new LedgerSearchQuery(filter);
+        try {
+            executeQuery(query.getSql(), rset -> {
+                while (rset.next()) {
+                    consumer.accept(new LedgerLine(rset.getInt(1),
+                        LocalDate.parse(rset.getString(2)), rset.getString(3), rset.getString(4),
+                        rset.getInt(5), rset.getInt(6), rset.getString(7),
+                        toMoney(rset.getLong(8))));
+                }
+                return null;
+            }, query.getArgs().toArray());
+        } catch (SQLException | ValidationException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    /**
+     * Quotes each word of the query as an FTS5 string, doubling any embedded double quote, so
+     * that the words are matched literally and implicitly {@code AND}ed.
+     * @param query the words to search for
+     * @return the FTS5 match expression
+     */
+    static String toMatchExpression(String query) {
+        checkNotNull(query, "The 'query' parameter is null!");
+        StringJoiner joiner = new StringJoiner(" ");
+        for (String word : query.trim().split("\\s+")) {
+            if (!word.isEmpty()) {
+                joiner.add('"' + word.replace("\"", "\"\"") + '"');
+            }
+        }
+        checkArgument(joiner.length() > 0, "The 'query' parameter has no words");
+        return joiner.toString();
+    }
+
+    private static String encodeOffset(int offset) {
+        String plain = TOKEN_PREFIX + offset;
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeOffset(String token) {
+        try {
+            String plain = new String(Base64.getUrlDecoder().decode(token),
+                StandardCharsets.UTF_8);
+            checkArgument(plain.startsWith(TOKEN_PREFIX), "Invalid continuation token: %s",
+                token);
+            int offset = Integer.parseInt(plain.substring(TOKEN_PREFIX.length()));
+            checkArgument(offset >= 0, "Invalid continuation token: %s", token);
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+}
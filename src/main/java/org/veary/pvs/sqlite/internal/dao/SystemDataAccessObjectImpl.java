@@ -24,15 +24,19 @@
 
 package org.veary.pvs.sqlite.internal.dao;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -41,202 +45,404 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.veary.pvs.core.Constants;
 import org.veary.pvs.core.Money;
-import org.veary.pvs.dao.SystemDataAccessObject;
 import org.veary.pvs.exceptions.DataAccessException;
 import org.veary.pvs.exceptions.ValidationException;
 import org.veary.pvs.model.Account;
 import org.veary.pvs.model.DayBook;
-import org.veary.pvs.model.LedgerEntry;
 import org.veary.pvs.model.ModelFactory;
 import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.BatchPostingResult;
 import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.PeriodShardManager;
+import org.veary.pvs.sqlite.Posting;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+import org.veary.pvs.sqlite.TransactionPage;
 
 /**
- * Package scoped, concrete implementation of the {@code SystemDataAccessObject} for SQLite.
+ * Package scoped, concrete implementation of the {@code SqliteSystemDataAccessObject} for
+ * SQLite.
  *
  * @author Marc L. Veary
  * @since 1.0
  */
 @Singleton
 final class SystemDataAccessObjectImpl extends AbstractDataAccessObject
-implements SystemDataAccessObject {
+implements SqliteSystemDataAccessObject {
 
     private static final int EXPECTED_TRANSACTION_COUNT = 3;
+
+    /**
+     * Selects each journal row joined with its ledger rows. The column aliases match the column
+     * names the {@code ModelFactory} expects for both {@code Transaction} and
+     * {@code LedgerEntry}.
+     */
+    static final String SQL_JOURNAL_WITH_LEDGER = "SELECT journal.id AS id, journal.date AS date, "
+        + "journal.ref AS ref, journal.narrative AS narrative, journal.daybook_id AS daybook_id, "
+        + "ledger.journal_id AS journal_id, ledger.account_id AS account_id, "
+        + "ledger.amount AS amount "
+        + "FROM journal INNER JOIN ledger ON ledger.journal_id = journal.id";
+    static final String SQL_TRANSACTIONS = SQL_JOURNAL_WITH_LEDGER + " ORDER BY journal.id";
+    static final String SQL_TRANSACTIONS_FOR_DAYBOOK = SQL_JOURNAL_WITH_LEDGER
+        + " WHERE journal.daybook_id=? ORDER BY journal.id";
+    static final String SQL_TRANSACTIONS_FOR_ACCOUNT_IN_DAYBOOK = SQL_JOURNAL_WITH_LEDGER
+        + " WHERE journal.id IN (SELECT journal_id FROM ledger WHERE account_id=?)"
+        + " AND journal.daybook_id=? ORDER BY journal.id";
+    static final String SQL_TRANSACTIONS_BETWEEN = SQL_JOURNAL_WITH_LEDGER
+        + " WHERE journal.date BETWEEN ? AND ? ORDER BY journal.date, journal.id";
+    static final String SQL_TRANSACTIONS_FOR_ACCOUNT_BETWEEN = SQL_JOURNAL_WITH_LEDGER
+        + " WHERE journal.id IN (SELECT journal_id FROM ledger WHERE account_id=?)"
+        + " AND journal.date BETWEEN ? AND ? ORDER BY journal.date, journal.id";
+
+    private static final String SQL_SEEK = "date <= ? AND (date < ? OR id < ?)";
+    private static final String SQL_FOR_DAYBOOK = "daybook_id=?";
+    private static final String SQL_FOR_ACCOUNT_IN_DAYBOOK =
+        "id IN (SELECT journal_id FROM ledger WHERE account_id=?) AND daybook_id=?";
+
+    static final String SQL_PAGE = pageQuery("");
+    static final String SQL_NEXT_PAGE = pageQuery(" WHERE " + SQL_SEEK);
+    static final String SQL_PAGE_FOR_DAYBOOK = pageQuery(" WHERE " + SQL_FOR_DAYBOOK);
+    static final String SQL_NEXT_PAGE_FOR_DAYBOOK =
+        pageQuery(" WHERE " + SQL_FOR_DAYBOOK + " AND " + SQL_SEEK);
+    static final String SQL_PAGE_FOR_ACCOUNT_IN_DAYBOOK =
+        pageQuery(" WHERE " + SQL_FOR_ACCOUNT_IN_DAYBOOK);
+    static final String SQL_NEXT_PAGE_FOR_ACCOUNT_IN_DAYBOOK =
+        pageQuery(" WHERE " + SQL_FOR_ACCOUNT_IN_DAYBOOK + " AND " + SQL_SEEK);
+
+    /**
+     * The day book queries rewritten by {@link #inMainDatabase(String)}.
+     */
+    private static final Map<String, String> IN_MAIN_DATABASE = new HashMap<>();
+
+    static {
+        for (String sql : new String[] { SQL_TRANSACTIONS_FOR_DAYBOOK,
+            SQL_TRANSACTIONS_FOR_ACCOUNT_IN_DAYBOOK, SQL_PAGE_FOR_DAYBOOK,
+            SQL_NEXT_PAGE_FOR_DAYBOOK, SQL_PAGE_FOR_ACCOUNT_IN_DAYBOOK,
+            SQL_NEXT_PAGE_FOR_ACCOUNT_IN_DAYBOOK }) {
+            IN_MAIN_DATABASE.put(sql, inMainDatabase(sql));
+        }
+    }
+
     private static final Logger log = LogManager.getLogger(SystemDataAccessObjectImpl.class);
 
     private final ModelFactory factory;
+    private final PeriodShardManager shards;
+    private final GroupCommitWriter groupCommitWriter;
 
     @Inject
-    protected SystemDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory) {
-        super(manager);
+    protected SystemDataAccessObjectImpl(ConnectionManager manager, ModelFactory factory,
+        PeriodShardManager shards, DataAccessSettings settings) {
+        super(manager, settings);
         this.factory = factory;
+        this.shards = shards;
+        this.groupCommitWriter = settings.isGroupCommit()
+            ? new GroupCommitWriter(settings.getGroupCommitMaxBatch(),
+                settings.getGroupCommitMaxDelayMillis(),
+                postings -> postTransactions(postings, postings.size()))
+            : null;
     }
 
     @Override
     public boolean postTransaction(LocalDate timestamp, String narrative, Money amount,
         Account fromAccount, Account toAccount, String reference, int daybookId) {
         log.trace(Constants.LOG_CALLED);
+        Posting posting = new Posting(timestamp, narrative, amount, fromAccount, toAccount,
+            reference, daybookId);
+        if (this.groupCommitWriter != null) {
+            return awaitGroupCommit(posting);
+        }
+
         boolean retval = false;
 
         int resultCount = 0;
-        int journalId = 0;
         try (Connection conn = startTransaction()) {
-            journalId = createJournalEntry(conn, timestamp, narrative, reference, daybookId);
-            if (journalId == 0) {
-                rollbackTransaction(conn);
-                throw new DataAccessException("Invalid journal id returned: " + journalId);
-            }
-            resultCount++;
-            if (createLedgerEntry(conn, journalId, fromAccount.getId(), amount.negate()) > 0) {
-                resultCount++;
-            }
-            if (createLedgerEntry(conn, journalId, toAccount.getId(), amount) > 0) {
+            try (PostingWriter writer = new PostingWriter(conn)) {
+                int journalId = writer.insertJournal(posting);
+                if (journalId == 0) {
+                    rollbackTransaction(conn);
+                    throw new DataAccessException("Invalid journal id returned: " + journalId);
+                }
                 resultCount++;
+                resultCount += writer.insertLedgerEntries(journalId, posting);
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw new DataAccessException(e);
             }
             retval = endTransaction(conn, EXPECTED_TRANSACTION_COUNT, resultCount);
-        } catch (SQLException e) { throw new DataAccessException(e); }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
 
         return retval;
     }
 
+    @Override
+    public void close() {
+        log.trace(Constants.LOG_CALLED);
+        if (this.groupCommitWriter != null) {
+            this.groupCommitWriter.shutdown();
+        }
+    }
+
+    /**
+     * Hands the posting to the group commit writer and waits for its group to be committed.
+     * @param posting the {@code Posting}
+     * @return {@code true} once committed
+     */
+    private boolean awaitGroupCommit(Posting posting) {
+        try {
+            return this.groupCommitWriter.submit(posting).get().booleanValue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DataAccessException(e.getCause());
+        }
+    }
+
+    @Override
+    public BatchPostingResult postTransactions(Iterable<Posting> postings, int chunkSize) {
+        log.trace(Constants.LOG_CALLED);
+        checkNotNull(postings, "The 'postings' parameter is null!");
+        checkArgument(chunkSize > 0, "The 'chunkSize' parameter must be positive");
+
+        List<BatchPostingResult.Failure> failures = new ArrayList<>();
+        int index = 0;
+        int posted = 0;
+        int uncommitted = 0;
+
+        try (Connection conn = startTransaction()) {
+            try (PostingWriter writer = new PostingWriter(conn)) {
+                for (Posting posting : postings) {
+                    if (posting == null) {
+                        failures.add(new BatchPostingResult.Failure(index++, null,
+                            new NullPointerException("The posting is null!")));
+                        continue;
+                    }
+                    try {
+                        writer.write(posting);
+                        posted++;
+                        if (++uncommitted == chunkSize) {
+                            commit(conn);
+                            uncommitted = 0;
+                        }
+                    } catch (SQLException e) {
+                        failures.add(new BatchPostingResult.Failure(index, posting, e));
+                    }
+                    index++;
+                }
+                commit(conn);
+                conn.setAutoCommit(true);
+            } catch (SQLException e) {
+                rollbackTransaction(conn);
+                throw new DataAccessException(e);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+
+        return new BatchPostingResult(posted, failures);
+    }
+
     @Override
     public List<Transaction> getTransactions() {
         log.trace(Constants.LOG_CALLED);
-        return getTransactions("SELECT * FROM journal");
+        return getTransactions(SQL_TRANSACTIONS);
     }
 
     @Override
     public List<Transaction> getTransactionsForDayBook(DayBook dayBook) {
         log.trace(Constants.LOG_CALLED);
-        return getTransactions("SELECT * FROM journal WHERE daybook_id=?",
+        return getTransactions(forDayBook(SQL_TRANSACTIONS_FOR_DAYBOOK, dayBook),
             String.valueOf(dayBook.getId()));
     }
 
     @Override
     public List<Transaction> getTransactionForAccountInDayBook(Account account, DayBook dayBook) {
         log.trace(Constants.LOG_CALLED);
-        return getTransactions("SELECT * FROM journal WHERE daybook_id=?",
-            account, String.valueOf(dayBook.getId()));
+        return getTransactions(forDayBook(SQL_TRANSACTIONS_FOR_ACCOUNT_IN_DAYBOOK, dayBook),
+            String.valueOf(account.getId()), String.valueOf(dayBook.getId()));
+    }
+
+    @Override
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        log.trace(Constants.LOG_CALLED);
+        checkDateRange(from, to);
+        return getTransactions(SQL_TRANSACTIONS_BETWEEN, from.toString(), to.toString());
+    }
+
+    @Override
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to,
+        Account account) {
+        log.trace(Constants.LOG_CALLED);
+        checkDateRange(from, to);
+        checkNotNull(account, "The 'account' parameter is null!");
+        return getTransactions(SQL_TRANSACTIONS_FOR_ACCOUNT_BETWEEN,
+            Integer.valueOf(account.getId()), from.toString(), to.toString());
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactions() {
+        log.trace(Constants.LOG_CALLED);
+        return streamTransactions(SQL_TRANSACTIONS);
+    }
+
+    @Override
+    public Stream<Transaction> streamTransactionsForDayBook(DayBook dayBook) {
+        log.trace(Constants.LOG_CALLED);
+        return streamTransactions(forDayBook(SQL_TRANSACTIONS_FOR_DAYBOOK, dayBook),
+            Integer.valueOf(dayBook.getId()));
+    }
+
+    @Override
+    public TransactionPage getTransactionPage(int pageSize, String continuationToken) {
+        log.trace(Constants.LOG_CALLED);
+        return getTransactionPage(SQL_PAGE, SQL_NEXT_PAGE, pageSize, continuationToken);
+    }
+
+    @Override
+    public TransactionPage getTransactionPageForDayBook(DayBook dayBook, int pageSize,
+        String continuationToken) {
+        log.trace(Constants.LOG_CALLED);
+        return getTransactionPage(forDayBook(SQL_PAGE_FOR_DAYBOOK, dayBook),
+            forDayBook(SQL_NEXT_PAGE_FOR_DAYBOOK, dayBook), pageSize, continuationToken,
+            Integer.valueOf(dayBook.getId()));
+    }
+
+    @Override
+    public TransactionPage getTransactionPageForAccountInDayBook(Account account, DayBook dayBook,
+        int pageSize, String continuationToken) {
+        log.trace(Constants.LOG_CALLED);
+        return getTransactionPage(forDayBook(SQL_PAGE_FOR_ACCOUNT_IN_DAYBOOK, dayBook),
+            forDayBook(SQL_NEXT_PAGE_FOR_ACCOUNT_IN_DAYBOOK, dayBook), pageSize,
+            continuationToken,
+            Integer.valueOf(account.getId()), Integer.valueOf(dayBook.getId()));
+    }
+
+    /**
+     * Picks the query for a day book. When periods have been moved into files of their own,
+     * the unqualified {@code journal} and {@code ledger} of a read connection are views over
+     * every file, and a page of the views sorts all the matching rows of every file. The day
+     * books of the periods still in the main database are therefore read from {@code main}.
+     * @param sql one of the day book queries
+     * @param dayBook the {@code DayBook}
+     * @return the query, or its {@code main} form
+     */
+    private String forDayBook(String sql, DayBook dayBook) {
+        if (!this.shards.isEnabled()
+            || this.shards.getShardedPeriods().contains(Integer.valueOf(dayBook.getPeriodId()))) {
+            return sql;
+        }
+        return IN_MAIN_DATABASE.get(sql);
     }
 
     /**
-     * Returns a List of {@code Transaction} object for a particular {@code Account} and within
-     * a particular {@code DayBook}.
-     * @param sql The SQL to use to lookup all the transaction for a particular
-     * @param account The account object for which to narrow the results.
+     * Points the {@code journal} and {@code ledger} of a query at the tables of the main
+     * database, keeping their names as aliases so that the column references do not change.
+     */
+    static String inMainDatabase(String sql) {
+        return sql.replace("FROM journal", "FROM main.journal AS journal")
+            .replace("JOIN ledger ", "JOIN main.ledger AS ledger ")
+            .replace("FROM ledger ", "FROM main.ledger AS ledger ");
+    }
+
+    /**
+     * Loads the journal and ledger rows in a single joined query and stitches them into
+     * {@code Transaction} objects in memory.
+     * @param sql a query based on {@link #SQL_JOURNAL_WITH_LEDGER} ordered by journal
      * @param args Args require by the SQL.
      * @return a List
      */
-    private List<Transaction> getTransactions(String sql, Account account, String... args) {
+    private List<Transaction> getTransactions(String sql, Object... args) {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> txResults = executeSqlAndReturnList(sql, args);
-            List<Transaction> list = new ArrayList<>(txResults.size());
-
-            for (Map<Object, Object> row : txResults) {
-                Optional<Transaction> entry = Optional.ofNullable(
-                    this.factory.buildTransactionObject(row));
-                if (entry.isPresent()) {
-                    Transaction tx = entry.get();
-                    List<LedgerEntry> ledgerEntries = getLedgerEntriesForJournalId(tx.getId());
-                    for (LedgerEntry le : ledgerEntries) {
-                        if (le.getAccountId() == account.getId()) {
-                            tx.setLedgerEntries(getLedgerEntriesForJournalId(tx.getId()));
-                            list.add(tx);
-                            break;
-                        }
-                    }
-                }
-            }
-
-            return list;
+            return executeQuery(sql, new TransactionAssembler(this.factory)::assemble, args);
         } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
     }
 
-    private List<Transaction> getTransactions(String sql, String... args) {
+    /**
+     * Opens a cursor over a joined query and stitches the rows into {@code Transaction} objects
+     * as the stream is consumed.
+     * @param sql a query based on {@link #SQL_JOURNAL_WITH_LEDGER} ordered by journal
+     * @param args Args require by the SQL.
+     * @return a Stream which must be closed
+     */
+    private Stream<Transaction> streamTransactions(String sql, Object... args) {
         log.trace(Constants.LOG_CALLED);
 
         try {
-            List<Map<Object, Object>> txResults = executeSqlAndReturnList(sql, args);
-            List<Transaction> list = new ArrayList<>(txResults.size());
-
-            for (Map<Object, Object> row : txResults) {
-                Optional<Transaction> entry = Optional.ofNullable(
-                    this.factory.buildTransactionObject(row));
-                if (entry.isPresent()) {
-                    Transaction tx = entry.get();
-                    tx.setLedgerEntries(getLedgerEntriesForJournalId(tx.getId()));
-                    list.add(tx);
-                }
-            }
-
-            return list;
-        } catch (SQLException | ValidationException e) {
+            return executeQueryForStream(sql, new TransactionAssembler(this.factory)::next, args);
+        } catch (SQLException e) {
             throw new DataAccessException(e);
         }
     }
 
-    private List<LedgerEntry> getLedgerEntriesForJournalId(int journalId)
-        throws SQLException, ValidationException {
-        log.trace(Constants.LOG_CALLED);
-
-        List<Map<Object, Object>> results = executeSqlAndReturnList(
-            "SELECT * FROM ledger WHERE journal_id=?", String.valueOf(journalId));
-        if (results.size() < 2) {
-            throw new AssertionError("The jounal_id [" + journalId + "] must have a minimum of 2"
-                + " entries in the ledger, found only [" + results.size() + "]");
-        }
+    /**
+     * Runs a paged query. The filter arguments come first, then the seek arguments of the
+     * continuation token, if any, and finally the limit.
+     * @param firstSql the query for the first page
+     * @param nextSql the query for the following pages
+     * @param pageSize the number of transactions per page
+     * @param continuationToken the token of the previous page, or {@code null}
+     * @param filter the arguments of the filter
+     * @return the page
+     */
+    private TransactionPage getTransactionPage(String firstSql, String nextSql, int pageSize,
+        String continuationToken, Object... filter) {
+        checkArgument(pageSize > 0, "The 'pageSize' parameter must be positive");
 
-        List<LedgerEntry> entries = new ArrayList<>();
-        for (Map<Object, Object> row : results) {
-            entries.add(this.factory.buildLedgerEntryObject(row));
+        List<Object> args = new ArrayList<>(Arrays.asList(filter));
+        String sql = firstSql;
+        if (continuationToken != null) {
+            ContinuationToken token = ContinuationToken.decode(continuationToken);
+            args.add(token.getDate());
+            args.add(token.getDate());
+            args.add(Integer.valueOf(token.getId()));
+            sql = nextSql;
         }
+        args.add(Integer.valueOf(pageSize + 1));
 
-        return entries;
-    }
-
-    private int createLedgerEntry(Connection conn, int journalId, int accountId, Money amount) {
-        log.trace(Constants.LOG_CALLED);
-        int id = 0;
-        try (PreparedStatement stmt = conn.prepareStatement(
-            "INSERT INTO ledger(journal_id,account_id,amount) VALUES(?,?,?)")) {
-            stmt.setObject(1, Integer.valueOf(journalId));
-            stmt.setObject(2, Integer.valueOf(accountId));
-            stmt.setObject(3, amount.toUnscaledInteger());
-            stmt.executeUpdate();
-            try (ResultSet rset = stmt.getGeneratedKeys()) {
-                id = getRowId(resultSetToList(rset));
-            }
-        } catch (SQLException e) {
-            rollbackTransaction(conn);
+        try {
+            return executeQuery(sql, new TransactionPageReader(this.factory, pageSize),
+                args.toArray());
+        } catch (SQLException | ValidationException e) {
             throw new DataAccessException(e);
         }
-        return id;
     }
 
-    private int createJournalEntry(Connection conn,
-        LocalDate timestamp, String narrative, String reference, int daybookId) {
-        log.trace(Constants.LOG_CALLED);
-        int journalId = 0;
-
-        try (PreparedStatement stmt = conn.prepareStatement(
-            "INSERT INTO journal(date,ref,narrative,daybook_id) VALUES(?,?,?,?)")) {
-            stmt.setObject(1, timestamp.toString());
-            stmt.setObject(2, reference);
-            stmt.setObject(3, narrative);
-            stmt.setObject(4, daybookId);
-            stmt.executeUpdate();
-            try (ResultSet rset = stmt.getGeneratedKeys()) {
-                journalId = getRowId(resultSetToList(rset));
-            }
-        } catch (SQLException e) {
-            rollbackTransaction(conn);
-            throw new DataAccessException(e);
-        }
+    /**
+     * Dates are stored as {@code LocalDate.toString()}, which only sorts in date order for
+     * four digit years.
+     * @param from the first date
+     * @param to the last date
+     */
+    private static void checkDateRange(LocalDate from, LocalDate to) {
+        checkNotNull(from, "The 'from' parameter is null!");
+        checkNotNull(to, "The 'to' parameter is null!");
+        checkArgument(!to.isBefore(from), "The 'to' date is before the 'from' date");
+        checkArgument(from.getYear() >= 0 && to.getYear() <= 9999,
+            "The dates must be between the years 0 and 9999");
+    }
 
-        return journalId;
+    /**
+     * Builds a paged query. The inner query picks the journals of the page, walking an index in
+     * {@code date DESC, id DESC} order; only their ledger rows are then joined.
+     * @param where the {@code WHERE} clause of the inner query, or an empty string
+     * @return the SQL
+     */
+    private static String pageQuery(String where) {
+        return "SELECT page.id AS id, page.date AS date, page.ref AS ref, "
+            + "page.narrative AS narrative, page.daybook_id AS daybook_id, "
+            + "ledger.journal_id AS journal_id, ledger.account_id AS account_id, "
+            + "ledger.amount AS amount FROM (SELECT id, date, ref, narrative, daybook_id "
+            + "FROM journal" + where + " ORDER BY date DESC, id DESC LIMIT ?) AS page "
+            + "INNER JOIN ledger ON ledger.journal_id = page.id "
+            + "ORDER BY page.date DESC, page.id DESC";
     }
 }
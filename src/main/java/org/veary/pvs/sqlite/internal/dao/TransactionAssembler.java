@@ -0,0 +1,156 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.LedgerEntry;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.model.Transaction;
+
+/**
+ * Stitches the rows of a {@code journal INNER JOIN ledger} query back into {@code Transaction}
+ * objects, each carrying its {@code LedgerEntry} list.
+ *
+ * <p>The rows must be ordered so that all the ledger rows of a journal are contiguous, for
+ * example {@code ORDER BY journal.id}. Not thread safe; use one instance per query.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class TransactionAssembler {
+
+    private static final int MINIMUM_LEDGER_ENTRIES = 2;
+
+    private final RowMapper<Transaction> journalMapper;
+    private final RowMapper<LedgerEntry> ledgerMapper;
+
+    private int idColumn;
+    private Transaction current;
+    private int currentId;
+    private List<LedgerEntry> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param factory the {@link ModelFactory} used to build the model objects
+     */
+    TransactionAssembler(ModelFactory factory) {
+        this.journalMapper = ModelRowMapper.transaction(factory);
+        this.ledgerMapper = ModelRowMapper.ledgerEntry(factory);
+    }
+
+    /**
+     * Adds the current joined journal/ledger row.
+     *
+     * @param rset a {@code ResultSet} positioned on a row containing the journal columns and
+     *        the ledger columns
+     * @return the previous {@code Transaction} if this row starts a new journal, otherwise
+     *         {@code null}
+     * @throws SQLException if there is a problem accessing the {@code ResultSet}
+     * @throws ValidationException if the row cannot be converted into a model object
+     */
+    Transaction add(ResultSet rset) throws SQLException, ValidationException {
+        if (this.idColumn == 0) {
+            this.idColumn = rset.findColumn("id");
+        }
+        int journalId = rset.getInt(this.idColumn);
+        Transaction completed = null;
+
+        if (this.current == null || this.currentId != journalId) {
+            completed = flush();
+            this.current = this.journalMapper.mapRow(rset);
+            this.currentId = journalId;
+            this.entries = new ArrayList<>(MINIMUM_LEDGER_ENTRIES);
+        }
+
+        this.entries.add(this.ledgerMapper.mapRow(rset));
+        return completed;
+    }
+
+    /**
+     * Completes the journal currently being assembled.
+     *
+     * @return the last {@code Transaction}, or {@code null} if there is none
+     */
+    Transaction flush() {
+        if (this.current == null) {
+            return null;
+        }
+
+        if (this.entries.size() < MINIMUM_LEDGER_ENTRIES) {
+            throw new AssertionError("The journal_id [" + this.currentId
+                + "] must have a minimum of 2 entries in the ledger, found only ["
+                + this.entries.size() + "]");
+        }
+
+        Transaction completed = this.current;
+        completed.setLedgerEntries(this.entries);
+        this.current = null;
+        this.entries = null;
+        return completed;
+    }
+
+    /**
+     * Reads rows until the next {@code Transaction} is complete.
+     *
+     * @param rset the joined rows, positioned before the next unread row
+     * @return the next {@code Transaction}, or {@code null} once there are no more rows
+     * @throws SQLException if there is a problem accessing the {@code ResultSet}
+     * @throws ValidationException if a row cannot be converted into a model object
+     */
+    Transaction next(ResultSet rset) throws SQLException, ValidationException {
+        while (rset.next()) {
+            Transaction tx = add(rset);
+            if (tx != null) {
+                return tx;
+            }
+        }
+        return flush();
+    }
+
+    /**
+     * Assembles all the remaining rows of the {@code ResultSet}.
+     *
+     * @param rset the joined rows
+     * @return {@code List<Transaction>}, cannot be {@code null}
+     * @throws SQLException if there is a problem accessing the {@code ResultSet}
+     * @throws ValidationException if a row cannot be converted into a model object
+     */
+    List<Transaction> assemble(ResultSet rset) throws SQLException, ValidationException {
+        List<Transaction> list = new ArrayList<>();
+
+        Transaction tx;
+        while ((tx = next(rset)) != null) {
+            list.add(tx);
+        }
+
+        return list;
+    }
+}
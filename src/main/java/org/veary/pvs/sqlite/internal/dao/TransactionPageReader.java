@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import org.veary.pvs.exceptions.ValidationException;
+import org.veary.pvs.model.ModelFactory;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.TransactionPage;
+
+/**
+ * Assembles a {@link TransactionPage} from a paged journal/ledger query. The query returns the
+ * ledger rows of up to {@code pageSize + 1} journals; the extra journal only shows that there
+ * is a next page and is not assembled. By default the next page token is the
+ * {@link ContinuationToken} of the last journal on the page.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class TransactionPageReader implements ResultSetHandler<TransactionPage> {
+
+    private final ModelFactory factory;
+    private final int pageSize;
+    private final BiFunction<String, Integer, String> nextToken;
+
+    /**
+     * Constructor.
+     *
+     * @param factory the {@link ModelFactory} used to build the model objects
+     * @param pageSize the number of transactions per page
+     */
+    TransactionPageReader(ModelFactory factory, int pageSize) {
+        this(factory, pageSize, (date, id) -> new ContinuationToken(date, id.intValue()).encode());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param factory the {@link ModelFactory} used to build the model objects
+     * @param pageSize the number of transactions per page
+     * @param nextToken builds the next page token from the date and id of the last journal
+     */
+    TransactionPageReader(ModelFactory factory, int pageSize,
+        BiFunction<String, Integer, String> nextToken) {
+        this.factory = factory;
+        this.pageSize = pageSize;
+        this.nextToken = nextToken;
+    }
+
+    @Override
+    public TransactionPage handle(ResultSet rset) throws SQLException, ValidationException {
+        TransactionAssembler assembler = new TransactionAssembler(this.factory);
+        List<Transaction> list = new ArrayList<>(this.pageSize);
+
+        int idColumn = 0;
+        int dateColumn = 0;
+        int journals = 0;
+        int lastId = 0;
+        String lastDate = null;
+        boolean more = false;
+
+        while (rset.next()) {
+            if (idColumn == 0) {
+                idColumn = rset.findColumn("id");
+                dateColumn = rset.findColumn("date");
+            }
+
+            int id = rset.getInt(idColumn);
+            if (journals == 0 || id != lastId) {
+                if (journals == this.pageSize) {
+                    more = true;
+                    break;
+                }
+                journals++;
+                lastId = id;
+                lastDate = rset.getString(dateColumn);
+            }
+
+            Transaction tx = assembler.add(rset);
+            if (tx != null) {
+                list.add(tx);
+            }
+        }
+
+        Transaction last = assembler.flush();
+        if (last != null) {
+            list.add(last);
+        }
+
+        return new TransactionPage(list,
+            more ? this.nextToken.apply(lastDate, Integer.valueOf(lastId)) : null);
+    }
+}
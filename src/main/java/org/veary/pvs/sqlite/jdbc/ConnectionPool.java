@@ -0,0 +1,257 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bounded pool of physical connections. Borrowed connections are proxies whose
+ * {@code close()} hands the physical connection back to the pool. Each physical connection
+ * keeps its own {@link StatementCache} for as long as it is open.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(ConnectionPool.class);
+
+    /**
+     * Opens a new physical connection for the pool.
+     */
+    @FunctionalInterface
+    interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final String name;
+    private final int size;
+    private final long timeoutMillis;
+    private final ConnectionFactory factory;
+    private final int statementCacheSize;
+    private final StatementCacheStatistics statistics;
+    private final BlockingQueue<Connection> idle;
+    private final Map<Connection, StatementCache> statements = new ConcurrentHashMap<>();
+    private final Map<Connection, Integer> generations = new ConcurrentHashMap<>();
+    private final AtomicInteger opened = new AtomicInteger();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = this.lock.newCondition();
+    private volatile boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param name the name of the pool, used in messages
+     * @param size the maximum number of physical connections
+     * @param timeoutMillis how long {@link #borrow()} waits for a free connection
+     * @param factory opens the physical connections
+     * @param statementCacheSize the number of statements cached per connection
+     * @param statistics the statement cache counters
+     */
+    ConnectionPool(String name, int size, long timeoutMillis, ConnectionFactory factory,
+        int statementCacheSize, StatementCacheStatistics statistics) {
+        this.name = name;
+        this.size = size;
+        this.timeoutMillis = timeoutMillis;
+        this.factory = factory;
+        this.statementCacheSize = statementCacheSize;
+        this.statistics = statistics;
+        this.idle = new ArrayBlockingQueue<>(size);
+    }
+
+    /**
+     * Borrows a connection, opening a new one if the pool has not reached its size. A caller
+     * that finds the pool exhausted waits until a connection is returned or discarded, then
+     * tries again, until the timeout has elapsed.
+     *
+     * @return a pooled {@code Connection}; closing it returns it to the pool
+     * @throws SQLException if no connection became free within the timeout, or a new connection
+     *     could not be opened
+     */
+    Connection borrow() throws SQLException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.timeoutMillis);
+
+        while (true) {
+            if (this.closed) {
+                throw new SQLException("The connection pool [" + this.name + "] is closed");
+            }
+
+            Connection physical = this.idle.poll();
+            if (physical == null) {
+                physical = openIfBelowLimit();
+            }
+            if (physical != null) {
+                return wrap(physical);
+            }
+
+            awaitAvailable(deadline);
+        }
+    }
+
+    /**
+     * Hands a physical connection back to the pool.
+     *
+     * @param physical the physical connection
+     * @param broken {@code true} if the connection must not be reused
+     */
+    void release(Connection physical, boolean broken) {
+        if (this.closed || broken || isStale(physical) || !this.idle.offer(physical)) {
+            discard(physical);
+        } else {
+            signalAvailable();
+        }
+    }
+
+    /**
+     * @return the number of physical connections currently open
+     */
+    int getOpenCount() {
+        return this.opened.get();
+    }
+
+    /**
+     * Retires every open physical connection, so that connections borrowed from now on are
+     * opened afresh by the factory. Idle connections are closed at once; connections in use are
+     * closed when they are returned.
+     */
+    void refresh() {
+        this.generation.incrementAndGet();
+        Connection physical;
+        while ((physical = this.idle.poll()) != null) {
+            discard(physical);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        Connection physical;
+        while ((physical = this.idle.poll()) != null) {
+            discard(physical);
+        }
+        signalAvailable();
+    }
+
+    /**
+     * Waits until a connection may have become free: one was returned to the idle queue, or one
+     * was discarded and the pool is below its size again. The state is checked under the lock
+     * that {@link #signalAvailable()} takes, so a signal cannot be missed.
+     */
+    private void awaitAvailable(long deadline) throws SQLException {
+        this.lock.lock();
+        try {
+            if (this.closed || !this.idle.isEmpty() || this.opened.get() < this.size) {
+                return;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new SQLTimeoutException("Timed out after " + this.timeoutMillis
+                    + "ms waiting for a connection from pool [" + this.name + "]");
+            }
+            this.available.awaitNanos(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a connection from pool ["
+                + this.name + "]", e);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void signalAvailable() {
+        this.lock.lock();
+        try {
+            this.available.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private Connection openIfBelowLimit() throws SQLException {
+        while (true) {
+            int count = this.opened.get();
+            if (count >= this.size) {
+                return null;
+            }
+            if (this.opened.compareAndSet(count, count + 1)) {
+                break;
+            }
+        }
+
+        Integer current = Integer.valueOf(this.generation.get());
+        try {
+            Connection physical = this.factory.open();
+            this.statements.put(physical, new StatementCache(physical, this.statementCacheSize,
+                this.statistics));
+            this.generations.put(physical, current);
+            return physical;
+        } catch (SQLException | RuntimeException e) {
+            this.opened.decrementAndGet();
+            signalAvailable();
+            throw e;
+        }
+    }
+
+    private Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new PooledConnection(this, physical, this.statements.get(physical)));
+    }
+
+    private boolean isStale(Connection physical) {
+        Integer openedIn = this.generations.get(physical);
+        return openedIn == null || openedIn.intValue() != this.generation.get();
+    }
+
+    private void discard(Connection physical) {
+        this.opened.decrementAndGet();
+        this.generations.remove(physical);
+        StatementCache cache = this.statements.remove(physical);
+        if (cache != null) {
+            cache.close();
+        }
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            log.error("Unexpected error (ignored) {}", e); //$NON-NLS-1$
+        }
+        signalAvailable();
+    }
+}
@@ -69,12 +69,18 @@ final class DatabaseManagerImpl implements DatabaseManager {
 
     @Override
     public void createTables() {
+        enableIncrementalVacuum();
         createAccountTable();
         createPeriodTable();
         createJournalTable();
         createPostingTable();
         createDayBookTable();
         createConfigTable();
+        createBalanceTable();
+        createPeriodShardTable();
+        createPeriodCloseTables();
+        createIndexes();
+        createSearchIndex();
 
         try {
             insertDefaultData();
@@ -85,6 +91,11 @@ final class DatabaseManagerImpl implements DatabaseManager {
 
     @Override
     public void dropTables() {
+        sqliteExecute("DROP TABLE IF EXISTS balance"); //$NON-NLS-1$
+        sqliteExecute("DROP TABLE IF EXISTS period_shard"); //$NON-NLS-1$
+        sqliteExecute("DROP TABLE IF EXISTS period_closing_balance"); //$NON-NLS-1$
+        sqliteExecute("DROP TABLE IF EXISTS period_close"); //$NON-NLS-1$
+        sqliteExecute("DROP TABLE IF EXISTS journal_fts"); //$NON-NLS-1$
         sqliteExecute("DROP TABLE IF EXISTS account"); //$NON-NLS-1$
         sqliteExecute("DROP TABLE IF EXISTS daybook"); //$NON-NLS-1$
         sqliteExecute("DROP TABLE IF EXISTS ledger"); //$NON-NLS-1$
@@ -93,6 +104,26 @@ final class DatabaseManagerImpl implements DatabaseManager {
         sqliteExecute("DROP TABLE IF EXISTS config"); //$NON-NLS-1$
     }
 
+    /**
+     * Creates a new database with {@code auto_vacuum=INCREMENTAL}, so that the
+     * {@code MaintenanceService} can release the pages freed by deletions. The mode only
+     * changes with a {@code VACUUM}, which is instant while the database has no tables. An
+     * existing database is left as it is.
+     */
+    private void enableIncrementalVacuum() {
+        if (sqliteExists("SELECT 1 FROM sqlite_master")) { //$NON-NLS-1$
+            return;
+        }
+        try (Connection conn = manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA auto_vacuum=INCREMENTAL"); //$NON-NLS-1$
+                stmt.execute("VACUUM"); //$NON-NLS-1$
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
     private void createDayBookTable() {
         StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS daybook ("); //$NON-NLS-1$
         sb.append(SQL_ID);
@@ -145,6 +176,137 @@ final class DatabaseManagerImpl implements DatabaseManager {
         sqliteExecute(sb.toString());
     }
 
+    /**
+     * Creates the running balance of each account in each daybook, kept up to date by every
+     * posting. A database created before the table existed is filled from the ledger.
+     */
+    private void createBalanceTable() {
+        StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS balance ("); //$NON-NLS-1$
+        sb.append("account_id INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("daybook_id INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("amount INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("PRIMARY KEY(account_id, daybook_id), "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(account_id) REFERENCES account(id) "); //$NON-NLS-1$
+        sb.append("ON UPDATE RESTRICT ON DELETE RESTRICT, "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(daybook_id) REFERENCES daybook(id) "); //$NON-NLS-1$
+        sb.append(SQL_UPDATE);
+        sb.append(" WITHOUT ROWID"); //$NON-NLS-1$
+        sqliteExecute(sb.toString());
+
+        sqliteExecute("INSERT INTO balance(account_id, daybook_id, amount) " //$NON-NLS-1$
+            + "SELECT ledger.account_id, journal.daybook_id, SUM(ledger.amount) " //$NON-NLS-1$
+            + "FROM ledger INNER JOIN journal ON journal.id = ledger.journal_id " //$NON-NLS-1$
+            + "WHERE NOT EXISTS (SELECT 1 FROM balance) " //$NON-NLS-1$
+            + "GROUP BY ledger.account_id, journal.daybook_id"); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates the list of the periods whose journals and ledger rows have been moved into a
+     * file of their own by the {@code PeriodShardManager}.
+     */
+    private void createPeriodShardTable() {
+        StringBuilder sb = new StringBuilder(
+            "CREATE TABLE IF NOT EXISTS period_shard ("); //$NON-NLS-1$
+        sb.append("period_id INTEGER NOT NULL PRIMARY KEY, "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(period_id) REFERENCES period(id) "); //$NON-NLS-1$
+        sb.append(SQL_UPDATE);
+        sqliteExecute(sb.toString());
+    }
+
+    /**
+     * Creates the record of the closed periods and their closing balance per account. The
+     * trigger rejects any journal for a day book of a closed period.
+     */
+    private void createPeriodCloseTables() {
+        StringBuilder sb = new StringBuilder(
+            "CREATE TABLE IF NOT EXISTS period_close ("); //$NON-NLS-1$
+        sb.append("period_id INTEGER NOT NULL PRIMARY KEY, "); //$NON-NLS-1$
+        sb.append("closed_on TEXT NOT NULL, "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(period_id) REFERENCES period(id) "); //$NON-NLS-1$
+        sb.append(SQL_UPDATE);
+        sqliteExecute(sb.toString());
+
+        sb = new StringBuilder("CREATE TABLE IF NOT EXISTS period_closing_balance ("); //$NON-NLS-1$
+        sb.append("period_id INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("account_id INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("amount INTEGER NOT NULL, "); //$NON-NLS-1$
+        sb.append("PRIMARY KEY(period_id, account_id), "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(period_id) REFERENCES period_close(period_id) "); //$NON-NLS-1$
+        sb.append("ON UPDATE RESTRICT ON DELETE RESTRICT, "); //$NON-NLS-1$
+        sb.append("FOREIGN KEY(account_id) REFERENCES account(id) "); //$NON-NLS-1$
+        sb.append(SQL_UPDATE);
+        sb.append(" WITHOUT ROWID"); //$NON-NLS-1$
+        sqliteExecute(sb.toString());
+
+        sqliteExecute("CREATE TRIGGER IF NOT EXISTS journal_period_closed " //$NON-NLS-1$
+            + "BEFORE INSERT ON journal WHEN EXISTS (SELECT 1 FROM daybook " //$NON-NLS-1$
+            + "INNER JOIN period_close ON period_close.period_id = daybook.period_id " //$NON-NLS-1$
+            + "WHERE daybook.id = new.daybook_id) BEGIN " //$NON-NLS-1$
+            + "SELECT RAISE(ABORT, 'The period of the day book is closed'); END"); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates the secondary indexes used by the data access objects. The ledger indexes carry
+     * every ledger column so that ledger lookups, by journal or by account, never have to visit
+     * the table itself. The journal indexes order the journal, and each daybook, by date for the
+     * paged queries. The daybook index finds the daybooks of a period for the period balances.
+     * The balance table is keyed by account; its second index serves the balances of a daybook.
+     */
+    private void createIndexes() {
+        sqliteExecute("CREATE INDEX IF NOT EXISTS ledger_journal_idx " //$NON-NLS-1$
+            + "ON ledger(journal_id, account_id, amount)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS ledger_account_idx " //$NON-NLS-1$
+            + "ON ledger(account_id, journal_id, amount)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS journal_daybook_date_idx " //$NON-NLS-1$
+            + "ON journal(daybook_id, date)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS journal_date_idx " //$NON-NLS-1$
+            + "ON journal(date)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS journal_ref_idx " //$NON-NLS-1$
+            + "ON journal(ref)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS daybook_period_idx " //$NON-NLS-1$
+            + "ON daybook(period_id)"); //$NON-NLS-1$
+        sqliteExecute("CREATE INDEX IF NOT EXISTS balance_daybook_idx " //$NON-NLS-1$
+            + "ON balance(daybook_id, account_id, amount)"); //$NON-NLS-1$
+    }
+
+    /**
+     * Creates the FTS5 full-text index over the narrative and reference of each journal. It is
+     * a contentless table: it holds the index but not the text, and does not read
+     * {@code journal}, so the entries of the journals moved into a period file outlive their
+     * rows in the main database. The triggers keep the index in step with every insert, update
+     * and delete, except the deletes of a period move, which are recognised by the period being
+     * listed in {@code period_shard} before its rows are deleted. When the index is first added
+     * to an existing database it is built from the journal rows already there.
+     */
+    private void createSearchIndex() {
+        boolean exists = sqliteExists("SELECT 1 FROM sqlite_master " //$NON-NLS-1$
+            + "WHERE type='table' AND name='journal_fts'"); //$NON-NLS-1$
+
+        sqliteExecute("CREATE VIRTUAL TABLE IF NOT EXISTS journal_fts USING fts5(" //$NON-NLS-1$
+            + "narrative, ref, content='')"); //$NON-NLS-1$
+        sqliteExecute("CREATE TRIGGER IF NOT EXISTS journal_fts_insert " //$NON-NLS-1$
+            + "AFTER INSERT ON journal BEGIN " //$NON-NLS-1$
+            + "INSERT INTO journal_fts(rowid, narrative, ref) " //$NON-NLS-1$
+            + "VALUES (new.id, new.narrative, new.ref); END"); //$NON-NLS-1$
+        sqliteExecute("CREATE TRIGGER IF NOT EXISTS journal_fts_delete " //$NON-NLS-1$
+            + "AFTER DELETE ON journal WHEN old.daybook_id NOT IN " //$NON-NLS-1$
+            + "(SELECT daybook.id FROM daybook INNER JOIN period_shard " //$NON-NLS-1$
+            + "ON period_shard.period_id = daybook.period_id) BEGIN " //$NON-NLS-1$
+            + "INSERT INTO journal_fts(journal_fts, rowid, narrative, ref) " //$NON-NLS-1$
+            + "VALUES ('delete', old.id, old.narrative, old.ref); END"); //$NON-NLS-1$
+        sqliteExecute("CREATE TRIGGER IF NOT EXISTS journal_fts_update " //$NON-NLS-1$
+            + "AFTER UPDATE ON journal BEGIN " //$NON-NLS-1$
+            + "INSERT INTO journal_fts(journal_fts, rowid, narrative, ref) " //$NON-NLS-1$
+            + "VALUES ('delete', old.id, old.narrative, old.ref); " //$NON-NLS-1$
+            + "INSERT INTO journal_fts(rowid, narrative, ref) " //$NON-NLS-1$
+            + "VALUES (new.id, new.narrative, new.ref); END"); //$NON-NLS-1$
+
+        if (!exists) {
+            sqliteExecute("INSERT INTO journal_fts(rowid, narrative, ref) " //$NON-NLS-1$
+                + "SELECT id, narrative, ref FROM journal"); //$NON-NLS-1$
+        }
+    }
+
     private void createConfigTable() {
         StringBuilder sb = new StringBuilder("CREATE TABLE IF NOT EXISTS config ("); //$NON-NLS-1$
         sb.append("current_daybook_id TEXT NOT NULL)");
@@ -186,6 +348,18 @@ final class DatabaseManagerImpl implements DatabaseManager {
         }
     }
 
+    private boolean sqliteExists(String sql) {
+        try (Connection conn = manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery(sql)) {
+                    return rset.next();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
     private boolean sqliteExecute(String sql) {
         try (Connection conn = manager.getConnection()) {
             try (Statement stmt = conn.createStatement()) {
@@ -0,0 +1,78 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+import com.google.inject.name.Named;
+
+import org.veary.pvs.sqlite.BackupService;
+import org.veary.pvs.sqlite.CacheStatistics;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.MaintenanceService;
+import org.veary.pvs.sqlite.PeriodShardManager;
+
+/**
+ * Alternative to {@link GuiceSqliteJdbcModule} for deployments without a JNDI
+ * {@code DataSource}. Binds the {@link ConnectionManager} to a pool of PRAGMA-tuned SQLite
+ * connections. The counters of the prepared statement caches are bound as
+ * {@code @Named(CacheStatistics.STATEMENT_CACHE) CacheStatistics}.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+public class GuiceSqlitePooledJdbcModule extends AbstractModule {
+
+    private final ConnectionPoolSettings settings;
+
+    /**
+     * Constructor.
+     *
+     * @param settings the {@link ConnectionPoolSettings} for the pool
+     */
+    public GuiceSqlitePooledJdbcModule(ConnectionPoolSettings settings) {
+        this.settings = checkNotNull(settings, "The 'settings' parameter is null!");
+    }
+
+    @Override
+    protected void configure() {
+        bind(ConnectionPoolSettings.class).toInstance(this.settings);
+        bind(ConnectionManager.class).to(SqliteConnectionManager.class);
+        bind(DatabaseManager.class).to(DatabaseManagerImpl.class);
+        bind(BackupService.class).to(SqliteBackupService.class);
+        bind(MaintenanceService.class).to(SqliteMaintenanceService.class);
+        bind(PeriodShardManager.class).to(SqlitePeriodShardManager.class);
+    }
+
+    @Provides
+    @Named(CacheStatistics.STATEMENT_CACHE)
+    CacheStatistics provideStatementCacheStatistics(SqliteConnectionManager manager) {
+        return manager.getStatementCacheStatistics();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The invocation handler behind a borrowed {@link Connection}. Every call is delegated to the
+ * physical connection except {@code close()}, which resets the connection and returns it to its
+ * {@link ConnectionPool}, and {@code prepareStatement(String)} and
+ * {@code prepareStatement(String, int)}, which are served by the {@link StatementCache} of the
+ * physical connection.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class PooledConnection implements InvocationHandler {
+
+    private final ConnectionPool pool;
+    private final Connection physical;
+    private final StatementCache statements;
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param pool the owning pool
+     * @param physical the physical connection
+     * @param statements the statement cache of the physical connection
+     */
+    PooledConnection(ConnectionPool pool, Connection physical, StatementCache statements) {
+        this.pool = pool;
+        this.physical = physical;
+        this.statements = statements;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close": //$NON-NLS-1$
+                release();
+                return null;
+            case "isClosed": //$NON-NLS-1$
+                return Boolean.valueOf(this.closed);
+            case "equals": //$NON-NLS-1$
+                return Boolean.valueOf(proxy == args[0]);
+            case "hashCode": //$NON-NLS-1$
+                return Integer.valueOf(System.identityHashCode(proxy));
+            case "toString": //$NON-NLS-1$
+                return "Pooled[" + this.physical + "]";
+            default:
+                break;
+        }
+
+        if (this.closed) {
+            throw new SQLException("The connection has been returned to the pool");
+        }
+
+        if (isCacheablePrepare(method)) {
+            int autoGeneratedKeys = args.length == 1 ? Statement.NO_GENERATED_KEYS
+                : ((Integer) args[1]).intValue();
+            return this.statements.prepare((Connection) proxy, (String) args[0],
+                autoGeneratedKeys);
+        }
+
+        try {
+            return method.invoke(this.physical, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void release() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+
+        this.statements.checkInAll();
+
+        boolean broken = false;
+        try {
+            if (!this.physical.getAutoCommit()) {
+                this.physical.rollback();
+                this.physical.setAutoCommit(true);
+            }
+            this.physical.clearWarnings();
+        } catch (SQLException e) {
+            broken = true;
+        }
+
+        this.pool.release(this.physical, broken);
+    }
+
+    private static boolean isCacheablePrepare(Method method) {
+        if (!"prepareStatement".equals(method.getName())) { //$NON-NLS-1$
+            return false;
+        }
+        Class<?>[] types = method.getParameterTypes();
+        return types.length == 1 || types.length == 2 && types[1] == int.class;
+    }
+}
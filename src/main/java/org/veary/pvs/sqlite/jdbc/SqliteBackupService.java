@@ -0,0 +1,281 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.core.DB;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.sqlite.BackupResult;
+import org.veary.pvs.sqlite.BackupService;
+import org.veary.pvs.sqlite.BackupSettings;
+import org.veary.pvs.sqlite.ConnectionManager;
+
+/**
+ * Package scoped concrete implementation of the {@link BackupService} interface. Both copies
+ * run on a read connection, so in single writer mode they never hold the write connection. The
+ * online backup is driven by the {@code org.sqlite} driver, which copies a fixed number of pages
+ * per step and reports to a {@link DB.ProgressObserver} in between; the throttling pause is
+ * taken in that callback.
+ *
+ * <p>Both copies only cover the main database. The period files are copied afterwards, taking
+ * the list of periods from the copy of the main database rather than the live one, so that the
+ * set agrees with the copy even if a period is moved while it runs. A period file is complete
+ * and read-only before it is listed, so a plain file copy of it is consistent.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class SqliteBackupService implements BackupService {
+
+    private static final Logger log = LogManager.getLogger(SqliteBackupService.class);
+
+    private final ConnectionManager manager;
+    private final BackupSettings settings;
+
+    /**
+     * Constructor.
+     *
+     * @param manager the {@link ConnectionManager} of the database to copy
+     * @param settings the {@link BackupSettings}
+     */
+    @Inject
+    protected SqliteBackupService(ConnectionManager manager, BackupSettings settings) {
+        this.manager = manager;
+        this.settings = settings;
+    }
+
+    @Override
+    public BackupResult backup(File destination, ProgressListener listener) {
+        log.trace(Constants.LOG_CALLED);
+        checkNotNull(destination, "The 'destination' parameter is null!");
+        checkNotNull(listener, "The 'listener' parameter is null!");
+
+        File partial = toPartialFile(destination);
+        Throttle throttle = new Throttle(listener);
+        long start = System.nanoTime();
+        List<File> periodFiles;
+        try (Connection conn = this.manager.getReadConnection()) {
+            Files.deleteIfExists(partial.toPath());
+            int rc = conn.unwrap(SQLiteConnection.class).getDatabase()
+                .backup("main", partial.getAbsolutePath(), throttle); //$NON-NLS-1$
+            if (rc != SQLiteErrorCode.SQLITE_OK.code) {
+                throw new DataAccessException("Backup to " + destination
+                    + " failed with SQLite error " + rc);
+            }
+            periodFiles = copyPeriodFiles(conn, partial, destination);
+            Files.move(partial.toPath(), destination.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException e) {
+            throw new DataAccessException(e);
+        }
+
+        return new BackupResult(destination, periodFiles, throttle.pageCount, throttle.restarts,
+            (System.nanoTime() - start) / 1000000);
+    }
+
+    @Override
+    public BackupResult snapshot(File destination) {
+        log.trace(Constants.LOG_CALLED);
+        checkNotNull(destination, "The 'destination' parameter is null!");
+
+        File partial = toPartialFile(destination);
+        long start = System.nanoTime();
+        int pageCount;
+        List<File> periodFiles;
+        try (Connection conn = this.manager.getReadConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                Files.deleteIfExists(partial.toPath());
+                pageCount = readPragma(stmt, "page_count"); //$NON-NLS-1$
+
+                // VACUUM INTO writes through the connection, which query_only forbids
+                boolean queryOnly = readPragma(stmt, "query_only") != 0; //$NON-NLS-1$
+                if (queryOnly) {
+                    stmt.execute("PRAGMA query_only=0"); //$NON-NLS-1$
+                }
+                try {
+                    stmt.execute("VACUUM INTO " + toSqlString(partial)); //$NON-NLS-1$
+                } finally {
+                    if (queryOnly) {
+                        stmt.execute("PRAGMA query_only=1"); //$NON-NLS-1$
+                    }
+                }
+            }
+            periodFiles = copyPeriodFiles(conn, partial, destination);
+            Files.move(partial.toPath(), destination.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (SQLException | IOException e) {
+            throw new DataAccessException(e);
+        }
+
+        return new BackupResult(destination, periodFiles, pageCount, 0,
+            (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Returns the directory holding the period files of a backup.
+     *
+     * @param destination the backup file
+     * @return the {@code -periods} directory next to it
+     */
+    static File toPeriodDirectory(File destination) {
+        return new File(destination.getAbsolutePath() + "-periods"); //$NON-NLS-1$
+    }
+
+    private static File toPartialFile(File destination) {
+        return new File(destination.getAbsolutePath() + ".part"); //$NON-NLS-1$
+    }
+
+    private static String toSqlString(File file) {
+        String path = file.getAbsolutePath().replace("'", "''"); //$NON-NLS-1$ //$NON-NLS-2$
+        return "'" + path + "'"; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Copies the period files listed in the copy of the main database into the period directory
+     * of the backup. The source of each is the file attached to the read connection which made
+     * the copy; a period moved after that connection was opened is not attached to it.
+     *
+     * @param conn the read connection which copied the main database
+     * @param partial the copy of the main database
+     * @param destination the backup file
+     * @return the period files written, in ascending order of period
+     */
+    private static List<File> copyPeriodFiles(Connection conn, File partial, File destination)
+        throws SQLException, IOException {
+        List<Integer> periods;
+        try (Connection copy = DriverManager.getConnection(
+            "jdbc:sqlite:" + partial.getAbsolutePath())) { //$NON-NLS-1$
+            periods = SqlitePeriodShardManager.readShardedPeriods(copy);
+        }
+        if (periods.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, String> attached = readAttachedFiles(conn);
+        File directory = toPeriodDirectory(destination);
+        Files.createDirectories(directory.toPath());
+        List<File> files = new ArrayList<>();
+        for (Integer id : periods) {
+            String source = attached.get(SqlitePeriodShardManager.toSchemaName(id.intValue()));
+            if (source == null) {
+                throw new DataAccessException("Period " + id + " was moved during the backup to "
+                    + destination + ", run the backup again");
+            }
+            File target = SqlitePeriodShardManager.toShardFile(directory.getPath(),
+                id.intValue());
+            File part = toPartialFile(target);
+            Files.deleteIfExists(part.toPath());
+            Files.copy(Paths.get(source), part.toPath());
+            Files.move(part.toPath(), target.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            files.add(target);
+        }
+        return files;
+    }
+
+    /**
+     * @return the file of each database attached to the connection, keyed by schema name
+     */
+    private static Map<String, String> readAttachedFiles(Connection conn) throws SQLException {
+        Map<String, String> files = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rset = stmt.executeQuery("PRAGMA database_list")) { //$NON-NLS-1$
+                while (rset.next()) {
+                    files.put(rset.getString(2), rset.getString(3));
+                }
+            }
+        }
+        return files;
+    }
+
+    private static int readPragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rset = stmt.executeQuery("PRAGMA " + name)) { //$NON-NLS-1$
+            return rset.next() ? rset.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Reports each step, counts the restarts and pauses between steps. A restart shows as the
+     * number of remaining pages going up.
+     */
+    private final class Throttle implements DB.ProgressObserver {
+
+        private final ProgressListener listener;
+        private int remaining = Integer.MAX_VALUE;
+        private int pageCount;
+        private int restarts;
+
+        Throttle(ProgressListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void progress(int remaining, int pageCount) {
+            if (remaining > this.remaining) {
+                this.restarts++;
+            }
+            this.remaining = remaining;
+            this.pageCount = pageCount;
+            this.listener.progress(remaining, pageCount);
+
+            long pause = SqliteBackupService.this.settings.getStepPauseMillis();
+            if (pause > 0 && remaining > 0
+                && this.restarts <= SqliteBackupService.this.settings.getMaxThrottledRestarts()
+                && !Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
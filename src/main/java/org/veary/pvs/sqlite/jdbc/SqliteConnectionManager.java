@@ -0,0 +1,228 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.sqlite.CacheStatistics;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+
+/**
+ * Package scoped concrete implementation of the {@link ConnectionManager} interface which owns a
+ * bounded pool of {@code org.sqlite} connections. Each connection is opened with the PRAGMAs
+ * given by the {@link ConnectionPoolSettings}. Used outside a container, where there is no JNDI
+ * {@code DataSource}.
+ *
+ * <p>In single writer mode there is one write connection, handed out by
+ * {@link #getConnection()}, and a pool of {@code query_only} connections handed out by
+ * {@link #getReadConnection()}. With {@code journal_mode=WAL} the readers keep reading the last
+ * committed state while the writer posts.
+ *
+ * <p>With period sharding enabled, each read connection attaches the file of every period moved
+ * by the {@link SqlitePeriodShardManager} and shadows {@code journal} and {@code ledger} with
+ * {@code TEMP} views over the main database and the period files.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class SqliteConnectionManager implements ConnectionManager, AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(SqliteConnectionManager.class);
+
+    private final ConnectionPoolSettings settings;
+    private final List<String> pragmas;
+    private final StatementCacheStatistics statistics = new StatementCacheStatistics();
+    private final ConnectionPool writers;
+    private final ConnectionPool readers;
+
+    /**
+     * Constructor.
+     * @param settings a {@link ConnectionPoolSettings} object.
+     */
+    @Inject
+    protected SqliteConnectionManager(ConnectionPoolSettings settings) {
+        this.settings = settings;
+        this.pragmas = buildPragmas(settings);
+
+        checkArgument(!settings.isPeriodSharding() || settings.isSingleWriter(),
+            "Period sharding requires read-only connections");
+
+        long timeout = settings.getAcquireTimeoutMillis();
+        int cacheSize = settings.getStatementCacheSize();
+        if (settings.isSingleWriter()) {
+            checkArgument("WAL".equalsIgnoreCase(settings.getJournalMode()), //$NON-NLS-1$
+                "Single writer mode requires journal_mode=WAL");
+            this.writers = new ConnectionPool("pvs-writer", 1, timeout, //$NON-NLS-1$
+                () -> open(false), cacheSize, this.statistics);
+            this.readers = new ConnectionPool("pvs-reader", //$NON-NLS-1$
+                settings.getReaderConnections(), timeout, () -> open(true), cacheSize,
+                this.statistics);
+        } else {
+            this.writers = new ConnectionPool("pvs", settings.getMaxConnections(), //$NON-NLS-1$
+                timeout, () -> open(false), cacheSize, this.statistics);
+            this.readers = this.writers;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return this.writers.borrow();
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        return this.readers.borrow();
+    }
+
+    /**
+     * @return the size of the pool of read-only connections in single writer mode, otherwise
+     *         the size of the shared pool
+     */
+    @Override
+    public int getReadConnectionLimit() {
+        return this.settings.isSingleWriter() ? this.settings.getReaderConnections()
+            : this.settings.getMaxConnections();
+    }
+
+    /**
+     * @return the counters of the prepared statement caches of all the pooled connections
+     */
+    CacheStatistics getStatementCacheStatistics() {
+        return this.statistics;
+    }
+
+    /**
+     * Retires the read connections, so that the next ones attach the current period files.
+     */
+    void refreshReaders() {
+        this.readers.refresh();
+    }
+
+    /**
+     * Closes the idle connections. Connections still in use are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        log.trace(Constants.LOG_CALLED);
+        this.writers.close();
+        if (this.readers != this.writers) {
+            this.readers.close();
+        }
+    }
+
+    private Connection open(boolean readOnly) throws SQLException {
+        log.trace(Constants.LOG_CALLED);
+        Connection conn = DriverManager.getConnection(this.settings.getUrl());
+
+        try (Statement stmt = conn.createStatement()) {
+            for (String pragma : this.pragmas) {
+                stmt.execute(pragma);
+            }
+            if (readOnly) {
+                if (this.settings.isPeriodSharding()) {
+                    attachPeriodShards(conn, stmt);
+                }
+                stmt.execute("PRAGMA query_only=1"); //$NON-NLS-1$
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+
+        return conn;
+    }
+
+    /**
+     * Attaches the period files and creates the {@code TEMP} views which take the place of the
+     * tables of the main database in unqualified names. Runs before {@code query_only}, which
+     * also forbids changes to the temporary schema.
+     *
+     * <p>SQLite pushes a {@code WHERE} on a view into each arm of the {@code UNION ALL}, so a
+     * lookup still seeks an index in every file. An {@code ORDER BY ... LIMIT} cannot be pushed
+     * down, though: the rows of every arm that match are collected and sorted before the limit
+     * applies, which makes a keyset page cost as much as the rest of the day book. The data
+     * access objects therefore query {@code main} directly for the day books of periods which
+     * have not been moved.
+     */
+    private void attachPeriodShards(Connection conn, Statement stmt) throws SQLException {
+        List<Integer> periods = SqlitePeriodShardManager.readShardedPeriods(conn);
+        if (periods.isEmpty()) {
+            return;
+        }
+        if (periods.size() > SqlitePeriodShardManager.MAX_ATTACHED) {
+            throw new SQLException("Cannot attach " + periods.size()
+                + " period files, SQLite attaches at most "
+                + SqlitePeriodShardManager.MAX_ATTACHED);
+        }
+
+        StringBuilder journal = new StringBuilder("CREATE TEMP VIEW journal AS ") //$NON-NLS-1$
+            .append(SqlitePeriodShardManager.SQL_JOURNAL_COLUMNS)
+            .append("main.journal"); //$NON-NLS-1$
+        StringBuilder ledger = new StringBuilder("CREATE TEMP VIEW ledger AS ") //$NON-NLS-1$
+            .append(SqlitePeriodShardManager.SQL_LEDGER_COLUMNS)
+            .append("main.ledger"); //$NON-NLS-1$
+        for (Integer id : periods) {
+            String schema = SqlitePeriodShardManager.toSchemaName(id.intValue());
+            File file = SqlitePeriodShardManager.toShardFile(
+                this.settings.getPeriodShardDirectory(), id.intValue());
+            stmt.execute(SqlitePeriodShardManager.toAttachStatement(file, schema));
+            journal.append(" UNION ALL ") //$NON-NLS-1$
+                .append(SqlitePeriodShardManager.SQL_JOURNAL_COLUMNS)
+                .append(schema).append(".journal"); //$NON-NLS-1$
+            ledger.append(" UNION ALL ") //$NON-NLS-1$
+                .append(SqlitePeriodShardManager.SQL_LEDGER_COLUMNS)
+                .append(schema).append(".ledger"); //$NON-NLS-1$
+        }
+        stmt.execute(journal.toString());
+        stmt.execute(ledger.toString());
+    }
+
+    private static List<String> buildPragmas(ConnectionPoolSettings settings) {
+        List<String> list = new ArrayList<>();
+        list.add("PRAGMA busy_timeout=" + settings.getBusyTimeoutMillis()); //$NON-NLS-1$
+        list.add("PRAGMA journal_mode=" + settings.getJournalMode()); //$NON-NLS-1$
+        list.add("PRAGMA synchronous=" + settings.getSynchronous()); //$NON-NLS-1$
+        list.add("PRAGMA cache_size=" + settings.getCacheSize()); //$NON-NLS-1$
+        list.add("PRAGMA temp_store=" + settings.getTempStore()); //$NON-NLS-1$
+        list.add("PRAGMA mmap_size=" + settings.getMmapSize()); //$NON-NLS-1$
+        return list;
+    }
+}
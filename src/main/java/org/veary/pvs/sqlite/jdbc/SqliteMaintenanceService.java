@@ -0,0 +1,264 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.MaintenanceReport;
+import org.veary.pvs.sqlite.MaintenanceReport.Step;
+import org.veary.pvs.sqlite.MaintenanceService;
+import org.veary.pvs.sqlite.MaintenanceSettings;
+
+/**
+ * Package scoped concrete implementation of the {@link MaintenanceService} interface. Scheduled
+ * runs take place on a single daemon thread; runs never overlap.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class SqliteMaintenanceService implements MaintenanceService {
+
+    private static final Logger log = LogManager.getLogger(SqliteMaintenanceService.class);
+
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+    private static final String SQL_STAT1_EXISTS =
+        "SELECT 1 FROM sqlite_master WHERE type='table' AND name='sqlite_stat1'"; //$NON-NLS-1$
+
+    private final ConnectionManager manager;
+    private final MaintenanceSettings settings;
+    private final Object runLock = new Object();
+    private volatile MaintenanceReport lastReport;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructor.
+     *
+     * @param manager the {@link ConnectionManager} of the database to maintain
+     * @param settings the {@link MaintenanceSettings}
+     */
+    @Inject
+    protected SqliteMaintenanceService(ConnectionManager manager, MaintenanceSettings settings) {
+        this.manager = manager;
+        this.settings = settings;
+    }
+
+    @Override
+    public synchronized void start() {
+        log.trace(Constants.LOG_CALLED);
+
+        if (this.scheduler != null) {
+            return;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pvs-maintenance"); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = this.settings.getIntervalMillis();
+        this.scheduler.scheduleWithFixedDelay(this::runScheduled, interval, interval,
+            TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public MaintenanceReport runNow() {
+        log.trace(Constants.LOG_CALLED);
+
+        synchronized (this.runLock) {
+            LocalDateTime startedAt = LocalDateTime.now();
+            List<Step> steps = new ArrayList<>();
+            try {
+                String mode = this.settings.getCheckpointMode();
+                if (mode != null) {
+                    steps.add(checkpoint(mode));
+                }
+                if (this.settings.isOptimize()) {
+                    steps.add(optimize());
+                }
+                if (this.settings.isIncrementalVacuum()) {
+                    steps.add(incrementalVacuum());
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException(e);
+            }
+
+            MaintenanceReport report = new MaintenanceReport(startedAt, steps);
+            this.lastReport = report;
+            this.settings.getListener().accept(report);
+            return report;
+        }
+    }
+
+    @Override
+    public Optional<MaintenanceReport> getLastReport() {
+        return Optional.ofNullable(this.lastReport);
+    }
+
+    @Override
+    public synchronized void close() {
+        log.trace(Constants.LOG_CALLED);
+
+        if (this.scheduler != null) {
+            this.scheduler.shutdown();
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * A failure is logged rather than thrown, which would cancel the later runs.
+     */
+    private void runScheduled() {
+        if (!this.settings.isInWindow(LocalTime.now())) {
+            return;
+        }
+        try {
+            runNow();
+        } catch (RuntimeException e) {
+            log.error("Scheduled maintenance failed {}", e); //$NON-NLS-1$
+        }
+    }
+
+    private Step checkpoint(String mode) throws SQLException {
+        long start = System.nanoTime();
+        String pragma = "wal_checkpoint(" + mode + ")"; //$NON-NLS-1$ //$NON-NLS-2$
+        String outcome;
+        try (Connection conn = this.manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery("PRAGMA " + pragma)) { //$NON-NLS-1$
+                    rset.next();
+                    if (rset.getInt(2) < 0) {
+                        outcome = "skipped: not in WAL mode";
+                    } else {
+                        outcome = (rset.getInt(1) != 0 ? "busy, " : "") //$NON-NLS-1$
+                            + rset.getInt(3) + " of " + rset.getInt(2) + " WAL frames checkpointed";
+                    }
+                }
+            }
+        }
+        return new Step(pragma, toMillis(start), outcome);
+    }
+
+    /**
+     * A plain {@code PRAGMA optimize} only looks at the tables the connection has queried, and
+     * before SQLite 3.46 it leaves a database which has never been analyzed alone. The
+     * {@code 0x10000} flag makes it check every table; a database without {@code sqlite_stat1}
+     * is analyzed in full instead.
+     */
+    private Step optimize() throws SQLException {
+        long start = System.nanoTime();
+        String outcome;
+        try (Connection conn = this.manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                boolean analyzed;
+                try (ResultSet rset = stmt.executeQuery(SQL_STAT1_EXISTS)) {
+                    analyzed = rset.next();
+                }
+                if (analyzed) {
+                    stmt.execute("PRAGMA optimize=0x10002"); //$NON-NLS-1$
+                    outcome = "done";
+                } else {
+                    stmt.execute("ANALYZE"); //$NON-NLS-1$
+                    outcome = "analyzed: no statistics yet";
+                }
+            }
+        }
+        return new Step("optimize", toMillis(start), outcome); //$NON-NLS-1$
+    }
+
+    /**
+     * Releases free pages a slice at a time until none are left or the budget is spent. The
+     * write connection is returned after each slice.
+     */
+    private Step incrementalVacuum() throws SQLException {
+        long start = System.nanoTime();
+
+        if (readPragma("auto_vacuum") != AUTO_VACUUM_INCREMENTAL) { //$NON-NLS-1$
+            if (!this.settings.isConvertAutoVacuum()) {
+                return new Step("incremental_vacuum", toMillis(start), //$NON-NLS-1$
+                    "skipped: auto_vacuum is not INCREMENTAL");
+            }
+            try (Connection conn = this.manager.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA auto_vacuum=INCREMENTAL"); //$NON-NLS-1$
+                    stmt.execute("VACUUM"); //$NON-NLS-1$
+                }
+            }
+            return new Step("vacuum", toMillis(start), //$NON-NLS-1$
+                "converted to auto_vacuum=INCREMENTAL");
+        }
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(
+            this.settings.getVacuumBudgetMillis());
+        String slice = "PRAGMA incremental_vacuum(" //$NON-NLS-1$
+            + this.settings.getVacuumPagesPerSlice() + ")"; //$NON-NLS-1$
+        int before = readPragma("freelist_count"); //$NON-NLS-1$
+        int free = before;
+        int slices = 0;
+        while (free > 0 && System.nanoTime() < deadline) {
+            try (Connection conn = this.manager.getConnection()) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(slice);
+                }
+            }
+            slices++;
+            free = readPragma("freelist_count"); //$NON-NLS-1$
+        }
+        return new Step("incremental_vacuum", toMillis(start), "released " //$NON-NLS-1$
+            + (before - free) + " of " + before + " free pages in " + slices + " slices");
+    }
+
+    private int readPragma(String name) throws SQLException {
+        try (Connection conn = this.manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery("PRAGMA " + name)) { //$NON-NLS-1$
+                    return rset.next() ? rset.getInt(1) : 0;
+                }
+            }
+        }
+    }
+
+    private static long toMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.veary.pvs.core.Constants;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.PeriodShardManager;
+
+/**
+ * Package scoped concrete implementation of the {@link PeriodShardManager} interface for the
+ * pooled {@link SqliteConnectionManager}. The periods which have been moved are listed in the
+ * {@code period_shard} table of the main database; the ledger of period {@code n} is held in
+ * {@code period-n.db} and attached as schema {@code pn}.
+ *
+ * <p>A move runs on the write connection in two transactions. The first copies the journals and
+ * ledger rows into the period file; the second records the period in {@code period_shard} and
+ * deletes the rows from the main database. A period file left behind by a failed move is not
+ * attached, and is replaced when the move is retried.
+ *
+ * <p>The set of moved periods is read once and then kept in memory, so that the data access
+ * objects can ask for it on every query. The period being moved joins the set between the two
+ * transactions, while its rows are in both files.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+@Singleton
+final class SqlitePeriodShardManager implements PeriodShardManager {
+
+    /**
+     * The default {@code SQLITE_MAX_ATTACHED} of SQLite.
+     */
+    static final int MAX_ATTACHED = 10;
+
+    static final String SQL_JOURNAL_COLUMNS =
+        "SELECT id, date, ref, narrative, daybook_id FROM "; //$NON-NLS-1$
+    static final String SQL_LEDGER_COLUMNS =
+        "SELECT journal_id, account_id, amount FROM "; //$NON-NLS-1$
+
+    private static final String SQL_SHARD_TABLE_EXISTS =
+        "SELECT 1 FROM main.sqlite_master " //$NON-NLS-1$
+        + "WHERE type='table' AND name='period_shard'"; //$NON-NLS-1$
+    private static final String SQL_SHARDED_PERIODS =
+        "SELECT period_id FROM main.period_shard ORDER BY period_id"; //$NON-NLS-1$
+
+    private static final Logger log = LogManager.getLogger(SqlitePeriodShardManager.class);
+
+    private final SqliteConnectionManager manager;
+    private final ConnectionPoolSettings settings;
+    private volatile Set<Integer> shardedPeriods;
+
+    /**
+     * Constructor.
+     *
+     * @param manager the pooled {@link SqliteConnectionManager}
+     * @param settings the {@link ConnectionPoolSettings} of the pool
+     */
+    @Inject
+    protected SqlitePeriodShardManager(SqliteConnectionManager manager,
+        ConnectionPoolSettings settings) {
+        this.manager = manager;
+        this.settings = settings;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return this.settings.isPeriodSharding();
+    }
+
+    @Override
+    public Set<Integer> getShardedPeriods() {
+        log.trace(Constants.LOG_CALLED);
+
+        if (!isEnabled()) {
+            return Collections.emptySet();
+        }
+        Set<Integer> periods = this.shardedPeriods;
+        if (periods == null) {
+            try (Connection conn = this.manager.getReadConnection()) {
+                periods = Collections.unmodifiableSet(
+                    new LinkedHashSet<>(readShardedPeriods(conn)));
+            } catch (SQLException e) {
+                throw new DataAccessException(e);
+            }
+            this.shardedPeriods = periods;
+        }
+        return periods;
+    }
+
+    @Override
+    public Optional<File> getShardFile(Period period) {
+        log.trace(Constants.LOG_CALLED);
+
+        if (!getShardedPeriods().contains(Integer.valueOf(period.getId()))) {
+            return Optional.empty();
+        }
+        return Optional.of(toShardFile(this.settings.getPeriodShardDirectory(), period.getId()));
+    }
+
+    @Override
+    public int moveToShard(Period period) {
+        log.trace(Constants.LOG_CALLED);
+
+        if (!isEnabled()) {
+            throw new DataAccessException("Period sharding is not enabled");
+        }
+
+        int id = period.getId();
+        String schema = toSchemaName(id);
+        File file = toShardFile(this.settings.getPeriodShardDirectory(), id);
+
+        int moved;
+        try (Connection conn = this.manager.getConnection()) {
+            List<Integer> periods = readShardedPeriods(conn);
+            if (periods.contains(Integer.valueOf(id))) {
+                throw new DataAccessException("Period [" + period.getName()
+                    + "] has already been moved to " + file);
+            }
+            if (periods.size() >= MAX_ATTACHED) {
+                throw new DataAccessException("Cannot move period [" + period.getName()
+                    + "], SQLite attaches at most " + MAX_ATTACHED + " period files");
+            }
+            prepareFile(file);
+
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute(toAttachStatement(file, schema));
+                try {
+                    moved = move(conn, stmt, schema, id);
+                } finally {
+                    stmt.execute("DETACH DATABASE " + schema); //$NON-NLS-1$
+                }
+            }
+        } catch (SQLException | IOException e) {
+            this.shardedPeriods = null;
+            throw new DataAccessException(e);
+        }
+
+        this.manager.refreshReaders();
+        if (!file.setReadOnly()) {
+            log.error("Unable to mark {} read-only (ignored)", file); //$NON-NLS-1$
+        }
+        return moved;
+    }
+
+    /**
+     * @param conn a connection to the main database
+     * @return the ids of the periods which have been moved, in ascending order
+     * @throws SQLException if the database cannot be read
+     */
+    static List<Integer> readShardedPeriods(Connection conn) throws SQLException {
+        List<Integer> list = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rset = stmt.executeQuery(SQL_SHARD_TABLE_EXISTS)) {
+                if (!rset.next()) {
+                    return list;
+                }
+            }
+            try (ResultSet rset = stmt.executeQuery(SQL_SHARDED_PERIODS)) {
+                while (rset.next()) {
+                    list.add(Integer.valueOf(rset.getInt(1)));
+                }
+            }
+        }
+        return list;
+    }
+
+    static String toSchemaName(int periodId) {
+        return "p" + periodId; //$NON-NLS-1$
+    }
+
+    static File toShardFile(String directory, int periodId) {
+        return new File(directory, "period-" + periodId + ".db"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * The statements which refer to a period file are run as plain statements rather than
+     * through the statement cache, which would keep them prepared and prevent the
+     * {@code DETACH}. The file name is therefore quoted into the SQL.
+     */
+    static String toAttachStatement(File file, String schema) {
+        String path = file.getPath().replace("'", "''"); //$NON-NLS-1$ //$NON-NLS-2$
+        return "ATTACH DATABASE '" + path + "' AS " + schema; //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    private static void prepareFile(File file) throws IOException {
+        Files.createDirectories(file.getAbsoluteFile().getParentFile().toPath());
+        if (file.exists()) {
+            if (!file.setWritable(true)) {
+                throw new IOException("Unable to replace " + file);
+            }
+            Files.delete(file.toPath());
+        }
+    }
+
+    /**
+     * Creates the indexes of the main database in the period file, after the rows are copied.
+     */
+    private static void createIndexes(Statement stmt, String schema) throws SQLException {
+        String[][] indexes = {
+            { "ledger_journal_idx", //$NON-NLS-1$
+                "ledger(journal_id, account_id, amount)" }, //$NON-NLS-1$
+            { "ledger_account_idx", //$NON-NLS-1$
+                "ledger(account_id, journal_id, amount)" }, //$NON-NLS-1$
+            { "journal_daybook_date_idx", "journal(daybook_id, date)" }, //$NON-NLS-1$ //$NON-NLS-2$
+            { "journal_date_idx", "journal(date)" }, //$NON-NLS-1$ //$NON-NLS-2$
+            { "journal_ref_idx", "journal(ref)" } //$NON-NLS-1$ //$NON-NLS-2$
+        };
+        for (String[] index : indexes) {
+            stmt.execute("CREATE INDEX " + schema + "." + index[0] //$NON-NLS-1$ //$NON-NLS-2$
+                + " ON " + index[1]); //$NON-NLS-1$
+        }
+    }
+
+    private int move(Connection conn, Statement stmt, String schema, int periodId)
+        throws SQLException {
+        String journalIds = "(SELECT id FROM " + schema + ".journal)"; //$NON-NLS-1$ //$NON-NLS-2$
+
+        stmt.execute("PRAGMA " + schema + ".journal_mode=DELETE"); //$NON-NLS-1$ //$NON-NLS-2$
+        stmt.execute("CREATE TABLE " + schema + ".journal (" //$NON-NLS-1$ //$NON-NLS-2$
+            + "id INTEGER NOT NULL PRIMARY KEY, date TEXT NOT NULL, ref TEXT, " //$NON-NLS-1$
+            + "narrative TEXT NOT NULL, daybook_id INTEGER NOT NULL)"); //$NON-NLS-1$
+        stmt.execute("CREATE TABLE " + schema + ".ledger (" //$NON-NLS-1$ //$NON-NLS-2$
+            + "journal_id INTEGER NOT NULL, account_id INTEGER NOT NULL, " //$NON-NLS-1$
+            + "amount INTEGER NOT NULL)"); //$NON-NLS-1$
+
+        conn.setAutoCommit(false);
+        try {
+            int moved = stmt.executeUpdate("INSERT INTO " + schema //$NON-NLS-1$
+                + ".journal " + SQL_JOURNAL_COLUMNS //$NON-NLS-1$
+                + "main.journal WHERE daybook_id IN " //$NON-NLS-1$
+                + "(SELECT id FROM main.daybook WHERE period_id=" //$NON-NLS-1$
+                + periodId + ")"); //$NON-NLS-1$
+            stmt.executeUpdate("INSERT INTO " + schema //$NON-NLS-1$
+                + ".ledger " + SQL_LEDGER_COLUMNS //$NON-NLS-1$
+                + "main.ledger WHERE journal_id IN " + journalIds); //$NON-NLS-1$
+            createIndexes(stmt, schema);
+            conn.commit();
+
+            // from here on the period is read through the views, which still see the rows
+            Set<Integer> periods = new LinkedHashSet<>(getShardedPeriods());
+            periods.add(Integer.valueOf(periodId));
+            this.shardedPeriods = Collections.unmodifiableSet(periods);
+
+            // listed before the delete, so the trigger keeps the full-text entries
+            stmt.executeUpdate("INSERT INTO main.period_shard(period_id) VALUES (" //$NON-NLS-1$
+                + periodId + ")"); //$NON-NLS-1$
+            stmt.executeUpdate("DELETE FROM main.ledger WHERE journal_id IN " //$NON-NLS-1$
+                + journalIds);
+            stmt.executeUpdate("DELETE FROM main.journal WHERE id IN " + journalIds); //$NON-NLS-1$
+            conn.commit();
+            conn.setAutoCommit(true);
+            return moved;
+        } catch (SQLException e) {
+            conn.rollback();
+            conn.setAutoCommit(true);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A least recently used cache of the prepared statements of one physical connection, keyed by
+ * the SQL text and the generated keys flag. Statements handed out are proxies whose
+ * {@code close()} clears the parameters and returns the statement to the cache.
+ *
+ * <p>A statement which is still in use when the same SQL is prepared again, for example by a
+ * nested query, is not shared: the second caller gets an uncached statement. The cache belongs
+ * to the physical connection, which is only ever borrowed by one caller at a time, so it is not
+ * thread safe.
+ *
+ * @author Marc L. Veary
+ * @since 1.0
+ */
+final class StatementCache implements AutoCloseable {
+
+    private static final Logger log = LogManager.getLogger(StatementCache.class);
+
+    private final Connection physical;
+    private final int capacity;
+    private final StatementCacheStatistics statistics;
+    private final Map<Key, Entry> entries;
+
+    /**
+     * Constructor.
+     *
+     * @param physical the physical connection the statements belong to
+     * @param capacity the maximum number of cached statements, {@code 0} disables the cache
+     * @param statistics the counters to update
+     */
+    StatementCache(Connection physical, int capacity, StatementCacheStatistics statistics) {
+        this.physical = physical;
+        this.capacity = capacity;
+        this.statistics = statistics;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a prepared statement for the SQL, from the cache if there is a free one.
+     *
+     * @param owner the connection returned by {@link PreparedStatement#getConnection()}
+     * @param sql the SQL text
+     * @param autoGeneratedKeys {@link Statement#RETURN_GENERATED_KEYS} or
+     *        {@link Statement#NO_GENERATED_KEYS}
+     * @return {@code PreparedStatement}
+     * @throws SQLException if the statement cannot be prepared
+     */
+    PreparedStatement prepare(Connection owner, String sql, int autoGeneratedKeys)
+        throws SQLException {
+        if (this.capacity == 0) {
+            return open(sql, autoGeneratedKeys);
+        }
+
+        Key key = new Key(sql, autoGeneratedKeys);
+        Entry entry = this.entries.get(key);
+        if (entry != null && entry.lease == null) {
+            this.statistics.recordHit();
+            return entry.checkOut(owner);
+        }
+
+        this.statistics.recordMiss();
+        PreparedStatement stmt = open(sql, autoGeneratedKeys);
+        if (entry != null) {
+            return stmt;
+        }
+
+        entry = new Entry(stmt);
+        this.entries.put(key, entry);
+        evict();
+        return entry.checkOut(owner);
+    }
+
+    /**
+     * Returns every statement still checked out to the cache. Called when the connection goes
+     * back to the pool; the caller's statement objects can no longer be used.
+     */
+    void checkInAll() {
+        Iterator<Entry> iter = this.entries.values().iterator();
+        while (iter.hasNext()) {
+            Entry entry = iter.next();
+            if (entry.lease != null && !entry.checkIn()) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of cached statements
+     */
+    int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Closes all the cached statements.
+     */
+    @Override
+    public void close() {
+        for (Entry entry : this.entries.values()) {
+            entry.close();
+        }
+        this.entries.clear();
+    }
+
+    private PreparedStatement open(String sql, int autoGeneratedKeys) throws SQLException {
+        if (autoGeneratedKeys == Statement.NO_GENERATED_KEYS) {
+            return this.physical.prepareStatement(sql);
+        }
+        return this.physical.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    private void evict() {
+        Iterator<Entry> iter = this.entries.values().iterator();
+        while (this.entries.size() > this.capacity && iter.hasNext()) {
+            Entry entry = iter.next();
+            if (entry.lease == null) {
+                iter.remove();
+                entry.close();
+                this.statistics.recordEviction();
+            }
+        }
+    }
+
+    /**
+     * The cache key.
+     */
+    private static final class Key {
+
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        Key(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return this.autoGeneratedKeys == other.autoGeneratedKeys
+                && this.sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.sql.hashCode() + this.autoGeneratedKeys;
+        }
+    }
+
+    /**
+     * A cached statement and its current lease, if it is checked out.
+     */
+    private final class Entry {
+
+        private final PreparedStatement stmt;
+        private Lease lease;
+
+        Entry(PreparedStatement stmt) {
+            this.stmt = stmt;
+        }
+
+        PreparedStatement checkOut(Connection owner) {
+            this.lease = new Lease(this, owner);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, this.lease);
+        }
+
+        /**
+         * @return {@code false} if the statement could not be reset and has been closed
+         */
+        boolean checkIn() {
+            this.lease.closed = true;
+            this.lease = null;
+            try {
+                this.stmt.clearParameters();
+                this.stmt.clearBatch();
+                this.stmt.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                close();
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                this.stmt.close();
+            } catch (SQLException e) {
+                log.error("Unexpected error (ignored) {}", e); //$NON-NLS-1$
+            }
+        }
+    }
+
+    /**
+     * The invocation handler behind a checked out statement.
+     */
+    private final class Lease implements InvocationHandler {
+
+        private final Entry entry;
+        private final Connection owner;
+        private boolean closed;
+
+        Lease(Entry entry, Connection owner) {
+            this.entry = entry;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close": //$NON-NLS-1$
+                    if (!this.closed && !this.entry.checkIn()) {
+                        StatementCache.this.entries.values().remove(this.entry);
+                    }
+                    return null;
+                case "isClosed": //$NON-NLS-1$
+                    return Boolean.valueOf(this.closed);
+                case "getConnection": //$NON-NLS-1$
+                    return this.owner;
+                case "equals": //$NON-NLS-1$
+                    return Boolean.valueOf(proxy == args[0]);
+                case "hashCode": //$NON-NLS-1$
+                    return Integer.valueOf(System.identityHashCode(proxy));
+                case "toString": //$NON-NLS-1$
+                    return "Cached[" + this.entry.stmt + "]";
+                default:
+                    break;
+            }
+
+            if (this.closed) {
+                throw new SQLException("The statement has been returned to the cache");
+            }
+
+            try {
+                return method.invoke(this.entry.stmt, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -34,6 +34,15 @@
  *     );
    </pre>
  *
+ * <p>Outside a container, where there is no JNDI {@code DataSource}, use the pooled module
+ * instead:
+ * <pre>
+ * injector = Guice.createInjector(
+ *     new GuiceApiModule(),
+ *     new GuiceSqlitePooledModule(new ConnectionPoolSettings("jdbc:sqlite:pvs.db"))
+ *     );
+ * </pre>
+ *
  * @author Marc L. Veary
  * @since 1.0
  */
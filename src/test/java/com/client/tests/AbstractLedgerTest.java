@@ -0,0 +1,107 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.math.BigDecimal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+
+/**
+ * The ledger shared by the balance, report, search and period close tests: the accounts Bank
+ * and Cash (assets) and Fuel (an expense), and the period YEAR with the day books January and
+ * February. Nothing is posted; subclasses post in their own {@code @Before} method, which
+ * runs after {@link #setup()}.
+ */
+public abstract class AbstractLedgerTest extends AbstractTomcatJndi {
+
+    protected Injector injector;
+
+    protected Period period;
+    protected DayBook january;
+    protected DayBook february;
+    protected Account bank;
+    protected Account cash;
+    protected Account fuel;
+
+    @Before
+    public void setup() throws ApiException {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule()
+            );
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.createTables();
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        accountFacade.createAccount("Bank", Type.ASSET);
+        accountFacade.createAccount("Cash", Type.ASSET);
+        accountFacade.createAccount("Fuel", Type.EXPENSE);
+        this.bank = accountFacade.getAccountByName("Bank").get();
+        this.cash = accountFacade.getAccountByName("Cash").get();
+        this.fuel = accountFacade.getAccountByName("Fuel").get();
+
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        int periodId = periodFacade.createPeriod("YEAR");
+        this.period = periodFacade.getPeriodById(periodId).get();
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("January", periodId);
+        bookFacade.createDayBook("February", periodId);
+        this.january = bookFacade.getDayBookByName("January").get();
+        this.february = bookFacade.getDayBookByName("February").get();
+    }
+
+    @After
+    public void teardown() {
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    protected static Money money(long cents) {
+        return new Money(BigDecimal.valueOf(cents, 2));
+    }
+
+    protected static void assertMoney(Money expected, Money actual) {
+        Assert.assertEquals(expected.toUnscaledInteger(), actual.toUnscaledInteger());
+    }
+}
@@ -29,8 +29,10 @@ import com.google.inject.Injector;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -47,8 +49,13 @@ import org.veary.pvs.model.Account;
 import org.veary.pvs.model.Account.Type;
 import org.veary.pvs.model.DayBook;
 import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.BatchPostingResult;
 import org.veary.pvs.sqlite.DatabaseManager;
 import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.Posting;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+import org.veary.pvs.sqlite.TransactionPage;
 
 public class AccountingSystemFacadeTest extends AbstractTomcatJndi {
 
@@ -167,6 +174,9 @@ public class AccountingSystemFacadeTest extends AbstractTomcatJndi {
         Assert.assertNotNull(list);
         Assert.assertFalse(list.isEmpty());
         Assert.assertTrue(3 == list.size());
+        for (Transaction tx : list) {
+            Assert.assertTrue(2 == tx.getLedgerEntries().size());
+        }
     }
 
     @Test
@@ -224,4 +234,212 @@ public class AccountingSystemFacadeTest extends AbstractTomcatJndi {
         Assert.assertFalse(list.isEmpty());
         Assert.assertTrue(5 == list.size());
     }
+
+    @Test
+    public void getTransactionsForAccountInDayBookExcludesOtherAccounts() throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertNotNull(facade);
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        Assert.assertTrue(accountFacade.createAccount("Bank", Type.ASSET) > 0);
+        Optional<Account> bank = accountFacade.getAccountByName("Bank");
+        Assert.assertTrue(bank.isPresent());
+
+        Assert.assertTrue(facade.postTransaction(
+            LocalDate.now(),
+            "Fuel for Land Rover",
+            new Money(BigDecimal.valueOf(1000000, 2)),
+            this.fromAccount,
+            this.toAccount,
+            "PV20190331001",
+            this.dayBook.getId()));
+
+        Assert.assertTrue(facade.postTransaction(
+            LocalDate.now(),
+            "Cash withdrawal",
+            new Money(BigDecimal.valueOf(5000000, 2)),
+            bank.get(),
+            this.fromAccount,
+            "PV20190331002",
+            this.dayBook.getId()));
+
+        List<Transaction> list = facade.getTransactionsForAccountInDayBook(bank.get(), this.dayBook);
+        Assert.assertNotNull(list);
+        Assert.assertTrue(1 == list.size());
+        Assert.assertTrue(2 == list.get(0).getLedgerEntries().size());
+
+        list = facade.getTransactionsForAccountInDayBook(this.toAccount, this.dayBook);
+        Assert.assertTrue(1 == list.size());
+    }
+
+    @Test
+    public void postTransactionsInBatch() {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        Assert.assertNotNull(dao);
+
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            postings.add(new Posting(LocalDate.now(), "Fuel " + i,
+                new Money(BigDecimal.valueOf(1000 + i, 2)), this.fromAccount, this.toAccount,
+                "PV" + i, this.dayBook.getId()));
+        }
+        postings.add(10, null);
+
+        BatchPostingResult result = dao.postTransactions(postings, 10);
+        Assert.assertEquals(25, result.getPostedCount());
+        Assert.assertEquals(1, result.getFailures().size());
+        Assert.assertEquals(10, result.getFailures().get(0).getIndex());
+
+        List<Transaction> list = dao.getTransactionsForDayBook(this.dayBook);
+        Assert.assertEquals(25, list.size());
+        for (Transaction tx : list) {
+            Assert.assertTrue(2 == tx.getLedgerEntries().size());
+        }
+    }
+
+    @Test
+    public void streamTransactions() {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            postings.add(new Posting(LocalDate.now(), "Fuel " + i,
+                new Money(BigDecimal.valueOf(1000 + i, 2)), this.fromAccount, this.toAccount,
+                "PV" + i, this.dayBook.getId()));
+        }
+        Assert.assertTrue(dao.postTransactions(postings).isSuccessful());
+
+        try (Stream<Transaction> stream = dao.streamTransactions()) {
+            Assert.assertEquals(10, stream
+                .peek(tx -> Assert.assertTrue(2 == tx.getLedgerEntries().size()))
+                .count());
+        }
+
+        try (Stream<Transaction> stream = dao.streamTransactionsForDayBook(this.dayBook)) {
+            Assert.assertEquals(3, stream.limit(3).count());
+        }
+    }
+
+    @Test
+    public void pageThroughTransactions() {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 1; i <= 7; i++) {
+            postings.add(new Posting(LocalDate.of(2019, 3, i), "Fuel " + i,
+                new Money(BigDecimal.valueOf(1000 + i, 2)), this.fromAccount, this.toAccount,
+                "PV" + i, this.dayBook.getId()));
+        }
+        Assert.assertTrue(dao.postTransactions(postings).isSuccessful());
+
+        List<Integer> ids = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            TransactionPage page = dao.getTransactionPageForDayBook(this.dayBook, 3, token);
+            for (Transaction tx : page.getTransactions()) {
+                Assert.assertTrue(2 == tx.getLedgerEntries().size());
+                ids.add(Integer.valueOf(tx.getId()));
+            }
+            token = page.getNextToken().orElse(null);
+            pages++;
+        } while (token != null);
+
+        Assert.assertEquals(3, pages);
+        Assert.assertEquals(7, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            Assert.assertTrue(ids.get(i - 1).intValue() > ids.get(i).intValue());
+        }
+
+        TransactionPage page = dao.getTransactionPageForAccountInDayBook(this.toAccount,
+            this.dayBook, 5, null);
+        Assert.assertEquals(5, page.getTransactions().size());
+        Assert.assertTrue(page.hasNext());
+        Assert.assertEquals(7, dao.getTransactionPage(10, null).getTransactions().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidContinuationToken() {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        dao.getTransactionPage(10, "not a token");
+    }
+
+    @Test
+    public void getTransactionsBetweenDates() throws ApiException {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        Assert.assertTrue(accountFacade.createAccount("Bank", Type.ASSET) > 0);
+        Account bank = accountFacade.getAccountByName("Bank").get();
+
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            postings.add(new Posting(LocalDate.of(2019, i, 28), "Fuel " + i,
+                new Money(BigDecimal.valueOf(1000 + i, 2)), i % 2 == 0 ? bank : this.fromAccount,
+                this.toAccount, "PV" + i, this.dayBook.getId()));
+        }
+        Assert.assertTrue(dao.postTransactions(postings).isSuccessful());
+
+        List<Transaction> list = dao.getTransactionsBetween(LocalDate.of(2019, 10, 1),
+            LocalDate.of(2019, 12, 31));
+        Assert.assertEquals(3, list.size());
+        Assert.assertTrue(list.get(0).getId() < list.get(2).getId());
+
+        list = dao.getTransactionsBetween(LocalDate.of(2019, 1, 28), LocalDate.of(2019, 6, 28),
+            bank);
+        Assert.assertEquals(3, list.size());
+        for (Transaction tx : list) {
+            Assert.assertTrue(2 == tx.getLedgerEntries().size());
+        }
+    }
+
+    @Test
+    public void searchTransactions() {
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        SearchDataAccessObject search = injector.getInstance(SearchDataAccessObject.class);
+
+        List<Posting> postings = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            postings.add(new Posting(LocalDate.of(2019, 3, i), "Fuel for the Hilux",
+                new Money(BigDecimal.valueOf(1000 + i, 2)), this.fromAccount, this.toAccount,
+                "PV" + i, this.dayBook.getId()));
+        }
+        postings.add(new Posting(LocalDate.of(2019, 3, 6), "Tyres for the Land Rover",
+            new Money(BigDecimal.valueOf(2000, 2)), this.fromAccount, this.toAccount, "PV6",
+            this.dayBook.getId()));
+        Assert.assertTrue(dao.postTransactions(postings).isSuccessful());
+
+        TransactionPage page = search.searchTransactions("hilux", 10, null);
+        Assert.assertEquals(5, page.getTransactions().size());
+        Assert.assertFalse(page.hasNext());
+        for (Transaction tx : page.getTransactions()) {
+            Assert.assertTrue(2 == tx.getLedgerEntries().size());
+        }
+
+        Assert.assertEquals(1, search.searchTransactions("land  ROVER", 10, null)
+            .getTransactions().size());
+        Assert.assertEquals(1, search.searchTransactions("pv6", 10, null)
+            .getTransactions().size());
+        Assert.assertTrue(search.searchTransactions("fuel rover", 10, null)
+            .getTransactions().isEmpty());
+        Assert.assertTrue(search.searchTransactions("\"hilux\" OR rover", 10, null)
+            .getTransactions().isEmpty());
+
+        List<Integer> ids = new ArrayList<>();
+        String token = null;
+        do {
+            page = search.searchTransactions("for", 4, token);
+            for (Transaction tx : page.getTransactions()) {
+                ids.add(Integer.valueOf(tx.getId()));
+            }
+            token = page.getNextToken().orElse(null);
+        } while (token != null);
+        Assert.assertEquals(6, ids.size());
+        Assert.assertEquals(6, ids.stream().distinct().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void searchWithoutWords() {
+        injector.getInstance(SearchDataAccessObject.class).searchTransactions("  ", 10, null);
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.AsyncDataAccessObject;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.Posting;
+
+public class AsyncDataAccessObjectTest extends AbstractTomcatJndi {
+
+    private static final int READ_PERMITS = 2;
+
+    private Injector injector;
+    private Account cash;
+    private Account fuel;
+    private DayBook dayBook;
+
+    @Before
+    public void setup() throws ApiException {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule(),
+            binder -> binder.bind(DataAccessSettings.class).toInstance(
+                new DataAccessSettings().setAsyncReadPermits(READ_PERMITS))
+            );
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.createTables();
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        accountFacade.createAccount("Cash", Type.ASSET);
+        accountFacade.createAccount("Fuel", Type.EXPENSE);
+        this.cash = accountFacade.getAccountByName("Cash").get();
+        this.fuel = accountFacade.getAccountByName("Fuel").get();
+
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        int periodId = periodFacade.createPeriod("YEAR");
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("January", periodId);
+        this.dayBook = bookFacade.getDayBookByName("January").get();
+    }
+
+    @After
+    public void teardown() {
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void independentLookupsRunTogether() {
+        AsyncDataAccessObject async = injector.getInstance(AsyncDataAccessObject.class);
+        Assert.assertTrue(async.postTransaction(new Posting(LocalDate.of(2019, 1, 2), "Fuel",
+            new Money(BigDecimal.TEN), this.cash, this.fuel, "PV001", this.dayBook.getId()))
+            .join().booleanValue());
+
+        CompletableFuture<Optional<Account>> account = async.getAccountByName("Fuel");
+        CompletableFuture<Optional<DayBook>> book = async.getDayBookById(this.dayBook.getId());
+        CompletableFuture<Optional<Period>> period = async.getPeriodByName("YEAR");
+        CompletableFuture<List<Transaction>> transactions =
+            async.getTransactionsForDayBook(this.dayBook);
+        CompletableFuture<List<Transaction>> forAccount =
+            async.getTransactionForAccountInDayBook(this.cash, this.dayBook);
+        CompletableFuture.allOf(account, book, period, transactions, forAccount).join();
+
+        Assert.assertEquals(this.fuel.getId(), account.join().get().getId());
+        Assert.assertEquals("January", book.join().get().getName());
+        Assert.assertTrue(period.join().isPresent());
+        Assert.assertEquals(1, transactions.join().size());
+        Assert.assertEquals(1, forAccount.join().size());
+    }
+
+    @Test
+    public void readsRespectThePermits() {
+        AsyncDataAccessObject async = injector.getInstance(AsyncDataAccessObject.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(async.supplyRead(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return Integer.valueOf(peak.get());
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        Assert.assertTrue(peak.get() <= READ_PERMITS);
+    }
+
+    @Test(expected = CompletionException.class)
+    public void failuresCompleteExceptionally() {
+        injector.getInstance(AsyncDataAccessObject.class).supplyWrite(() -> {
+            throw new IllegalStateException("expected");
+        }).join();
+    }
+}
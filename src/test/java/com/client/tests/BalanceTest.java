@@ -0,0 +1,100 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.sqlite.BalanceDataAccessObject;
+import org.veary.pvs.sqlite.BalanceDrift;
+import org.veary.pvs.sqlite.ConnectionManager;
+
+public class BalanceTest extends AbstractLedgerTest {
+
+    @Before
+    public void postings() throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Fuel", money(1000),
+            this.cash, this.fuel, "PV001", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Fuel", money(250),
+            this.cash, this.fuel, "PV002", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Fuel", money(500),
+            this.cash, this.fuel, "PV003", this.february.getId()));
+    }
+
+    @Test
+    public void balancesAreMaintainedByPosting() {
+        BalanceDataAccessObject dao = injector.getInstance(BalanceDataAccessObject.class);
+
+        assertMoney(money(1750), dao.getBalance(this.fuel));
+        assertMoney(money(-1750), dao.getBalance(this.cash));
+        assertMoney(money(1250), dao.getBalance(this.fuel, this.january));
+        assertMoney(money(500), dao.getBalance(this.fuel, this.february));
+        assertMoney(money(1750), dao.getBalance(this.fuel, this.period));
+
+        Map<Integer, Money> balances = dao.getBalances(this.february);
+        Assert.assertEquals(2, balances.size());
+        assertMoney(money(-500), balances.get(Integer.valueOf(this.cash.getId())));
+
+        balances = dao.getBalances();
+        Assert.assertEquals(2, balances.size());
+        assertMoney(money(1750), balances.get(Integer.valueOf(this.fuel.getId())));
+        Assert.assertEquals(2, dao.getBalances(this.period).size());
+    }
+
+    @Test
+    public void driftIsReportedAndRepaired() throws SQLException {
+        BalanceDataAccessObject dao = injector.getInstance(BalanceDataAccessObject.class);
+        Assert.assertTrue(dao.checkBalances().isEmpty());
+
+        ConnectionManager manager = injector.getInstance(ConnectionManager.class);
+        try (Connection conn = manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE balance SET amount = amount + 1 WHERE account_id = "
+                    + this.fuel.getId() + " AND daybook_id = " + this.january.getId());
+            }
+        }
+
+        List<BalanceDrift> drift = dao.checkBalances();
+        Assert.assertEquals(1, drift.size());
+        Assert.assertEquals(this.fuel.getId(), drift.get(0).getAccountId());
+        Assert.assertEquals(this.january.getId(), drift.get(0).getDayBookId());
+        assertMoney(money(1250), drift.get(0).getExpected());
+
+        Assert.assertEquals(4, dao.rebuildBalances());
+        Assert.assertTrue(dao.checkBalances().isEmpty());
+        assertMoney(money(1250), dao.getBalance(this.fuel, this.january));
+    }
+}
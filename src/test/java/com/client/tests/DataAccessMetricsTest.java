@@ -0,0 +1,174 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.dao.DayBookDataAccessObject;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Transaction;
+import org.veary.pvs.sqlite.DataAccessOperationMXBean;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.JmxDataAccessMetrics;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+public class DataAccessMetricsTest extends AbstractTomcatJndi {
+
+    private Injector injector;
+    private JmxDataAccessMetrics metrics;
+
+    @Before
+    public void setup() {
+        tomcatJndiSetup();
+        this.metrics = new JmxDataAccessMetrics("DataAccessMetricsTest");
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule(),
+            binder -> binder.bind(DataAccessSettings.class).toInstance(
+                new DataAccessSettings().setMetrics(this.metrics))
+            );
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.createTables();
+    }
+
+    @After
+    public void teardown() {
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.metrics.close();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void callsAreCountedPerOperation() throws Exception {
+        AccountDataAccessObject dao = injector.getInstance(AccountDataAccessObject.class);
+        int id = dao.createAccount("Cash", Type.ASSET);
+        Assert.assertTrue(dao.getById(id).isPresent());
+        Assert.assertTrue(dao.getById(id).isPresent());
+        Assert.assertFalse(dao.getById(id + 100).isPresent());
+
+        DataAccessOperationMXBean getById =
+            this.metrics.getOperation("AccountDataAccessObject.getById(int)").get();
+        Assert.assertEquals(3, getById.getCalls());
+        Assert.assertEquals(2, getById.getRows());
+        Assert.assertEquals(0, getById.getFailures());
+        Assert.assertTrue(getById.getLatencyP99Micros() >= getById.getLatencyP50Micros());
+        Assert.assertEquals(1, this.metrics
+            .getOperation("AccountDataAccessObject.createAccount(String,Type)").get().getCalls());
+
+        try {
+            dao.createAccount("Cash", Type.ASSET);
+            Assert.fail("Duplicate account");
+        } catch (ApiException | RuntimeException e) {
+            Assert.assertEquals(1, this.metrics
+                .getOperation("AccountDataAccessObject.createAccount(String,Type)").get()
+                .getFailures());
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(JmxDataAccessMetrics.DOMAIN
+            + ":type=DataAccessOperation,name=\"DataAccessMetricsTest\","
+            + "operation=\"AccountDataAccessObject.getById(int)\"");
+        Assert.assertEquals(Long.valueOf(3), server.getAttribute(name, "Calls"));
+    }
+
+    @Test
+    public void connectionsAndCommitsAreCounted() throws ApiException {
+        AccountDataAccessObject accounts = injector.getInstance(AccountDataAccessObject.class);
+        Account cash = accounts.getById(accounts.createAccount("Cash", Type.ASSET)).get();
+        Account fuel = accounts.getById(accounts.createAccount("Fuel", Type.EXPENSE)).get();
+        DayBook dayBook = injector.getInstance(DayBookDataAccessObject.class).getDayBooks()
+            .get(0);
+
+        long acquisitions = this.metrics.getConnections().getAcquisitions();
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        Assert.assertTrue(dao.postTransaction(LocalDate.of(2019, 1, 1), "Fuel",
+            new Money(BigDecimal.TEN), cash, fuel, "PV001", dayBook.getId()));
+
+        Assert.assertEquals(1, this.metrics.getConnections().getCommits());
+        Assert.assertEquals(0, this.metrics.getConnections().getRollbacks());
+        Assert.assertTrue(this.metrics.getConnections().getAcquisitions() > acquisitions);
+        Assert.assertEquals(1, this.metrics
+            .getOperation("SqliteSystemDataAccessObject.postTransaction("
+                + "LocalDate,String,Money,Account,Account,String,int)").get().getCalls());
+    }
+
+    @Test
+    public void streamIsRecordedWhenClosed() throws ApiException {
+        AccountDataAccessObject accounts = injector.getInstance(AccountDataAccessObject.class);
+        Account cash = accounts.getById(accounts.createAccount("Cash", Type.ASSET)).get();
+        Account fuel = accounts.getById(accounts.createAccount("Fuel", Type.EXPENSE)).get();
+        DayBook dayBook = injector.getInstance(DayBookDataAccessObject.class).getDayBooks()
+            .get(0);
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(dao.postTransaction(LocalDate.of(2019, 1, 1), "Fuel",
+                new Money(BigDecimal.TEN), cash, fuel, "PV00" + i, dayBook.getId()));
+        }
+
+        String operation = "SqliteSystemDataAccessObject.streamTransactions()";
+        try (Stream<Transaction> transactions = dao.streamTransactions()) {
+            Assert.assertEquals(3, transactions.count());
+            Assert.assertFalse(this.metrics.getOperation(operation).isPresent());
+        }
+        DataAccessOperationMXBean stream = this.metrics.getOperation(operation).get();
+        Assert.assertEquals(1, stream.getCalls());
+        Assert.assertEquals(3, stream.getRows());
+    }
+
+    @Test
+    public void disabledMetricsBindTheImplementation() {
+        Injector plain = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule()
+            );
+        Assert.assertFalse(Proxy.isProxyClass(
+            plain.getInstance(AccountDataAccessObject.class).getClass()));
+        Assert.assertTrue(Proxy.isProxyClass(
+            injector.getInstance(AccountDataAccessObject.class).getClass()));
+    }
+}
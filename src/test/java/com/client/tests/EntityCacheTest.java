@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+import java.util.Optional;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.dao.AccountDataAccessObject;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.sqlite.CacheStatistics;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+
+public class EntityCacheTest extends AbstractTomcatJndi {
+
+    private static final String CASH_ACC = "Cash";
+
+    private Injector injector;
+    private CacheStatistics stats;
+
+    @Before
+    public void setup() {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule(),
+            binder -> binder.bind(DataAccessSettings.class).toInstance(
+                new DataAccessSettings().setEntityCacheSize(2))
+            );
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.createTables();
+        this.stats = injector.getInstance(
+            Key.get(CacheStatistics.class, Names.named(CacheStatistics.ACCOUNT_CACHE)));
+    }
+
+    @After
+    public void teardown() {
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void lookupsByIdAndNameShareTheCache() throws ApiException {
+        AccountDataAccessObject dao = injector.getInstance(AccountDataAccessObject.class);
+        int id = dao.createAccount(CASH_ACC, Type.ASSET);
+
+        Optional<Account> byName = dao.getByName(CASH_ACC);
+        Assert.assertTrue(byName.isPresent());
+        Optional<Account> byId = dao.getById(id);
+        Assert.assertTrue(byId.isPresent());
+        Assert.assertSame(byName.get(), byId.get());
+
+        Assert.assertEquals(1, this.stats.getMissCount());
+        Assert.assertEquals(1, this.stats.getHitCount());
+    }
+
+    @Test
+    public void writesInvalidateTheCache() throws ApiException {
+        AccountDataAccessObject dao = injector.getInstance(AccountDataAccessObject.class);
+        int id = dao.createAccount(CASH_ACC, Type.ASSET);
+        Assert.assertTrue(dao.getByName(CASH_ACC).isPresent());
+
+        Assert.assertTrue(dao.updateAccount(CASH_ACC, "Petty Cash"));
+        Assert.assertFalse(dao.getByName(CASH_ACC).isPresent());
+        Assert.assertEquals("Petty Cash", dao.getById(id).get().getName());
+
+        Assert.assertTrue(dao.deleteAccount(id));
+        Assert.assertFalse(dao.getById(id).isPresent());
+        Assert.assertEquals(0, this.stats.getHitCount());
+    }
+
+    @Test
+    public void cacheIsBounded() throws ApiException {
+        AccountDataAccessObject dao = injector.getInstance(AccountDataAccessObject.class);
+        dao.createAccount(CASH_ACC, Type.ASSET);
+        dao.createAccount("Bank", Type.ASSET);
+        dao.createAccount("Fuel", Type.EXPENSE);
+
+        dao.getByName(CASH_ACC);
+        dao.getByName("Bank");
+        dao.getByName("Fuel");
+        dao.getByName("Bank");
+
+        Assert.assertEquals(1, this.stats.getEvictionCount());
+        Assert.assertEquals(1, this.stats.getHitCount());
+        Assert.assertEquals(0.25, this.stats.getHitRate(), 0.0);
+    }
+}
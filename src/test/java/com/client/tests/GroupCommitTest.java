@@ -0,0 +1,165 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.sqlite.DataAccessSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+public class GroupCommitTest extends AbstractTomcatJndi {
+
+    private static final int THREADS = 8;
+    private static final int POSTINGS_PER_THREAD = 20;
+
+    private Injector injector;
+
+    private DayBook dayBook;
+    private Account fromAccount;
+    private Account toAccount;
+
+    @Before
+    public void setup() throws ApiException {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule(),
+            binder -> binder.bind(DataAccessSettings.class).toInstance(
+                new DataAccessSettings().setGroupCommit(true).setGroupCommitMaxBatch(32))
+            );
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.createTables();
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        accountFacade.createAccount("Cash", Type.ASSET);
+        accountFacade.createAccount("Fuel", Type.EXPENSE);
+        this.fromAccount = accountFacade.getAccountByName("Cash").get();
+        this.toAccount = accountFacade.getAccountByName("Fuel").get();
+
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        int periodId = periodFacade.createPeriod("YEAR");
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("January", periodId);
+        this.dayBook = bookFacade.getDayBookByName("January").get();
+    }
+
+    @After
+    public void teardown() {
+        injector.getInstance(SqliteSystemDataAccessObject.class).close();
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void concurrentPostingsAreAllCommitted() throws Exception {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> {
+                    boolean all = true;
+                    for (int i = 0; i < POSTINGS_PER_THREAD; i++) {
+                        all &= facade.postTransaction(LocalDate.now(), "Fuel",
+                            new Money(BigDecimal.valueOf(1000, 2)), this.fromAccount,
+                            this.toAccount, "PV", this.dayBook.getId());
+                    }
+                    return Boolean.valueOf(all);
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get().booleanValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(THREADS * POSTINGS_PER_THREAD,
+            facade.getTransactionsForDayBook(this.dayBook).size());
+    }
+
+    @Test
+    public void closeCommitsThePendingPostings() throws Exception {
+        // the group would wait a minute for more postings if close did not flush it
+        Injector delayed = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule(),
+            binder -> binder.bind(DataAccessSettings.class).toInstance(
+                new DataAccessSettings().setGroupCommit(true).setGroupCommitMaxBatch(32)
+                    .setGroupCommitMaxDelayMillis(60000))
+            );
+        SqliteSystemDataAccessObject dao =
+            delayed.getInstance(SqliteSystemDataAccessObject.class);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(executor.submit(() -> Boolean.valueOf(
+                    dao.postTransaction(LocalDate.now(), "Fuel",
+                        new Money(BigDecimal.valueOf(1000, 2)), this.fromAccount,
+                        this.toAccount, "PV", this.dayBook.getId()))));
+            }
+            Thread.sleep(200);
+            dao.close();
+
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get(5, TimeUnit.SECONDS).booleanValue());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(THREADS, dao.getTransactionsForDayBook(this.dayBook).size());
+    }
+}
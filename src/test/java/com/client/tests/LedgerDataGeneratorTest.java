@@ -0,0 +1,129 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.sqlite.BalanceDataAccessObject;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.LedgerDataGenerator;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+
+public class LedgerDataGeneratorTest extends AbstractTomcatJndi {
+
+    private static final String SQL_FINGERPRINT = "SELECT COUNT(*), "
+        + "SUM(ledger.amount * ledger.journal_id), SUM(ledger.account_id * journal.daybook_id), "
+        + "MAX(journal.date) FROM ledger INNER JOIN journal ON journal.id = ledger.journal_id";
+    private static final String SQL_SCHEMA_OBJECTS =
+        "SELECT COUNT(*) FROM sqlite_master WHERE type IN ('index', 'trigger')";
+
+    private Injector injector;
+
+    @Before
+    public void setup() {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule()
+            );
+        injector.getInstance(DatabaseManager.class).createTables();
+    }
+
+    @After
+    public void teardown() {
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void generatesAConsistentLedger() throws SQLException {
+        int schemaObjects = count(SQL_SCHEMA_OBJECTS);
+        generator().generate(injector);
+
+        Assert.assertEquals(5000, count("SELECT COUNT(*) FROM journal"));
+        Assert.assertEquals(10000, count("SELECT COUNT(*) FROM ledger"));
+        Assert.assertEquals(0, count("SELECT SUM(amount) FROM ledger"));
+        Assert.assertEquals(schemaObjects, count(SQL_SCHEMA_OBJECTS));
+        Assert.assertTrue(
+            injector.getInstance(BalanceDataAccessObject.class).checkBalances().isEmpty());
+        Assert.assertFalse(injector.getInstance(SearchDataAccessObject.class)
+            .searchTransactions("fuel", 10, null).getTransactions().isEmpty());
+    }
+
+    @Test
+    public void sameSeedSameLedger() throws SQLException {
+        generator().generate(injector);
+        String first = fingerprint();
+
+        DatabaseManager manager = injector.getInstance(DatabaseManager.class);
+        manager.dropTables();
+        manager.createTables();
+        generator().generate(injector);
+
+        Assert.assertEquals(first, fingerprint());
+    }
+
+    private static LedgerDataGenerator generator() {
+        return new LedgerDataGenerator(7)
+            .setAccounts(20)
+            .setPeriods(2)
+            .setDayBooksPerPeriod(3)
+            .setPostings(5000)
+            .setChunkSize(1500);
+    }
+
+    private String fingerprint() throws SQLException {
+        try (Connection conn = injector.getInstance(ConnectionManager.class).getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(SQL_FINGERPRINT)) {
+            rset.next();
+            return rset.getString(1) + "/" + rset.getString(2) + "/" + rset.getString(3) + "/"
+                + rset.getString(4);
+        }
+    }
+
+    private int count(String sql) throws SQLException {
+        try (Connection conn = injector.getInstance(ConnectionManager.class).getConnection();
+            Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(sql)) {
+            rset.next();
+            return rset.getInt(1);
+        }
+    }
+}
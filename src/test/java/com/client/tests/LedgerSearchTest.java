@@ -0,0 +1,113 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.sqlite.LedgerLine;
+import org.veary.pvs.sqlite.LedgerSearchFilter;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+
+public class LedgerSearchTest extends AbstractLedgerTest {
+
+    @Before
+    public void postings() throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2019, 1, 2), "Withdrawal",
+            money(5000), this.bank, this.cash, "PV001", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2019, 1, 20), "Fuel",
+            money(1000), this.cash, this.fuel, "PV002", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2019, 2, 5), "Fuel",
+            money(500), this.cash, this.fuel, "PV003", this.february.getId()));
+    }
+
+    @Test
+    public void emptyFilterReturnsEveryLine() {
+        List<LedgerLine> lines = search(new LedgerSearchFilter());
+        Assert.assertEquals(6, lines.size());
+        for (int i = 1; i < lines.size(); i++) {
+            Assert.assertFalse(lines.get(i).getDate().isBefore(lines.get(i - 1).getDate()));
+        }
+        Assert.assertEquals("PV001", lines.get(0).getReference());
+        Assert.assertEquals("Withdrawal", lines.get(0).getNarrative());
+    }
+
+    @Test
+    public void accountsAndDayBook() {
+        List<LedgerLine> lines = search(new LedgerSearchFilter()
+            .setAccounts(this.cash)
+            .setDayBook(this.january));
+        Assert.assertEquals(2, lines.size());
+        Assert.assertEquals("Cash", lines.get(0).getAccountName());
+        assertMoney(money(5000), lines.get(0).getAmount());
+        assertMoney(money(-1000), lines.get(1).getAmount());
+
+        Assert.assertEquals(3, search(new LedgerSearchFilter()
+            .setAccounts(this.bank, this.fuel)
+            .setPeriod(this.period)).size());
+    }
+
+    @Test
+    public void datesAmountsAndReference() {
+        List<LedgerLine> lines = search(new LedgerSearchFilter()
+            .setDateRange(LocalDate.of(2019, 1, 15), null));
+        Assert.assertEquals(4, lines.size());
+
+        lines = search(new LedgerSearchFilter()
+            .setAmountRange(money(800), money(1200)));
+        Assert.assertEquals(2, lines.size());
+        for (LedgerLine line : lines) {
+            Assert.assertEquals("PV002", line.getReference());
+        }
+
+        lines = search(new LedgerSearchFilter()
+            .setReference("PV003")
+            .setAccounts(this.fuel));
+        Assert.assertEquals(1, lines.size());
+        Assert.assertEquals(this.fuel.getId(), lines.get(0).getAccountId());
+        Assert.assertEquals(LocalDate.of(2019, 2, 5), lines.get(0).getDate());
+
+        Assert.assertTrue(search(new LedgerSearchFilter()
+            .setDateRange(LocalDate.of(2019, 3, 1), LocalDate.of(2019, 3, 31))).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invertedDateRange() {
+        new LedgerSearchFilter().setDateRange(LocalDate.of(2019, 2, 1), LocalDate.of(2019, 1, 1));
+    }
+
+    private List<LedgerLine> search(LedgerSearchFilter filter) {
+        List<LedgerLine> lines = new ArrayList<>();
+        injector.getInstance(SearchDataAccessObject.class).searchLedger(filter, lines::add);
+        return lines;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import java.time.LocalDate;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.dao.SystemDataAccessObject;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.PeriodCloseDataAccessObject;
+import org.veary.pvs.sqlite.PeriodClosing;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+public class PeriodCloseTest extends AbstractLedgerTest {
+
+    @Before
+    public void postings() throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2019, 1, 20), "Fuel",
+            money(1000), this.cash, this.fuel, "PV001", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2019, 1, 21), "Fuel",
+            money(250), this.cash, this.fuel, "PV002", this.january.getId()));
+    }
+
+    @Test
+    public void closingSnapshotsTheBalances() {
+        PeriodCloseDataAccessObject dao = injector.getInstance(PeriodCloseDataAccessObject.class);
+        Assert.assertFalse(dao.isClosed(this.period));
+        Assert.assertFalse(dao.getClosing(this.period).isPresent());
+
+        PeriodClosing closing = dao.closePeriod(this.period);
+        Assert.assertTrue(dao.isClosed(this.period));
+        Assert.assertEquals(this.period.getId(), closing.getPeriodId());
+        Assert.assertEquals(LocalDate.now(), closing.getClosedOn());
+        Assert.assertFalse(closing.isArchived());
+        Assert.assertEquals(2, closing.getClosingBalances().size());
+        assertMoney(money(1250),
+            closing.getClosingBalances().get(Integer.valueOf(this.fuel.getId())));
+        assertMoney(money(-1250),
+            closing.getClosingBalances().get(Integer.valueOf(this.cash.getId())));
+
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertEquals(2, facade.getTransactionsForDayBook(this.january).size());
+    }
+
+    @Test
+    public void closedPeriodStaysReadable() {
+        injector.getInstance(PeriodCloseDataAccessObject.class).closePeriod(this.period);
+
+        SearchDataAccessObject search = injector.getInstance(SearchDataAccessObject.class);
+        Assert.assertEquals(1, search.searchTransactions("PV002", 10, null)
+            .getTransactions().size());
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        Assert.assertEquals(2, dao.getTransactionPage(10, null).getTransactions().size());
+        Assert.assertEquals(2, dao.getTransactionPageForDayBook(this.january, 10, null)
+            .getTransactions().size());
+        Assert.assertEquals(2, dao.getTransactionsBetween(LocalDate.of(2019, 1, 1),
+            LocalDate.of(2019, 1, 31)).size());
+    }
+
+    @Test
+    public void onlyBalanceSheetAccountsCarryForward() throws ApiException {
+        PeriodCloseDataAccessObject dao = injector.getInstance(PeriodCloseDataAccessObject.class);
+        dao.closePeriod(this.period);
+
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        Period next = periodFacade.getPeriodById(periodFacade.createPeriod("NEXT")).get();
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("NEXT-January", next.getId());
+        DayBook nextJanuary = bookFacade.getDayBookByName("NEXT-January").get();
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(LocalDate.of(2020, 1, 20), "Fuel",
+            money(300), this.cash, this.fuel, "PV003", nextJanuary.getId()));
+
+        PeriodClosing closing = dao.closePeriod(next);
+        Assert.assertEquals(2, closing.getClosingBalances().size());
+        assertMoney(money(300),
+            closing.getClosingBalances().get(Integer.valueOf(this.fuel.getId())));
+        assertMoney(money(-1550),
+            closing.getClosingBalances().get(Integer.valueOf(this.cash.getId())));
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void closedPeriodRejectsPostings() {
+        injector.getInstance(PeriodCloseDataAccessObject.class).closePeriod(this.period);
+        injector.getInstance(SystemDataAccessObject.class).postTransaction(
+            LocalDate.of(2019, 1, 31), "Late", money(100), this.cash, this.fuel, "PV003",
+            this.january.getId());
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void periodIsClosedOnlyOnce() {
+        PeriodCloseDataAccessObject dao = injector.getInstance(PeriodCloseDataAccessObject.class);
+        dao.closePeriod(this.period);
+        dao.closePeriod(this.period);
+    }
+}
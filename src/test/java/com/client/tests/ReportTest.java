@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.client.tests;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.sqlite.AccountTypeTotals;
+import org.veary.pvs.sqlite.ReportDataAccessObject;
+import org.veary.pvs.sqlite.TrialBalanceLine;
+
+public class ReportTest extends AbstractLedgerTest {
+
+    @Before
+    public void postings() throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Withdrawal", money(5000),
+            this.bank, this.cash, "PV001", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Fuel", money(1000),
+            this.cash, this.fuel, "PV002", this.january.getId()));
+        Assert.assertTrue(facade.postTransaction(LocalDate.now(), "Fuel", money(500),
+            this.cash, this.fuel, "PV003", this.february.getId()));
+    }
+
+    @Test
+    public void trialBalanceForDayBook() {
+        ReportDataAccessObject dao = injector.getInstance(ReportDataAccessObject.class);
+        List<TrialBalanceLine> lines = new ArrayList<>();
+        dao.trialBalance(this.january, lines::add);
+
+        Assert.assertEquals(3, lines.size());
+        Assert.assertTrue(lines.indexOf(find(lines, this.bank))
+            < lines.indexOf(find(lines, this.cash)));
+        TrialBalanceLine cashLine = find(lines, this.cash);
+        Assert.assertEquals(Type.ASSET, cashLine.getAccountType());
+        assertMoney(money(5000), cashLine.getDebit());
+        assertMoney(money(1000), cashLine.getCredit());
+        assertMoney(money(4000), cashLine.getNet());
+        Assert.assertEquals(Type.EXPENSE, find(lines, this.fuel).getAccountType());
+    }
+
+    @Test
+    public void trialBalanceForPeriodBalances() {
+        ReportDataAccessObject dao = injector.getInstance(ReportDataAccessObject.class);
+        List<TrialBalanceLine> lines = new ArrayList<>();
+        dao.trialBalance(this.period, lines::add);
+
+        Assert.assertEquals(3, lines.size());
+        assertMoney(money(1500), find(lines, this.fuel).getNet());
+
+        List<AccountTypeTotals> totals = dao.getAccountTypeTotals(this.period);
+        Assert.assertEquals(2, totals.size());
+        AccountTypeTotals assets = find(totals, Type.ASSET);
+        assertMoney(money(-1500), assets.getNet());
+        assertMoney(money(6500), assets.getCredit());
+        assertMoney(money(1500), find(totals, Type.EXPENSE).getNet());
+
+        totals = dao.getAccountTypeTotals(this.january);
+        assertMoney(money(-1000), find(totals, Type.ASSET).getNet());
+    }
+
+    private static TrialBalanceLine find(List<TrialBalanceLine> lines, Account account) {
+        for (TrialBalanceLine line : lines) {
+            if (line.getAccountId() == account.getId()) {
+                return line;
+            }
+        }
+        throw new AssertionError("Cannot find: " + account.getName());
+    }
+
+    private static AccountTypeTotals find(List<AccountTypeTotals> totals, Type type) {
+        for (AccountTypeTotals total : totals) {
+            if (total.getType() == type) {
+                return total;
+            }
+        }
+        throw new AssertionError("Cannot find: " + type);
+    }
+}
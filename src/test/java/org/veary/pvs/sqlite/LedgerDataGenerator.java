@@ -0,0 +1,312 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.inject.Injector;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.model.Account;
+
+/**
+ * Fills a schema created by {@link DatabaseManager#createTables()} with a synthetic ledger for
+ * load and scale tests. The same seed and sizes always produce the same rows.
+ *
+ * <p>The rows are written with explicit ids through batched prepared statements on one
+ * connection, bypassing the DAOs. While they are written the secondary indexes and the
+ * full-text triggers of {@code journal} and {@code ledger} are dropped and
+ * {@code synchronous} is {@code OFF}; afterwards the indexes and triggers are recreated, the
+ * full-text index is rebuilt and the balances are recomputed from the ledger.
+ * <pre>
+ * new LedgerDataGenerator(42).setAccounts(500).setPostings(10_000_000).generate(injector);
+ * </pre>
+ */
+public final class LedgerDataGenerator {
+
+    private static final String[] WORDS = { "fuel", "tyres", "stationery", "salary", "rent",
+        "electricity", "water", "travel", "per diem", "airtime", "printer", "cement", "transport",
+        "repairs", "insurance", "bank charges", "allowance", "spares", "internet", "security" };
+
+    private static final int BATCH_SIZE = 10000;
+
+    private final long seed;
+    private int accounts = 200;
+    private int periods = 2;
+    private int dayBooksPerPeriod = 12;
+    private int postings = 100000;
+    private int chunkSize = 200000;
+
+    /**
+     * Constructor.
+     *
+     * @param seed the seed of the random values
+     */
+    public LedgerDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param accounts the number of accounts. Default: {@code 200}.
+     * @return this object
+     */
+    public LedgerDataGenerator setAccounts(int accounts) {
+        checkArgument(accounts > 1, "At least two accounts are needed");
+        this.accounts = accounts;
+        return this;
+    }
+
+    /**
+     * @param periods the number of periods, one per year from 2000. Default: {@code 2}.
+     * @return this object
+     */
+    public LedgerDataGenerator setPeriods(int periods) {
+        checkArgument(periods > 0 && periods <= 100, "The periods must be between 1 and 100");
+        this.periods = periods;
+        return this;
+    }
+
+    /**
+     * @param dayBooksPerPeriod the number of day books per period, one per month.
+     *        Default: {@code 12}.
+     * @return this object
+     */
+    public LedgerDataGenerator setDayBooksPerPeriod(int dayBooksPerPeriod) {
+        checkArgument(dayBooksPerPeriod > 0 && dayBooksPerPeriod <= 12,
+            "The day books per period must be between 1 and 12");
+        this.dayBooksPerPeriod = dayBooksPerPeriod;
+        return this;
+    }
+
+    /**
+     * @param postings the number of postings, each a journal row and two ledger rows, spread
+     *        evenly over the day books in date order. Default: {@code 100000}.
+     * @return this object
+     */
+    public LedgerDataGenerator setPostings(int postings) {
+        checkArgument(postings >= 0, "The postings cannot be negative");
+        this.postings = postings;
+        return this;
+    }
+
+    /**
+     * @param chunkSize the number of postings per SQLite transaction. Default: {@code 200000}.
+     * @return this object
+     */
+    public LedgerDataGenerator setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0, "The chunk size must be positive");
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Writes the ledger. The names of the generated accounts, periods and day books do not
+     * clash with the default data of {@code createTables()}.
+     *
+     * @param injector an injector with the SQLite modules installed
+     * @throws DataAccessException if the rows cannot be written
+     */
+    public void generate(Injector injector) {
+        SplittableRandom random = new SplittableRandom(this.seed);
+        ConnectionManager manager = injector.getInstance(ConnectionManager.class);
+
+        try (Connection conn = manager.getConnection()) {
+            int synchronous = queryInt(conn, "PRAGMA synchronous");
+            List<String> schema = dropIndexesAndTriggers(conn);
+            execute(conn, "PRAGMA synchronous=OFF");
+            try {
+                conn.setAutoCommit(false);
+                int[] accountIds = insertAccounts(conn);
+                int[] dayBookIds = insertPeriodsAndDayBooks(conn);
+                conn.commit();
+                insertPostings(conn, random, accountIds, dayBookIds);
+                conn.commit();
+            } finally {
+                if (!conn.getAutoCommit()) {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                for (String sql : schema) {
+                    execute(conn, sql);
+                }
+                execute(conn, "PRAGMA synchronous=" + synchronous);
+            }
+            execute(conn, "INSERT INTO journal_fts(journal_fts) VALUES ('delete-all')");
+            execute(conn, "INSERT INTO journal_fts(rowid, narrative, ref) "
+                + "SELECT id, narrative, ref FROM journal");
+            execute(conn, "ANALYZE");
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+
+        injector.getInstance(BalanceDataAccessObject.class).rebuildBalances();
+    }
+
+    private int[] insertAccounts(Connection conn) throws SQLException {
+        Account.Type[] types = Account.Type.values();
+        int first = queryInt(conn, "SELECT IFNULL(MAX(id), 0) + 1 FROM account");
+        int[] ids = new int[this.accounts];
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+            "INSERT INTO account(id, name, type) VALUES(?,?,?)")) {
+            for (int i = 0; i < this.accounts; i++) {
+                ids[i] = first + i;
+                stmt.setInt(1, ids[i]);
+                stmt.setString(2, String.format("Generated account %05d", Integer.valueOf(i)));
+                stmt.setInt(3, types[i % types.length].getValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        return ids;
+    }
+
+    /**
+     * @return the ids of the day books, in date order. Day book {@code i} is month
+     *         {@code i % dayBooksPerPeriod + 1} of year {@code 2000 + i / dayBooksPerPeriod}.
+     */
+    private int[] insertPeriodsAndDayBooks(Connection conn) throws SQLException {
+        int firstPeriod = queryInt(conn, "SELECT IFNULL(MAX(id), 0) + 1 FROM period");
+        int firstDayBook = queryInt(conn, "SELECT IFNULL(MAX(id), 0) + 1 FROM daybook");
+        int[] ids = new int[this.periods * this.dayBooksPerPeriod];
+
+        try (PreparedStatement period = conn.prepareStatement(
+            "INSERT INTO period(id, name) VALUES(?,?)");
+            PreparedStatement dayBook = conn.prepareStatement(
+                "INSERT INTO daybook(id, name, period_id) VALUES(?,?,?)")) {
+            for (int p = 0; p < this.periods; p++) {
+                String name = "Generated FY" + (2000 + p);
+                period.setInt(1, firstPeriod + p);
+                period.setString(2, name);
+                period.executeUpdate();
+
+                for (int m = 0; m < this.dayBooksPerPeriod; m++) {
+                    int index = p * this.dayBooksPerPeriod + m;
+                    ids[index] = firstDayBook + index;
+                    dayBook.setInt(1, ids[index]);
+                    dayBook.setString(2, String.format("%s-%02d", name, Integer.valueOf(m + 1)));
+                    dayBook.setInt(3, firstPeriod + p);
+                    dayBook.executeUpdate();
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void insertPostings(Connection conn, SplittableRandom random, int[] accountIds,
+        int[] dayBookIds) throws SQLException {
+        int firstJournal = queryInt(conn, "SELECT IFNULL(MAX(id), 0) + 1 FROM journal");
+
+        try (PreparedStatement journal = conn.prepareStatement(
+            "INSERT INTO journal(id, date, ref, narrative, daybook_id) VALUES(?,?,?,?,?)");
+            PreparedStatement ledger = conn.prepareStatement(
+                "INSERT INTO ledger(journal_id, account_id, amount) VALUES(?,?,?)")) {
+            for (int i = 0; i < this.postings; i++) {
+                int dayBook = (int) ((long) i * dayBookIds.length / this.postings);
+                int year = 2000 + dayBook / this.dayBooksPerPeriod;
+                int month = dayBook % this.dayBooksPerPeriod + 1;
+                int journalId = firstJournal + i;
+
+                journal.setInt(1, journalId);
+                journal.setString(2, LocalDate.of(year, month, 1 + random.nextInt(28)).toString());
+                journal.setString(3, "PV" + journalId);
+                journal.setString(4, WORDS[random.nextInt(WORDS.length)] + " for "
+                    + WORDS[random.nextInt(WORDS.length)]);
+                journal.setInt(5, dayBookIds[dayBook]);
+                journal.addBatch();
+
+                int from = random.nextInt(accountIds.length);
+                int to = (from + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+                long amount = 1 + random.nextInt(1000000);
+                addLedger(ledger, journalId, accountIds[from], -amount);
+                addLedger(ledger, journalId, accountIds[to], amount);
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    journal.executeBatch();
+                    ledger.executeBatch();
+                }
+                if ((i + 1) % this.chunkSize == 0) {
+                    conn.commit();
+                }
+            }
+            journal.executeBatch();
+            ledger.executeBatch();
+        }
+    }
+
+    private static void addLedger(PreparedStatement ledger, int journalId, int accountId,
+        long amount) throws SQLException {
+        ledger.setInt(1, journalId);
+        ledger.setInt(2, accountId);
+        ledger.setLong(3, amount);
+        ledger.addBatch();
+    }
+
+    /**
+     * Drops the secondary indexes and the triggers of the journal and the ledger.
+     * @return the statements which recreate them
+     */
+    private static List<String> dropIndexesAndTriggers(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<String> schema = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery("SELECT type, name, sql FROM sqlite_master "
+                + "WHERE type IN ('index', 'trigger') AND sql IS NOT NULL "
+                + "AND tbl_name IN ('journal', 'ledger')")) {
+            while (rset.next()) {
+                names.add("DROP " + rset.getString(1).toUpperCase() + " " + rset.getString(2));
+                schema.add(rset.getString(3));
+            }
+        }
+        for (String sql : names) {
+            execute(conn, sql);
+        }
+        return schema;
+    }
+
+    private static int queryInt(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+            ResultSet rset = stmt.executeQuery(sql)) {
+            rset.next();
+            return rset.getInt(1);
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+}
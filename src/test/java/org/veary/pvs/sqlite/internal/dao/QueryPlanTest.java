@@ -0,0 +1,233 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.internal.dao;
+
+import com.client.tests.AbstractTomcatJndi;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqliteModule;
+import org.veary.pvs.sqlite.LedgerDataGenerator;
+import org.veary.pvs.sqlite.LedgerSearchFilter;
+
+/**
+ * Checks the {@code EXPLAIN QUERY PLAN} of the DAO queries so that a regression back to a full
+ * table scan is caught.
+ *
+ * <p>The planner of an empty, never analyzed database guesses its costs, so the plans are
+ * taken after {@link LedgerDataGenerator} has written a ledger and run {@code ANALYZE}.
+ */
+public class QueryPlanTest extends AbstractTomcatJndi {
+
+    /**
+     * Matches both the {@code SCAN TABLE x} (before SQLite 3.36) and the {@code SCAN x} forms.
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("^SCAN (TABLE )?\\w+.*");
+
+    private Injector injector;
+
+    @Before
+    public void setup() {
+        tomcatJndiSetup();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqliteModule()
+            );
+        injector.getInstance(DatabaseManager.class).createTables();
+        new LedgerDataGenerator(11)
+            .setAccounts(50)
+            .setDayBooksPerPeriod(3)
+            .setPostings(5000)
+            .generate(injector);
+    }
+
+    @After
+    public void teardown() {
+        injector.getInstance(DatabaseManager.class).dropTables();
+        this.tomcatJNDI.tearDown();
+    }
+
+    @Test
+    public void accountQueries() throws SQLException {
+        assertNoFullScan(AccountDataAccessObjectImpl.SQL_GET_BY_ID);
+        assertNoFullScan(AccountDataAccessObjectImpl.SQL_GET_BY_NAME);
+    }
+
+    @Test
+    public void periodQueries() throws SQLException {
+        assertNoFullScan(PeriodDataAccessObjectImpl.SQL_GET_BY_ID);
+        assertNoFullScan(PeriodDataAccessObjectImpl.SQL_GET_BY_NAME);
+    }
+
+    @Test
+    public void dayBookQueries() throws SQLException {
+        assertNoFullScan(DayBookDataAccessObjectImpl.SQL_GET_BY_ID);
+        assertNoFullScan(DayBookDataAccessObjectImpl.SQL_GET_BY_NAME);
+    }
+
+    @Test
+    public void transactionQueries() throws SQLException {
+        assertNoFullScan(SystemDataAccessObjectImpl.SQL_TRANSACTIONS_FOR_DAYBOOK);
+        assertNoFullScan(SystemDataAccessObjectImpl.SQL_TRANSACTIONS_FOR_ACCOUNT_IN_DAYBOOK);
+        assertNoFullScan(SystemDataAccessObjectImpl.SQL_TRANSACTIONS_BETWEEN);
+        assertNoFullScan(SystemDataAccessObjectImpl.SQL_TRANSACTIONS_FOR_ACCOUNT_BETWEEN);
+    }
+
+    @Test
+    public void balanceQueries() throws SQLException {
+        assertNoFullScan(BalanceDataAccessObjectImpl.SQL_ACCOUNT_BALANCE);
+        assertNoFullScan(BalanceDataAccessObjectImpl.SQL_ACCOUNT_BALANCE_FOR_DAYBOOK);
+        assertNoFullScan(BalanceDataAccessObjectImpl.SQL_ACCOUNT_BALANCE_FOR_PERIOD);
+        assertNoFullScan(BalanceDataAccessObjectImpl.SQL_BALANCES_FOR_DAYBOOK);
+        assertNoFullScan(BalanceDataAccessObjectImpl.SQL_BALANCES_FOR_PERIOD);
+    }
+
+    @Test
+    public void reportQueries() throws SQLException {
+        assertNoFullScan(ReportDataAccessObjectImpl.SQL_TRIAL_BALANCE_FOR_DAYBOOK);
+        assertNoFullScan(ReportDataAccessObjectImpl.SQL_TRIAL_BALANCE_FOR_PERIOD);
+        assertNoFullScan(ReportDataAccessObjectImpl.SQL_TYPE_TOTALS_FOR_DAYBOOK);
+        assertNoFullScan(ReportDataAccessObjectImpl.SQL_TYPE_TOTALS_FOR_PERIOD);
+    }
+
+    @Test
+    public void pageQueriesWalkAJournalIndex() throws SQLException {
+        for (String sql : new String[] { SystemDataAccessObjectImpl.SQL_PAGE,
+            SystemDataAccessObjectImpl.SQL_NEXT_PAGE,
+            SystemDataAccessObjectImpl.SQL_PAGE_FOR_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_NEXT_PAGE_FOR_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_PAGE_FOR_ACCOUNT_IN_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_NEXT_PAGE_FOR_ACCOUNT_IN_DAYBOOK }) {
+            for (String detail : explain(sql)) {
+                // the page itself is a small subquery result
+                if (FULL_SCAN.matcher(detail).matches() && !detail.contains("page")) {
+                    Assert.assertTrue(sql + " -> " + detail,
+                        detail.contains("journal") && detail.contains(" INDEX "));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void dayBookQueriesInTheMainDatabase() throws SQLException {
+        for (String sql : new String[] { SystemDataAccessObjectImpl.SQL_TRANSACTIONS_FOR_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_TRANSACTIONS_FOR_ACCOUNT_IN_DAYBOOK }) {
+            String inMain = SystemDataAccessObjectImpl.inMainDatabase(sql);
+            Assert.assertTrue(inMain, inMain.contains("FROM main.journal AS journal"));
+            assertNoFullScan(inMain);
+        }
+        for (String sql : new String[] { SystemDataAccessObjectImpl.SQL_PAGE_FOR_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_NEXT_PAGE_FOR_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_PAGE_FOR_ACCOUNT_IN_DAYBOOK,
+            SystemDataAccessObjectImpl.SQL_NEXT_PAGE_FOR_ACCOUNT_IN_DAYBOOK }) {
+            String inMain = SystemDataAccessObjectImpl.inMainDatabase(sql);
+            Assert.assertTrue(inMain, inMain.contains("JOIN main.ledger AS ledger"));
+            for (String detail : explain(inMain)) {
+                Assert.assertFalse(inMain + " -> " + detail,
+                    detail.startsWith("SCAN ") && !detail.contains("page")
+                    && !detail.contains(" INDEX "));
+            }
+        }
+    }
+
+    @Test
+    public void ledgerSearchCriteriaUseAnIndex() throws SQLException, ApiException {
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        accountFacade.createAccount("Cash", Type.ASSET);
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        Period period = periodFacade.getPeriodById(periodFacade.createPeriod("YEAR")).get();
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("January", period.getId());
+
+        for (LedgerSearchFilter filter : new LedgerSearchFilter[] {
+            new LedgerSearchFilter().setAccounts(accountFacade.getAccountByName("Cash").get()),
+            new LedgerSearchFilter().setDayBook(bookFacade.getDayBookByName("January").get()),
+            new LedgerSearchFilter().setPeriod(period),
+            new LedgerSearchFilter().setDateRange(LocalDate.of(2019, 1, 1),
+                LocalDate.of(2019, 1, 31)),
+            new LedgerSearchFilter().setReference("PV001") }) {
+            assertNoFullScan(new LedgerSearchQuery(filter).getSql());
+        }
+    }
+
+    @Test
+    public void allTransactionsOnlyScansJournal() throws SQLException {
+        for (String detail : explain(SystemDataAccessObjectImpl.SQL_TRANSACTIONS)) {
+            if (FULL_SCAN.matcher(detail).matches()) {
+                Assert.assertTrue(detail, detail.contains("journal"));
+            }
+        }
+    }
+
+    private void assertNoFullScan(String sql) throws SQLException {
+        for (String detail : explain(sql)) {
+            Assert.assertFalse(sql + " -> " + detail, FULL_SCAN.matcher(detail).matches());
+        }
+    }
+
+    private List<String> explain(String sql) throws SQLException {
+        List<String> details = new ArrayList<>();
+        ConnectionManager manager = injector.getInstance(ConnectionManager.class);
+
+        try (Connection conn = manager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+                int count = stmt.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= count; i++) {
+                    stmt.setObject(i, "1");
+                }
+                try (ResultSet rset = stmt.executeQuery()) {
+                    while (rset.next()) {
+                        details.add(rset.getString("detail"));
+                    }
+                }
+            }
+        }
+
+        Assert.assertFalse(details.isEmpty());
+        return details;
+    }
+}
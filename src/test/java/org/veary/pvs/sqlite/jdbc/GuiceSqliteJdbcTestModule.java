@@ -28,8 +28,11 @@ import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.sql.DataSource;
 
+import org.veary.pvs.sqlite.BackupService;
 import org.veary.pvs.sqlite.ConnectionManager;
 import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.MaintenanceService;
+import org.veary.pvs.sqlite.PeriodShardManager;
 
 import com.google.inject.AbstractModule;
 import com.google.inject.jndi.JndiIntegration;
@@ -43,5 +46,8 @@ public class GuiceSqliteJdbcTestModule extends AbstractModule {
             JndiIntegration.fromJndi(DataSource.class, "java:/comp/env/jdbc/pvs")); //$NON-NLS-1$
         bind(ConnectionManager.class).to(JndiConnectionManagerMock.class);
         bind(DatabaseManager.class).to(DatabaseManagerImpl.class);
+        bind(BackupService.class).to(SqliteBackupService.class);
+        bind(MaintenanceService.class).to(SqliteMaintenanceService.class);
+        bind(PeriodShardManager.class).toInstance(PeriodShardManager.NONE);
     }
 }
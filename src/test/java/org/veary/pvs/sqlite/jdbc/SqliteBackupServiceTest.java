@@ -0,0 +1,128 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.sqlite.BackupResult;
+import org.veary.pvs.sqlite.BackupService;
+import org.veary.pvs.sqlite.BackupSettings;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqlitePooledModule;
+
+public class SqliteBackupServiceTest {
+
+    private static final String URL = "jdbc:sqlite:./target/pvs-pooled.db";
+    private static final File BACKUP = new File("./target/pvs-backup.db");
+
+    private Injector injector;
+
+    @Before
+    public void setup() throws ApiException {
+        BACKUP.delete();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(new ConnectionPoolSettings(URL)
+                .setReaderConnections(2)),
+            binder -> binder.bind(BackupSettings.class).toInstance(
+                new BackupSettings().setStepPauseMillis(1))
+            );
+        injector.getInstance(DatabaseManager.class).createTables();
+        injector.getInstance(AccountFacade.class).createAccount("Cash", Type.ASSET);
+    }
+
+    @After
+    public void teardown() {
+        injector.getInstance(DatabaseManager.class).dropTables();
+        ((SqliteConnectionManager) injector.getInstance(ConnectionManager.class)).close();
+        BACKUP.delete();
+    }
+
+    @Test
+    public void onlineBackupReportsProgress() throws SQLException {
+        AtomicInteger steps = new AtomicInteger();
+        BackupResult result = injector.getInstance(BackupService.class).backup(BACKUP,
+            (remaining, pageCount) -> {
+                Assert.assertTrue(remaining <= pageCount);
+                steps.incrementAndGet();
+            });
+
+        Assert.assertTrue(steps.get() > 0);
+        Assert.assertTrue(result.getPageCount() > 0);
+        Assert.assertEquals(BACKUP, result.getDestination());
+        Assert.assertEquals(1, countAccounts(BACKUP));
+    }
+
+    @Test
+    public void snapshotWithVacuumInto() throws SQLException {
+        BackupResult result = injector.getInstance(BackupService.class).snapshot(BACKUP);
+
+        Assert.assertTrue(result.getPageCount() > 0);
+        Assert.assertFalse(new File(BACKUP.getPath() + ".part").exists());
+        Assert.assertEquals(1, countAccounts(BACKUP));
+
+        // the read connection is query_only again
+        try (Connection conn = injector.getInstance(ConnectionManager.class)
+            .getReadConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery("PRAGMA query_only")) {
+                    Assert.assertTrue(rset.next());
+                    Assert.assertEquals(1, rset.getInt(1));
+                }
+            }
+        }
+    }
+
+    private static int countAccounts(File file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getPath())) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery(
+                    "SELECT COUNT(*) FROM account WHERE name='Cash'")) {
+                    Assert.assertTrue(rset.next());
+                    return rset.getInt(1);
+                }
+            }
+        }
+    }
+}
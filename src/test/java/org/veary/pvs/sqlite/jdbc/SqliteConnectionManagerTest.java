@@ -0,0 +1,368 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.sqlite.AsyncDataAccessObject;
+import org.veary.pvs.sqlite.CacheStatistics;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqlitePooledModule;
+
+public class SqliteConnectionManagerTest {
+
+    private static final String URL = "jdbc:sqlite:./target/pvs-pooled.db";
+
+    private SqliteConnectionManager manager;
+
+    @After
+    public void teardown() {
+        if (this.manager != null) {
+            this.manager.close();
+        }
+    }
+
+    @Test
+    public void pragmasAreApplied() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setBusyTimeoutMillis(2500));
+
+        try (Connection conn = this.manager.getConnection()) {
+            Assert.assertEquals("wal", pragma(conn, "journal_mode"));
+            Assert.assertEquals("2500", pragma(conn, "busy_timeout"));
+            Assert.assertEquals("2", pragma(conn, "temp_store"));
+        }
+    }
+
+    @Test
+    public void connectionsAreReused() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setMaxConnections(1));
+
+        Connection first;
+        try (Connection conn = this.manager.getConnection()) {
+            first = conn.unwrap(Connection.class);
+        }
+        try (Connection conn = this.manager.getConnection()) {
+            Assert.assertSame(first, conn.unwrap(Connection.class));
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void poolIsBounded() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setMaxConnections(1)
+            .setAcquireTimeoutMillis(50));
+
+        try (Connection conn = this.manager.getConnection()) {
+            Assert.assertNotNull(conn);
+            this.manager.getConnection();
+        }
+    }
+
+    @Test
+    public void waiterIsWokenWhenAConnectionIsDiscarded() throws Exception {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setReaderConnections(1)
+            .setAcquireTimeoutMillis(5000));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Boolean> waiter;
+            try (Connection conn = this.manager.getReadConnection()) {
+                Assert.assertNotNull(conn);
+                waiter = executor.submit(() -> {
+                    try (Connection next = this.manager.getReadConnection()) {
+                        return Boolean.valueOf(next != null);
+                    }
+                });
+                Thread.sleep(100);
+                // the connection in use is retired, so it is discarded, not reused
+                this.manager.refreshReaders();
+            }
+            Assert.assertTrue(waiter.get(1, TimeUnit.SECONDS).booleanValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void returnedConnectionCannotBeUsed() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL));
+
+        Connection conn = this.manager.getConnection();
+        conn.close();
+        Assert.assertTrue(conn.isClosed());
+        try {
+            conn.createStatement();
+            Assert.fail("A returned connection must not be usable");
+        } catch (SQLException e) {
+            Assert.assertNotNull(e.getMessage());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleWriterRequiresWal() {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setJournalMode("DELETE")
+            .setReaderConnections(2));
+    }
+
+    @Test(expected = SQLException.class)
+    public void readersAreQueryOnly() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setReaderConnections(2));
+
+        try (Connection conn = this.manager.getReadConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE reader_test (id INTEGER)");
+            }
+        }
+    }
+
+    @Test
+    public void readersAreNotBlockedByTheWriter() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setReaderConnections(2)
+            .setAcquireTimeoutMillis(50));
+
+        try (Connection writer = this.manager.getConnection()) {
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS wal_test (id INTEGER)");
+                stmt.execute("DELETE FROM wal_test");
+            }
+
+            writer.setAutoCommit(false);
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("INSERT INTO wal_test(id) VALUES(1)");
+            }
+
+            try (Connection reader = this.manager.getReadConnection()) {
+                Assert.assertEquals(0, count(reader, "wal_test"));
+            }
+
+            writer.commit();
+            writer.setAutoCommit(true);
+
+            try (Connection reader = this.manager.getReadConnection()) {
+                Assert.assertEquals(1, count(reader, "wal_test"));
+            }
+
+            try (Statement stmt = writer.createStatement()) {
+                stmt.execute("DROP TABLE wal_test");
+            }
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void thereIsOnlyOneWriter() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setReaderConnections(2)
+            .setAcquireTimeoutMillis(50));
+
+        try (Connection conn = this.manager.getConnection()) {
+            Assert.assertNotNull(conn);
+            this.manager.getConnection();
+        }
+    }
+
+    @Test
+    public void statementsAreCachedPerConnection() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setMaxConnections(1));
+        CacheStatistics stats = this.manager.getStatementCacheStatistics();
+
+        PreparedStatement first;
+        try (Connection conn = this.manager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT ?")) {
+                first = stmt.unwrap(PreparedStatement.class);
+                stmt.setInt(1, 1);
+                Assert.assertSame(conn, stmt.getConnection());
+            }
+        }
+        try (Connection conn = this.manager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT ?")) {
+                Assert.assertSame(first, stmt.unwrap(PreparedStatement.class));
+                stmt.setInt(1, 2);
+                try (ResultSet rset = stmt.executeQuery()) {
+                    Assert.assertTrue(rset.next());
+                    Assert.assertEquals(2, rset.getInt(1));
+                }
+            }
+        }
+
+        Assert.assertEquals(1, stats.getMissCount());
+        Assert.assertEquals(1, stats.getHitCount());
+    }
+
+    @Test
+    public void statementInUseIsNotShared() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL));
+
+        try (Connection conn = this.manager.getConnection()) {
+            try (PreparedStatement outer = conn.prepareStatement("SELECT 1");
+                PreparedStatement inner = conn.prepareStatement("SELECT 1")) {
+                Assert.assertNotSame(outer.unwrap(PreparedStatement.class),
+                    inner.unwrap(PreparedStatement.class));
+            }
+        }
+        Assert.assertEquals(0, this.manager.getStatementCacheStatistics().getHitCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedStatementIsEvicted() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setStatementCacheSize(2));
+
+        try (Connection conn = this.manager.getConnection()) {
+            for (String sql : new String[] { "SELECT 1", "SELECT 2", "SELECT 1", "SELECT 3",
+                "SELECT 1", "SELECT 2" }) {
+                conn.prepareStatement(sql).close();
+            }
+        }
+
+        CacheStatistics stats = this.manager.getStatementCacheStatistics();
+        Assert.assertEquals(2, stats.getHitCount());
+        Assert.assertEquals(4, stats.getMissCount());
+        Assert.assertEquals(2, stats.getEvictionCount());
+    }
+
+    @Test
+    public void returnedStatementCannotBeUsed() throws SQLException {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL));
+
+        try (Connection conn = this.manager.getConnection()) {
+            PreparedStatement stmt = conn.prepareStatement("SELECT 1");
+            stmt.close();
+            Assert.assertTrue(stmt.isClosed());
+            try {
+                stmt.executeQuery();
+                Assert.fail("A returned statement must not be usable");
+            } catch (SQLException e) {
+                Assert.assertNotNull(e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void pooledModule() throws ApiException {
+        Injector injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(new ConnectionPoolSettings(URL))
+            );
+        DatabaseManager dbManager = injector.getInstance(DatabaseManager.class);
+        dbManager.createTables();
+
+        AccountFacade facade = injector.getInstance(AccountFacade.class);
+        Assert.assertTrue(facade.createAccount("Cash", Type.ASSET) > 0);
+        Assert.assertTrue(facade.getAccountByName("Cash").isPresent());
+
+        dbManager.dropTables();
+        ((SqliteConnectionManager) injector.getInstance(ConnectionManager.class)).close();
+    }
+
+    @Test
+    public void readConnectionLimitFollowsThePool() {
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setMaxConnections(6));
+        Assert.assertEquals(6, this.manager.getReadConnectionLimit());
+        this.manager.close();
+
+        this.manager = new SqliteConnectionManager(new ConnectionPoolSettings(URL)
+            .setReaderConnections(3));
+        Assert.assertEquals(3, this.manager.getReadConnectionLimit());
+    }
+
+    @Test
+    public void asyncReadsAreLimitedToTheReaders() {
+        Injector injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(new ConnectionPoolSettings(URL).setReaderConnections(2))
+            );
+        AsyncDataAccessObject async = injector.getInstance(AsyncDataAccessObject.class);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(async.supplyRead(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                return Integer.valueOf(peak.get());
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        Assert.assertTrue(peak.get() <= 2);
+        ((SqliteConnectionManager) injector.getInstance(ConnectionManager.class)).close();
+    }
+
+    private static int count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rset = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                Assert.assertTrue(rset.next());
+                return rset.getInt(1);
+            }
+        }
+    }
+
+    private static String pragma(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rset = stmt.executeQuery("PRAGMA " + name)) {
+                Assert.assertTrue(rset.next());
+                return rset.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqlitePooledModule;
+import org.veary.pvs.sqlite.MaintenanceReport;
+import org.veary.pvs.sqlite.MaintenanceService;
+import org.veary.pvs.sqlite.MaintenanceSettings;
+
+public class SqliteMaintenanceServiceTest {
+
+    private static final String DB = "./target/pvs-maintenance.db";
+
+    private final CountDownLatch scheduled = new CountDownLatch(1);
+    private Injector injector;
+
+    @Before
+    public void setup() {
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            new File(DB + suffix).delete();
+        }
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(new ConnectionPoolSettings("jdbc:sqlite:" + DB)
+                .setReaderConnections(2)),
+            binder -> binder.bind(MaintenanceSettings.class).toInstance(
+                new MaintenanceSettings()
+                    .setIntervalMillis(10)
+                    .setCheckpointMode("TRUNCATE")
+                    .setVacuumPagesPerSlice(16)
+                    .setListener(report -> this.scheduled.countDown()))
+            );
+        injector.getInstance(DatabaseManager.class).createTables();
+    }
+
+    @After
+    public void teardown() {
+        injector.getInstance(MaintenanceService.class).close();
+        injector.getInstance(DatabaseManager.class).dropTables();
+        ((SqliteConnectionManager) injector.getInstance(ConnectionManager.class)).close();
+    }
+
+    @Test
+    public void runReleasesFreePages() throws SQLException {
+        int free;
+        try (Connection conn = injector.getInstance(ConnectionManager.class).getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                Assert.assertEquals(2, pragma(stmt, "auto_vacuum"));
+                stmt.execute("CREATE TABLE filler (data BLOB)");
+                for (int i = 0; i < 100; i++) {
+                    stmt.execute("INSERT INTO filler(data) VALUES (zeroblob(8192))");
+                }
+                stmt.execute("DROP TABLE filler");
+                free = pragma(stmt, "freelist_count");
+                Assert.assertTrue(free > 0);
+            }
+        }
+
+        MaintenanceService service = injector.getInstance(MaintenanceService.class);
+        MaintenanceReport report = service.runNow();
+        Assert.assertEquals(3, report.getSteps().size());
+        Assert.assertEquals("wal_checkpoint(TRUNCATE)", report.getSteps().get(0).getName());
+        Assert.assertEquals("optimize", report.getSteps().get(1).getName());
+        Assert.assertEquals("incremental_vacuum", report.getSteps().get(2).getName());
+        Assert.assertSame(report, service.getLastReport().get());
+
+        try (Connection conn = injector.getInstance(ConnectionManager.class).getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                Assert.assertTrue(pragma(stmt, "freelist_count") < free);
+            }
+        }
+    }
+
+    @Test
+    public void optimizeWritesStatistics() throws SQLException {
+        ConnectionManager manager = injector.getInstance(ConnectionManager.class);
+        try (Connection conn = manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE filler (id INTEGER, name TEXT)");
+                stmt.execute("CREATE INDEX filler_name_idx ON filler(name)");
+                for (int i = 0; i < 100; i++) {
+                    stmt.execute("INSERT INTO filler(id, name) VALUES (" + i + ", 'n" + i + "')");
+                }
+            }
+        }
+
+        MaintenanceService service = injector.getInstance(MaintenanceService.class);
+        Assert.assertEquals("analyzed: no statistics yet",
+            service.runNow().getSteps().get(1).getOutcome());
+        try (Connection conn = manager.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rset = stmt.executeQuery(
+                    "SELECT COUNT(*) FROM sqlite_stat1 WHERE idx='filler_name_idx'")) {
+                    Assert.assertTrue(rset.next());
+                    Assert.assertEquals(1, rset.getInt(1));
+                }
+            }
+        }
+        Assert.assertEquals("done", service.runNow().getSteps().get(1).getOutcome());
+    }
+
+    @Test
+    public void scheduledRunsReport() throws InterruptedException {
+        MaintenanceService service = injector.getInstance(MaintenanceService.class);
+        service.start();
+        Assert.assertTrue(this.scheduled.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(service.getLastReport().isPresent());
+    }
+
+    @Test
+    public void windowSpanningMidnight() {
+        MaintenanceSettings settings = new MaintenanceSettings()
+            .setWindow(LocalTime.of(22, 0), LocalTime.of(6, 0));
+        Assert.assertTrue(settings.isInWindow(LocalTime.of(23, 30)));
+        Assert.assertTrue(settings.isInWindow(LocalTime.of(5, 59)));
+        Assert.assertFalse(settings.isInWindow(LocalTime.of(12, 0)));
+    }
+
+    private static int pragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rset = stmt.executeQuery("PRAGMA " + name)) {
+            Assert.assertTrue(rset.next());
+            return rset.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2019 ColonelBlimp
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.veary.pvs.sqlite.jdbc;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.veary.pvs.api.AccountFacade;
+import org.veary.pvs.api.AccountingSystemFacade;
+import org.veary.pvs.api.DayBookFacade;
+import org.veary.pvs.api.GuiceApiModule;
+import org.veary.pvs.api.PeriodFacade;
+import org.veary.pvs.core.Money;
+import org.veary.pvs.exceptions.ApiException;
+import org.veary.pvs.exceptions.DataAccessException;
+import org.veary.pvs.model.Account;
+import org.veary.pvs.model.Account.Type;
+import org.veary.pvs.model.DayBook;
+import org.veary.pvs.model.Period;
+import org.veary.pvs.sqlite.BackupResult;
+import org.veary.pvs.sqlite.BackupService;
+import org.veary.pvs.sqlite.BalanceDataAccessObject;
+import org.veary.pvs.sqlite.ConnectionManager;
+import org.veary.pvs.sqlite.ConnectionPoolSettings;
+import org.veary.pvs.sqlite.DatabaseManager;
+import org.veary.pvs.sqlite.GuiceSqlitePooledModule;
+import org.veary.pvs.sqlite.PeriodCloseDataAccessObject;
+import org.veary.pvs.sqlite.PeriodClosing;
+import org.veary.pvs.sqlite.PeriodShardManager;
+import org.veary.pvs.sqlite.SearchDataAccessObject;
+import org.veary.pvs.sqlite.SqliteSystemDataAccessObject;
+
+public class SqlitePeriodShardManagerTest {
+
+    private static final String DB = "./target/pvs-sharded.db";
+    private static final String SHARDS = "./target/pvs-shards";
+    private static final File BACKUP = new File("./target/pvs-sharded-backup.db");
+
+    private Injector injector;
+
+    private Period closed;
+    private DayBook closedBook;
+    private DayBook currentBook;
+    private Account cash;
+    private Account fuel;
+
+    @Before
+    public void setup() throws ApiException {
+        deleteFiles();
+        injector = Guice.createInjector(
+            new GuiceApiModule(),
+            new GuiceSqlitePooledModule(new ConnectionPoolSettings("jdbc:sqlite:" + DB)
+                .setReaderConnections(2)
+                .setPeriodShardDirectory(SHARDS))
+            );
+        injector.getInstance(DatabaseManager.class).createTables();
+
+        AccountFacade accountFacade = injector.getInstance(AccountFacade.class);
+        accountFacade.createAccount("Cash", Type.ASSET);
+        accountFacade.createAccount("Fuel", Type.EXPENSE);
+        this.cash = accountFacade.getAccountByName("Cash").get();
+        this.fuel = accountFacade.getAccountByName("Fuel").get();
+
+        PeriodFacade periodFacade = injector.getInstance(PeriodFacade.class);
+        DayBookFacade bookFacade = injector.getInstance(DayBookFacade.class);
+        bookFacade.createDayBook("FY1999-12", periodFacade.createPeriod("FY1999"));
+        bookFacade.createDayBook("FY2000-01", periodFacade.createPeriod("FY2000"));
+        this.closed = periodFacade.getPeriodByName("FY1999").get();
+        this.closedBook = bookFacade.getDayBookByName("FY1999-12").get();
+        this.currentBook = bookFacade.getDayBookByName("FY2000-01").get();
+
+        post(this.closedBook, LocalDate.of(1999, 12, 30), "10.00");
+        post(this.closedBook, LocalDate.of(1999, 12, 31), "20.00");
+        post(this.currentBook, LocalDate.of(2000, 1, 3), "5.00");
+    }
+
+    @After
+    public void teardown() {
+        injector.getInstance(DatabaseManager.class).dropTables();
+        ((SqliteConnectionManager) injector.getInstance(ConnectionManager.class)).close();
+        deleteFiles();
+    }
+
+    @Test
+    public void movedPeriodIsReadThroughTheAttachedFile() throws SQLException {
+        PeriodShardManager shards = injector.getInstance(PeriodShardManager.class);
+        Assert.assertTrue(shards.isEnabled());
+
+        Assert.assertEquals(2, shards.moveToShard(this.closed));
+        Assert.assertTrue(
+            shards.getShardedPeriods().contains(Integer.valueOf(this.closed.getId())));
+        Assert.assertTrue(shards.getShardFile(this.closed).get().exists());
+
+        SqliteConnectionManager manager = injector.getInstance(SqliteConnectionManager.class);
+        try (Connection conn = manager.getConnection()) {
+            Assert.assertEquals(1, count(conn, "journal"));
+            Assert.assertEquals(2, count(conn, "ledger"));
+        }
+        try (Connection conn = manager.getReadConnection()) {
+            Assert.assertEquals(3, count(conn, "journal"));
+            Assert.assertEquals(6, count(conn, "ledger"));
+        }
+
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertEquals(2, facade.getTransactionsForDayBook(this.closedBook).size());
+        Assert.assertEquals(1, facade.getTransactionsForDayBook(this.currentBook).size());
+        Assert.assertEquals(3, facade.getTransactions().size());
+    }
+
+    @Test
+    public void dayBookPagesAreReadFromTheRightFile() {
+        injector.getInstance(PeriodShardManager.class).moveToShard(this.closed);
+
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        // the current day book is read from main, the closed one through the views
+        Assert.assertEquals(1, dao.getTransactionPageForDayBook(this.currentBook, 10, null)
+            .getTransactions().size());
+        Assert.assertEquals(2, dao.getTransactionPageForDayBook(this.closedBook, 10, null)
+            .getTransactions().size());
+        Assert.assertEquals(1, dao.getTransactionForAccountInDayBook(this.cash,
+            this.currentBook).size());
+        Assert.assertEquals(2, dao.getTransactionForAccountInDayBook(this.cash,
+            this.closedBook).size());
+    }
+
+    @Test
+    public void movedJournalsAreStillFound() throws ApiException {
+        SearchDataAccessObject search = injector.getInstance(SearchDataAccessObject.class);
+        Assert.assertEquals(3, search.searchTransactions("fuel", 10, null)
+            .getTransactions().size());
+
+        injector.getInstance(PeriodShardManager.class).moveToShard(this.closed);
+        Assert.assertEquals(3, search.searchTransactions("fuel", 10, null)
+            .getTransactions().size());
+
+        // the index still follows the journals of the main database
+        post(this.currentBook, LocalDate.of(2000, 1, 4), "1.00");
+        Assert.assertEquals(4, search.searchTransactions("fuel pv", 10, null)
+            .getTransactions().size());
+    }
+
+    @Test
+    public void balancesSurviveTheMove() {
+        injector.getInstance(PeriodShardManager.class).moveToShard(this.closed);
+
+        BalanceDataAccessObject balances = injector.getInstance(BalanceDataAccessObject.class);
+        Assert.assertTrue(balances.checkBalances().isEmpty());
+        balances.rebuildBalances();
+        Assert.assertTrue(balances.checkBalances().isEmpty());
+        Assert.assertEquals(new Money(new BigDecimal("35.00")).toUnscaledInteger(),
+            balances.getBalance(this.fuel).toUnscaledInteger());
+    }
+
+    @Test
+    public void closingArchivesThePeriod() {
+        PeriodClosing closing = injector.getInstance(PeriodCloseDataAccessObject.class)
+            .closePeriod(this.closed);
+        Assert.assertTrue(closing.isArchived());
+        Assert.assertTrue(injector.getInstance(PeriodShardManager.class)
+            .getShardFile(this.closed).isPresent());
+        Assert.assertEquals(2, injector.getInstance(AccountingSystemFacade.class)
+            .getTransactionsForDayBook(this.closedBook).size());
+
+        // the archived vouchers are found by search, paging and date range
+        Assert.assertEquals(3, injector.getInstance(SearchDataAccessObject.class)
+            .searchTransactions("fuel", 10, null).getTransactions().size());
+        SqliteSystemDataAccessObject dao = injector.getInstance(SqliteSystemDataAccessObject.class);
+        Assert.assertEquals(3, dao.getTransactionPage(10, null).getTransactions().size());
+        Assert.assertEquals(2, dao.getTransactionsBetween(LocalDate.of(1999, 12, 1),
+            LocalDate.of(1999, 12, 31)).size());
+    }
+
+    @Test
+    public void backupCopiesThePeriodFiles() throws SQLException {
+        injector.getInstance(PeriodShardManager.class).moveToShard(this.closed);
+
+        BackupService service = injector.getInstance(BackupService.class);
+        for (BackupResult result : new BackupResult[] { service.backup(BACKUP),
+            service.snapshot(BACKUP) }) {
+            Assert.assertEquals(1, result.getPeriodFiles().size());
+            File periodFile = result.getPeriodFiles().get(0);
+            Assert.assertEquals(SqliteBackupService.toPeriodDirectory(BACKUP),
+                periodFile.getParentFile());
+            try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + BACKUP)) {
+                Assert.assertEquals(1, count(conn, "journal"));
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute(SqlitePeriodShardManager.toAttachStatement(periodFile,
+                        "archive"));
+                }
+                Assert.assertEquals(2, count(conn, "archive.journal"));
+            }
+        }
+    }
+
+    @Test(expected = DataAccessException.class)
+    public void periodIsMovedOnlyOnce() {
+        PeriodShardManager shards = injector.getInstance(PeriodShardManager.class);
+        shards.moveToShard(this.closed);
+        shards.moveToShard(this.closed);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shardingRequiresReaders() {
+        new SqliteConnectionManager(new ConnectionPoolSettings("jdbc:sqlite:" + DB)
+            .setPeriodShardDirectory(SHARDS));
+    }
+
+    private void post(DayBook book, LocalDate date, String amount) throws ApiException {
+        AccountingSystemFacade facade = injector.getInstance(AccountingSystemFacade.class);
+        Assert.assertTrue(facade.postTransaction(date, "Fuel", new Money(new BigDecimal(amount)),
+            this.cash, this.fuel, "PV", book.getId()));
+    }
+
+    private static int count(Connection conn, String table) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rset = stmt.executeQuery("SELECT COUNT(*) FROM " + table)) {
+                Assert.assertTrue(rset.next());
+                return rset.getInt(1);
+            }
+        }
+    }
+
+    private static void deleteFiles() {
+        for (File directory : new File[] { new File(SHARDS),
+            SqliteBackupService.toPeriodDirectory(BACKUP) }) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.setWritable(true);
+                    file.delete();
+                }
+            }
+        }
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            new File(DB + suffix).delete();
+        }
+        BACKUP.delete();
+    }
+}